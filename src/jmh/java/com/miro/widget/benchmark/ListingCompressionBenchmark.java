@@ -0,0 +1,103 @@
+package com.miro.widget.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.miro.widget.controller.dto.WidgetDTO;
+import com.miro.widget.model.Widget;
+
+/**
+ * Measures the CPU cost of sending a full board listing, serialized and compressed at every
+ *  request, and the bytes on the wire (printed after each run), without compression ("identity")
+ *  and with gzip at levels 1, 6 and 9. A precompressed listing costs the serialization and the
+ *  compression once per board revision instead. Run with
+ *  mvn -Pbenchmark compile exec:exec -Dbenchmark=ListingCompressionBenchmark
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ListingCompressionBenchmark {
+
+    @Param({"identity", "1", "6", "9"})
+    private String encoding;
+
+    @Param({"1000", "10000", "100000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+
+    private List<WidgetDTO> listing;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        final Random random = new Random(42);
+        listing = new ArrayList<>(size);
+        for (int zIndex = 0; zIndex < size; zIndex++) {
+            listing.add(WidgetDTO.from(Widget.builder()
+                    .setId(UUID.randomUUID())
+                    .setCoordinateX(random.nextInt(10_000))
+                    .setCoordinateY(random.nextInt(10_000))
+                    .setZIndex(zIndex)
+                    .setWidth(1 + random.nextInt(500))
+                    .setHeight(1 + random.nextInt(500))
+                    .build()));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeAndCompress() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(size * 64);
+        if ("identity".equals(encoding)) {
+            objectMapper.writeValue(bytes, listing);
+        } else {
+            final int level = Integer.parseInt(encoding);
+            try (OutputStream gzip = new GZIPOutputStream(bytes, 8192) {
+                {
+                    def.setLevel(level);
+                }
+            }) {
+                objectMapper.writeValue(gzip, listing);
+            }
+        }
+
+        return bytes.toByteArray();
+    }
+
+    @TearDown
+    public void printWireBytes() throws IOException {
+        final int wireBytes = serializeAndCompress().length;
+        System.out.printf("%n%s listing of %s Widgets: %s bytes on the wire, %s per Widget%n",
+                encoding, size, wireBytes, wireBytes / size);
+    }
+
+}
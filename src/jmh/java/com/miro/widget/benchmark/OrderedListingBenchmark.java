@@ -0,0 +1,89 @@
+package com.miro.widget.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.miro.widget.model.Widget;
+import com.miro.widget.repository.InMemoryWidgetRepository;
+
+/**
+ * Compares the sequential and the fork/join sort of a board by z-index, and the repository
+ *  listing that picks one of them, from 1k to 10M Widgets. Run with
+ *  mvn -Pbenchmark compile exec:exec -Dbenchmark=OrderedListingBenchmark
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms12g", "-Xmx12g"})
+public class OrderedListingBenchmark {
+
+    private static final Comparator<Widget> Z_INDEX_ORDER = Comparator.comparingInt(Widget::getZIndex);
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+
+    private Widget[] widgets;
+
+    private InMemoryWidgetRepository repository;
+
+    @Setup
+    public void setUp() {
+        final List<Widget> shuffled = new ArrayList<>(size);
+        for (int zIndex = 0; zIndex < size; zIndex++) {
+            shuffled.add(Widget.builder()
+                    .setId(UUID.randomUUID())
+                    .setCoordinateX(zIndex)
+                    .setCoordinateY(zIndex)
+                    .setZIndex(zIndex)
+                    .setWidth(1)
+                    .setHeight(1)
+                    .build());
+        }
+        Collections.shuffle(shuffled, new Random(42));
+
+        widgets = shuffled.toArray(new Widget[0]);
+        repository = new InMemoryWidgetRepository();
+        repository.saveAll(shuffled);
+    }
+
+    @Benchmark
+    public Widget[] sequentialSort() {
+        final Widget[] copy = widgets.clone();
+        Arrays.sort(copy, Z_INDEX_ORDER);
+        return copy;
+    }
+
+    @Benchmark
+    public Widget[] parallelSort() {
+        final Widget[] copy = widgets.clone();
+        Arrays.parallelSort(copy, Z_INDEX_ORDER);
+        return copy;
+    }
+
+    @Benchmark
+    public List<Widget> repositoryListing() {
+        return repository.findAllOrderedByZIndex();
+    }
+
+}
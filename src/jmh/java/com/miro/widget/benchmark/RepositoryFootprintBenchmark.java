@@ -0,0 +1,95 @@
+package com.miro.widget.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.miro.widget.model.Widget;
+import com.miro.widget.repository.CompactWidgetRepository;
+import com.miro.widget.repository.InMemoryWidgetRepository;
+import com.miro.widget.repository.WidgetRepository;
+
+/**
+ * Reports the heap retained by an idle repository, in bytes per Widget, for both repository
+ *  modes: the used heap after a full collection is compared before and after loading the board.
+ *  The time of a run is the load time and the footprint is the bytesPerWidget counter. Run with
+ *  mvn -Pbenchmark compile exec:exec -Dbenchmark=RepositoryFootprintBenchmark
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "-XX:+UseSerialGC"})
+public class RepositoryFootprintBenchmark {
+
+    @Param({"default", "compact"})
+    private String mode;
+
+    @Param({"10000", "100000", "1000000"})
+    private int size;
+
+    private WidgetRepository repository;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+
+        public long bytesPerWidget;
+
+    }
+
+    @Benchmark
+    public WidgetRepository load(final Footprint footprint) {
+        repository = null;
+        final long before = usedHeap();
+
+        repository = loadedRepository();
+
+        footprint.bytesPerWidget = (usedHeap() - before) / size;
+        return repository;
+    }
+
+    private WidgetRepository loadedRepository() {
+        final List<Widget> widgets = new ArrayList<>(size);
+        for (int zIndex = 0; zIndex < size; zIndex++) {
+            widgets.add(Widget.builder()
+                    .setId(UUID.randomUUID())
+                    .setCoordinateX(zIndex)
+                    .setCoordinateY(zIndex)
+                    .setZIndex(zIndex)
+                    .setWidth(1)
+                    .setHeight(1)
+                    .build());
+        }
+
+        final WidgetRepository loaded = "compact".equals(mode)
+                ? new CompactWidgetRepository()
+                : new InMemoryWidgetRepository();
+        loaded.loadAll(widgets);
+        return loaded;
+    }
+
+    private static long usedHeap() {
+        for (int collection = 0; collection < 3; collection++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+}
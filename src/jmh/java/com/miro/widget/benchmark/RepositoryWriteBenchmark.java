@@ -0,0 +1,92 @@
+package com.miro.widget.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.miro.widget.model.Widget;
+import com.miro.widget.repository.InMemoryWidgetRepository;
+
+/**
+ * Measures single Widget writes of the repository from 1k to 10M Widgets: a save that moves the
+ *  Widget to a free z-index and a compare-and-set that only moves it on the plane. Both should
+ *  take the same time whatever the size of the board. Run with
+ *  mvn -Pbenchmark compile exec:exec -Dbenchmark=RepositoryWriteBenchmark
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms12g", "-Xmx12g"})
+public class RepositoryWriteBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int size;
+
+    private List<UUID> ids;
+
+    private InMemoryWidgetRepository repository;
+
+    @Setup
+    public void setUp() {
+        ids = new ArrayList<>(size);
+        final List<Widget> widgets = new ArrayList<>(size);
+        for (int zIndex = 0; zIndex < size; zIndex++) {
+            final Widget widget = Widget.builder()
+                    .setId(UUID.randomUUID())
+                    .setCoordinateX(zIndex)
+                    .setCoordinateY(zIndex)
+                    .setZIndex(zIndex * 2)
+                    .setWidth(1)
+                    .setHeight(1)
+                    .build();
+            ids.add(widget.getId());
+            widgets.add(widget);
+        }
+
+        repository = new InMemoryWidgetRepository();
+        repository.loadAll(widgets);
+    }
+
+    /**
+     * Moves a random Widget to the free z-index right above it and back, the z-index stays unique.
+     */
+    @Benchmark
+    public List<Widget> save() {
+        final Widget widget = randomWidget();
+        final int zIndex = widget.getZIndex() % 2 == 0 ? widget.getZIndex() + 1 : widget.getZIndex() - 1;
+        return repository.saveAll(Set.of(widget.toBuilder().setZIndex(zIndex).build()));
+    }
+
+    @Benchmark
+    public boolean compareAndSave() {
+        final Widget widget = randomWidget();
+        final Widget dragged = widget.toBuilder()
+                .setCoordinateX(widget.getCoordinateX() ^ 1)
+                .setZIndex(widget.getZIndex())
+                .build();
+        return repository.compareAndSave(dragged, widget.getVersion());
+    }
+
+    private Widget randomWidget() {
+        return repository.findById(ids.get(ThreadLocalRandom.current().nextInt(size))).orElseThrow();
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.miro.widget.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.miro.widget.controller.WidgetController;
+
+/**
+ * Measures the time to first request of a new service instance: from the start of its JVM until
+ *  GET /api/widgets answers, with and without lazy initialization and the class data sharing
+ *  archive. Every run starts the service from target/cds, built beforehand with mvn -Pcds package.
+ *  Run with mvn -Pbenchmark compile exec:exec -Dbenchmark=StartupBenchmark
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    private static final Path CDS_DIRECTORY = Path.of("target", "cds");
+
+    private static final String ARCHIVE = "widget-service.jsa";
+
+    @Param({"default", "lazy", "cds", "lazy-cds"})
+    private String mode;
+
+    private String classpath;
+
+    private HttpClient client;
+
+    private List<String> command;
+
+    private HttpRequest firstRequest;
+
+    private Process service;
+
+    @Setup
+    public void setUp() throws IOException {
+        if (!Files.exists(CDS_DIRECTORY.resolve(ARCHIVE))) {
+            throw new IllegalStateException("No archive in " + CDS_DIRECTORY.toAbsolutePath() + ", run mvn -Pcds package first");
+        }
+        classpath = "app.jar" + File.pathSeparator + Files.readString(CDS_DIRECTORY.resolve("classpath")).trim();
+        client = HttpClient.newHttpClient();
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpService() throws IOException {
+        final int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (mode.endsWith("cds")) {
+            command.add("-XX:SharedArchiveFile=" + ARCHIVE);
+        }
+        if (mode.startsWith("lazy")) {
+            command.add("-Dspring.main.lazy-initialization=true");
+        }
+        command.addAll(List.of("-classpath", classpath, "com.miro.widget.Application", "--server.port=" + port));
+
+        firstRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + port + WidgetController.PATH)).build();
+    }
+
+    @Benchmark
+    public int firstRequest() throws IOException, InterruptedException {
+        service = new ProcessBuilder(command)
+                .directory(CDS_DIRECTORY.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+
+        while (true) {
+            try {
+                return client.send(firstRequest, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (final IOException e) {
+                if (!service.isAlive()) {
+                    throw new IllegalStateException("The service exited with " + service.exitValue(), e);
+                }
+                Thread.sleep(5);
+            }
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopService() throws InterruptedException {
+        service.destroy();
+        service.waitFor();
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.miro.widget.admission;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.miro.widget.metrics.WidgetMetrics;
+import com.miro.widget.service.BoardService;
+
+/**
+ * Write admission is enabled by widget.admission.max-queued-writers: a board write is shed with
+ *  a 429 when that many writers already wait for the board write lock, telling the client to
+ *  retry after widget.admission.retry-after (1s by default).
+ */
+
+@Configuration
+@ConditionalOnProperty(prefix = "widget.admission", name = "max-queued-writers")
+public class AdmissionConfiguration implements WebMvcConfigurer {
+
+    private final BoardService boardService;
+
+    private final int maxQueuedWriters;
+
+    private final Duration retryAfter;
+
+    private final WidgetMetrics metrics;
+
+    public AdmissionConfiguration(
+            final BoardService boardService,
+            @Value("${widget.admission.max-queued-writers}") final int maxQueuedWriters,
+            @Value("${widget.admission.retry-after:1s}") final Duration retryAfter,
+            final WidgetMetrics metrics
+    ) {
+        checkArgument(maxQueuedWriters > 0, "widget.admission.max-queued-writers must be positive");
+
+        this.boardService = boardService;
+        this.maxQueuedWriters = maxQueuedWriters;
+        this.retryAfter = retryAfter;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void addInterceptors(final InterceptorRegistry registry) {
+        registry.addInterceptor(new WriteAdmissionInterceptor(boardService, maxQueuedWriters, retryAfter, metrics))
+                .addPathPatterns("/api/widgets/**", "/api/v2/**", "/api/boards/**");
+    }
+
+}
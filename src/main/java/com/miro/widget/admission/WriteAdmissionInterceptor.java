@@ -0,0 +1,82 @@
+package com.miro.widget.admission;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.miro.widget.metrics.WidgetMetrics;
+import com.miro.widget.service.BoardService;
+import com.miro.widget.service.WidgetService;
+
+/**
+ * WriteAdmissionInterceptor sheds the writes of a board whose write lock is saturated.
+ *
+ * Writes are serialized by the board write lock, so once the writers waiting for it exceed the
+ *  bound a new write would only add its wait to everybody else's. It is answered right away with
+ *  a 429 (Too Many Requests) and Retry-After instead, and counted in widget.admission.shed. Reads
+ *  never wait for the lock and are always admitted, and so are the writes of a board that does
+ *  not exist yet.
+ */
+
+public class WriteAdmissionInterceptor implements HandlerInterceptor {
+
+    static final String BOARD_ID_VARIABLE = "boardId";
+
+    private final BoardService boardService;
+
+    private final int maxQueuedWriters;
+
+    private final Duration retryAfter;
+
+    private final WidgetMetrics metrics;
+
+    public WriteAdmissionInterceptor(
+            final BoardService boardService,
+            final int maxQueuedWriters,
+            final Duration retryAfter,
+            final WidgetMetrics metrics
+    ) {
+        this.boardService = boardService;
+        this.maxQueuedWriters = maxQueuedWriters;
+        this.retryAfter = retryAfter;
+        this.metrics = metrics;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean preHandle(
+            final HttpServletRequest request,
+            final HttpServletResponse response,
+            final Object handler
+    ) {
+        if (HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+
+        final String boardId = Optional.ofNullable(
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE)
+        ).map(variables -> variables.get(BOARD_ID_VARIABLE)).orElse(BoardService.DEFAULT_BOARD_ID);
+
+        final int queuedWriters = boardService.findBoard(boardId)
+                .map(WidgetService::getQueuedWriters)
+                .orElse(0);
+        if (queuedWriters < maxQueuedWriters) {
+            return true;
+        }
+
+        metrics.recordShedWrite();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, retryAfter.toSeconds())));
+        return false;
+    }
+
+}
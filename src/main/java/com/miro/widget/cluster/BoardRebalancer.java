@@ -0,0 +1,91 @@
+package com.miro.widget.cluster;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.Lists;
+import com.miro.widget.controller.dto.WidgetDTO;
+import com.miro.widget.service.BoardService;
+import com.miro.widget.service.WidgetService;
+
+/**
+ * BoardRebalancer moves the boards this node does not own anymore to their new owner.
+ *
+ * The Widgets of a board are sent in batches of widget.cluster.transfer-batch-size, so a big
+ *  board never needs a single huge request. The local board is only removed after all batches are
+ *  accepted; if a transfer fails the board stays here and is retried in the next rebalance. Since the
+ *  ring is changed before the transfer, new requests are already redirected to the new owner.
+ *
+ * The board is fenced during the transfer ({@link WidgetService#moveOut}): the writes that passed
+ *  the routing before the ring changed either land before the Widgets are taken or fail with
+ *  503, so their clients retry against the new owner. Once removed, the board is not created
+ *  again here by such a write, only the boards this node owns are created
+ *  ({@link BoardService#setLocalBoards}). A batch not answered within
+ *  widget.cluster.transfer-timeout fails the transfer. A transfer sent again after a failure
+ *  does not undo the writes the new owner took meanwhile, it skips the Widgets it holds at a
+ *  newer version.
+ */
+
+@Component
+@ConditionalOnProperty(prefix = "widget.cluster", name = "enabled", havingValue = "true")
+public class BoardRebalancer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoardRebalancer.class);
+
+    private final BoardService boardService;
+
+    private final ClusterMembership membership;
+
+    private final BoardTransferClient transferClient;
+
+    private final int batchSize;
+
+    public BoardRebalancer(
+            final BoardService boardService,
+            final ClusterMembership membership,
+            final BoardTransferClient transferClient,
+            final ClusterProperties properties
+    ) {
+        this.boardService = boardService;
+        this.membership = membership;
+        this.transferClient = transferClient;
+        this.batchSize = properties.getTransferBatchSize();
+        boardService.setLocalBoards(membership::isLocal);
+    }
+
+    /**
+     * @return the ids of the boards moved to other nodes
+     */
+    public synchronized List<String> rebalance() {
+        return boardService.findAllBoardIds().stream()
+                .filter(boardId -> !BoardService.DEFAULT_BOARD_ID.equals(boardId))
+                .filter(boardId -> !membership.isLocal(boardId))
+                .filter(this::transfer)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    private boolean transfer(final String boardId) {
+        final String owner = membership.ownerOf(boardId);
+        final WidgetService widgetService = boardService.findBoard(boardId).orElseThrow();
+
+        try {
+            widgetService.moveOut(widgets -> Lists.partition(widgets, batchSize).forEach(batch -> transferClient.send(
+                    owner,
+                    boardId,
+                    batch.stream().map(WidgetDTO::from).collect(Collectors.toList())
+            )));
+        } catch (final RuntimeException e) {
+            LOGGER.warn("Board {} could not be transferred to {}", boardId, owner, e);
+            return false;
+        }
+
+        boardService.removeBoard(boardId);
+        return true;
+    }
+
+}
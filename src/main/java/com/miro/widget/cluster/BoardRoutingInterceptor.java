@@ -0,0 +1,59 @@
+package com.miro.widget.cluster;
+
+import java.util.Map;
+import java.util.Optional;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * BoardRoutingInterceptor sends the board requests to the node that owns the board.
+ *
+ * A request for a board owned by another node is answered with a 307 (Temporary Redirect) to
+ *  the same path in the owner, 307 keeps the method and the body so writes are redirected as well.
+ *  Redirecting instead of forwarding keeps this node out of the data path.
+ */
+
+public class BoardRoutingInterceptor implements HandlerInterceptor {
+
+    static final String BOARD_ID_VARIABLE = "boardId";
+
+    private final ClusterMembership membership;
+
+    public BoardRoutingInterceptor(final ClusterMembership membership) {
+        this.membership = membership;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean preHandle(
+            final HttpServletRequest request,
+            final HttpServletResponse response,
+            final Object handler
+    ) {
+        final Optional<String> boardId = Optional.ofNullable(
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE)
+        ).map(variables -> variables.get(BOARD_ID_VARIABLE));
+
+        if (boardId.isEmpty() || membership.isLocal(boardId.get())) {
+            return true;
+        }
+
+        final String query = Optional.ofNullable(request.getQueryString())
+                .map(q -> "?" + q)
+                .orElse("");
+
+        response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+        response.setHeader(
+                HttpHeaders.LOCATION,
+                membership.ownerOf(boardId.get()) + request.getRequestURI() + query
+        );
+        return false;
+    }
+
+}
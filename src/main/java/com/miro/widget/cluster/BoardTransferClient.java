@@ -0,0 +1,36 @@
+package com.miro.widget.cluster;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import com.miro.widget.controller.ClusterController;
+import com.miro.widget.controller.dto.WidgetDTO;
+
+@Component
+@ConditionalOnProperty(prefix = "widget.cluster", name = "enabled", havingValue = "true")
+public class BoardTransferClient {
+
+    private final RestTemplate restTemplate;
+
+    public BoardTransferClient(final RestTemplateBuilder restTemplateBuilder, final ClusterProperties properties) {
+        // a new owner that does not answer fails the transfer, the board is then open again here
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(properties.getTransferTimeout())
+                .setReadTimeout(properties.getTransferTimeout())
+                .build();
+    }
+
+    public void send(final String node, final String boardId, final List<WidgetDTO> widgets) {
+        restTemplate.postForEntity(
+                node + ClusterController.PATH + ClusterController.BOARD_WIDGETS_PATH,
+                widgets,
+                Void.class,
+                boardId
+        );
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.miro.widget.cluster;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Cluster mode is enabled by widget.cluster.enabled=true. In that mode board ids are spread
+ *  across the nodes listed in widget.cluster.nodes by consistent hashing and the board API
+ *  redirects to the owner node. The board-less API (/api/widgets) stays local to each node.
+ */
+
+@Configuration
+@ConditionalOnProperty(prefix = "widget.cluster", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ClusterProperties.class)
+public class ClusterConfiguration implements WebMvcConfigurer {
+
+    private final ClusterMembership membership;
+
+    public ClusterConfiguration(final ClusterMembership membership) {
+        this.membership = membership;
+    }
+
+    @Override
+    public void addInterceptors(final InterceptorRegistry registry) {
+        registry.addInterceptor(new BoardRoutingInterceptor(membership))
+                .addPathPatterns("/api/boards/**");
+    }
+
+}
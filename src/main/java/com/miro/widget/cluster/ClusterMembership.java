@@ -0,0 +1,71 @@
+package com.miro.widget.cluster;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * ClusterMembership knows the nodes of the cluster and which one owns each board.
+ *
+ * Nodes are identified by their base URL (e.g. http://localhost:8081). The current ring is
+ *  replaced as a whole when the membership changes, so a lookup never sees half a change.
+ */
+
+@Component
+@ConditionalOnProperty(prefix = "widget.cluster", name = "enabled", havingValue = "true")
+public class ClusterMembership {
+
+    private final String self;
+
+    private final int virtualNodes;
+
+    private final AtomicReference<ConsistentHashRing> ring;
+
+    public ClusterMembership(final ClusterProperties properties) {
+        checkArgument(properties.getSelf() != null, "widget.cluster.self must be set in cluster mode");
+
+        this.self = normalize(properties.getSelf());
+        this.virtualNodes = properties.getVirtualNodes();
+
+        final List<String> nodes = properties.getNodes().isEmpty() ? List.of(self) : properties.getNodes();
+        this.ring = new AtomicReference<>(ConsistentHashRing.of(normalize(nodes), virtualNodes));
+    }
+
+    public String getSelf() {
+        return self;
+    }
+
+    public Set<String> getNodes() {
+        return ring.get().getNodes();
+    }
+
+    public String ownerOf(final String boardId) {
+        return ring.get().ownerOf(boardId);
+    }
+
+    public boolean isLocal(final String boardId) {
+        return self.equals(ownerOf(boardId));
+    }
+
+    public void changeNodes(final Collection<String> nodes) {
+        ring.set(ConsistentHashRing.of(normalize(nodes), virtualNodes));
+    }
+
+    private static Set<String> normalize(final Collection<String> nodes) {
+        return nodes.stream()
+                .map(ClusterMembership::normalize)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static String normalize(final String node) {
+        return node.endsWith("/") ? node.substring(0, node.length() - 1) : node;
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.miro.widget.cluster;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "widget.cluster")
+public class ClusterProperties {
+
+    private boolean enabled;
+
+    private String self;
+
+    private List<String> nodes = new ArrayList<>();
+
+    private int virtualNodes = 128;
+
+    private int transferBatchSize = 1000;
+
+    private Duration transferTimeout = Duration.ofSeconds(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getSelf() {
+        return self;
+    }
+
+    public void setSelf(final String self) {
+        this.self = self;
+    }
+
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    public void setNodes(final List<String> nodes) {
+        this.nodes = nodes;
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    public void setVirtualNodes(final int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+
+    public int getTransferBatchSize() {
+        return transferBatchSize;
+    }
+
+    public void setTransferBatchSize(final int transferBatchSize) {
+        this.transferBatchSize = transferBatchSize;
+    }
+
+    public Duration getTransferTimeout() {
+        return transferTimeout;
+    }
+
+    public void setTransferTimeout(final Duration transferTimeout) {
+        this.transferTimeout = transferTimeout;
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.miro.widget.cluster;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+/**
+ * ConsistentHashRing assigns keys (board ids) to nodes.
+ *
+ * Every node is placed in the ring several times (virtual nodes) to spread the keys evenly,
+ *  and a key belongs to the first virtual node found clockwise from its hash. When a node joins
+ *  or leaves, only the keys of its ring segments change owner. This object is immutable, a
+ *  membership change builds a new ring.
+ */
+
+public final class ConsistentHashRing {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private final NavigableMap<Long, String> nodeByHash;
+
+    private final Set<String> nodes;
+
+    private ConsistentHashRing(final Collection<String> nodes, final int virtualNodes) {
+        checkArgument(!nodes.isEmpty(), "The ring must have at least one node");
+        checkArgument(virtualNodes > 0, "Virtual nodes must be positive");
+
+        this.nodes = Set.copyOf(nodes);
+        this.nodeByHash = new TreeMap<>();
+        this.nodes.forEach(node -> {
+            for (int i = 0; i < virtualNodes; i++) {
+                nodeByHash.put(hash(node + "#" + i), node);
+            }
+        });
+    }
+
+    public String ownerOf(final String key) {
+        final Map.Entry<Long, String> entry = nodeByHash.ceilingEntry(hash(key));
+        return (entry != null ? entry : nodeByHash.firstEntry()).getValue();
+    }
+
+    public Set<String> getNodes() {
+        return nodes;
+    }
+
+    private static long hash(final String value) {
+        return HASH_FUNCTION.hashString(value, StandardCharsets.UTF_8).asLong();
+    }
+
+    public static ConsistentHashRing of(final Collection<String> nodes, final int virtualNodes) {
+        return new ConsistentHashRing(nodes, virtualNodes);
+    }
+
+}
@@ -0,0 +1,181 @@
+package com.miro.widget.controller;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.miro.widget.controller.dto.CreateWidgetDTO;
+import com.miro.widget.controller.dto.PatchWidgetDTO;
+import com.miro.widget.controller.dto.UpdateWidgetDTO;
+import com.miro.widget.controller.dto.WidgetDTO;
+import com.miro.widget.model.Widget;
+import com.miro.widget.service.BoardService;
+import com.miro.widget.service.WidgetService;
+import com.miro.widget.util.Page;
+
+@RestController
+@RequestMapping(path = BoardWidgetController.PATH)
+public class BoardWidgetController {
+
+    public static final String PATH = "/api/boards/{boardId}/widgets";
+
+    private final BoardService boardService;
+
+    private final ObjectMapper objectMapper;
+
+    private final PrecompressedListings listings;
+
+    public BoardWidgetController(
+            final BoardService boardService,
+            final ObjectMapper objectMapper,
+            final PrecompressedListings listings
+    ) {
+        this.boardService = boardService;
+        this.objectMapper = objectMapper;
+        this.listings = listings;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public WidgetDTO createWidget(
+            @PathVariable("boardId") final String boardId,
+            @RequestBody @Validated final CreateWidgetDTO widgetDTO
+    ) {
+        final Widget widget = boardService.forBoard(boardId).createWidget(
+                widgetDTO.getCoordinateX(),
+                widgetDTO.getCoordinateY(),
+                widgetDTO.getzIndex(),
+                widgetDTO.getWidth(),
+                widgetDTO.getHeight()
+        );
+        return WidgetDTO.from(widget);
+    }
+
+    @PutMapping
+    public ResponseEntity<WidgetDTO> updateWidget(
+            @PathVariable("boardId") final String boardId,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) final String ifMatch,
+            @RequestBody @Validated final UpdateWidgetDTO widgetDTO
+    ) {
+        final WidgetService widgetService = boardService.findBoard(boardId)
+                .orElseThrow(() -> new WidgetService.WidgetNotFoundException(widgetDTO.getId()));
+        final Widget widget = widgetService.updateWidget(
+                widgetDTO.getId(),
+                WidgetVersions.expectedVersion(ifMatch),
+                widgetDTO.getCoordinateX(),
+                widgetDTO.getCoordinateY(),
+                widgetDTO.getzIndex(),
+                widgetDTO.getWidth(),
+                widgetDTO.getHeight()
+        );
+        return WidgetVersions.ok(widget);
+    }
+
+    @PatchMapping(path = "/{widgetId}")
+    public ResponseEntity<WidgetDTO> patchWidget(
+            @PathVariable("boardId") final String boardId,
+            @PathVariable("widgetId") final UUID widgetId,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) final String ifMatch,
+            @RequestBody @Validated final PatchWidgetDTO widgetDTO
+    ) {
+        final WidgetService widgetService = boardService.findBoard(boardId)
+                .orElseThrow(() -> new WidgetService.WidgetNotFoundException(widgetId));
+        final Widget widget = widgetService.updateGeometry(
+                widgetId,
+                WidgetVersions.expectedVersion(ifMatch),
+                widgetDTO.getCoordinateX(),
+                widgetDTO.getCoordinateY(),
+                widgetDTO.getWidth(),
+                widgetDTO.getHeight()
+        );
+        return WidgetVersions.ok(widget);
+    }
+
+    @GetMapping(path = "/{widgetId}")
+    public ResponseEntity<WidgetDTO> getWidget(
+            @PathVariable("boardId") final String boardId,
+            @PathVariable("widgetId") final UUID widgetId
+    ) {
+        return boardService.findBoard(boardId)
+                .flatMap(service -> service.findById(widgetId))
+                .map(WidgetVersions::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    /**
+     * Lists the board in z-index order, as gzip kept between writes when the client accepts it
+     *  (see {@link PrecompressedListings}).
+     */
+    @GetMapping
+    public ResponseEntity<?> getAllWidgets(
+            @PathVariable("boardId") final String boardId,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) final String acceptEncoding
+    ) {
+        final Optional<WidgetService> widgetService = boardService.findBoard(boardId);
+        if (widgetService.isPresent() && PrecompressedListings.acceptsGzip(acceptEncoding)) {
+            return listings.listing(widgetService.get());
+        }
+        return ResponseEntity.ok(widgetService
+                .map(service -> service.findAllOrderByZIndex().stream()
+                        .map(WidgetDTO::from)
+                        .collect(Collectors.toUnmodifiableList()))
+                .orElseGet(List::of));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllWidgets(@PathVariable("boardId") final String boardId) {
+        final List<Widget> widgets = boardService.findBoard(boardId)
+                .map(WidgetService::findAllOrderByZIndex)
+                .orElseGet(List::of);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(WidgetStreams.ndjson(objectMapper, widgets));
+    }
+
+    @GetMapping(params = "page")
+    @ResponseStatus(HttpStatus.OK)
+    public List<WidgetDTO> getPagedWidget(
+            @PathVariable("boardId") final String boardId,
+            @RequestParam(value = "page") final int page,
+            @RequestParam(value = "size", defaultValue = "10") final int size
+    ) {
+        final Page widgetPage = Page.from(page, size);
+        return boardService.findBoard(boardId)
+                .map(service -> service.findAllOrderByZIndex(widgetPage).stream()
+                        .map(WidgetDTO::from)
+                        .collect(Collectors.toUnmodifiableList()))
+                .orElseGet(List::of);
+    }
+
+    @DeleteMapping(path = "/{widgetId}")
+    @ResponseStatus(HttpStatus.OK)
+    public void deleteWidgetById(
+            @PathVariable("boardId") final String boardId,
+            @PathVariable("widgetId") final UUID widgetId
+    ) {
+        boardService.findBoard(boardId).ifPresent(service -> service.deleteWidget(widgetId));
+    }
+
+}
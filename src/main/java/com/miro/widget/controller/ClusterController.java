@@ -0,0 +1,94 @@
+package com.miro.widget.controller;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.miro.widget.cluster.BoardRebalancer;
+import com.miro.widget.cluster.ClusterMembership;
+import com.miro.widget.controller.dto.WidgetDTO;
+import com.miro.widget.service.BoardService;
+
+@RestController
+@RequestMapping(path = ClusterController.PATH)
+@ConditionalOnProperty(prefix = "widget.cluster", name = "enabled", havingValue = "true")
+public class ClusterController {
+
+    public static final String PATH = "/api/cluster";
+
+    public static final String BOARD_WIDGETS_PATH = "/boards/{boardId}/widgets";
+
+    private final ClusterMembership membership;
+
+    private final BoardRebalancer rebalancer;
+
+    private final BoardService boardService;
+
+    public ClusterController(
+            final ClusterMembership membership,
+            final BoardRebalancer rebalancer,
+            final BoardService boardService
+    ) {
+        this.membership = membership;
+        this.rebalancer = rebalancer;
+        this.boardService = boardService;
+    }
+
+    @GetMapping(path = "/nodes")
+    @ResponseStatus(HttpStatus.OK)
+    public Set<String> getNodes() {
+        return membership.getNodes();
+    }
+
+    /**
+     * Replaces the nodes of the cluster and moves away the boards that changed owner. The
+     *  same list must be sent to every node of the cluster.
+     */
+    @PutMapping(path = "/nodes")
+    @ResponseStatus(HttpStatus.OK)
+    public Map<String, Object> changeNodes(@RequestBody final List<String> nodes) {
+        membership.changeNodes(nodes);
+        final List<String> movedBoards = rebalancer.rebalance();
+
+        return Map.of(
+                "nodes", membership.getNodes(),
+                "movedBoards", movedBoards
+        );
+    }
+
+    @GetMapping(path = "/boards/{boardId}/owner")
+    @ResponseStatus(HttpStatus.OK)
+    public Map<String, String> getBoardOwner(@PathVariable("boardId") final String boardId) {
+        return Map.of(
+                "boardId", boardId,
+                "owner", membership.ownerOf(boardId)
+        );
+    }
+
+    @PostMapping(path = BOARD_WIDGETS_PATH)
+    @ResponseStatus(HttpStatus.OK)
+    public void receiveBoardWidgets(
+            @PathVariable("boardId") final String boardId,
+            @RequestBody @Validated final List<WidgetDTO> widgets
+    ) {
+        boardService.forBoard(boardId).restoreWidgets(
+                widgets.stream()
+                        .map(WidgetDTO::toWidget)
+                        .collect(Collectors.toList())
+        );
+    }
+
+}
@@ -3,13 +3,20 @@ package com.miro.widget.controller;
 import java.time.ZonedDateTime;
 import java.util.Map;
 
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import com.miro.widget.service.WidgetCommandQueue;
 import com.miro.widget.service.WidgetService;
 
 @ControllerAdvice
@@ -28,6 +35,85 @@ public class ExceptionHandlerController extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(WidgetService.WidgetVersionMismatchException.class)
+    public ResponseEntity<Object> handleWidgetVersionMismatchException(
+            final WidgetService.WidgetVersionMismatchException ex,
+            final WebRequest request
+    ) {
+        final Map<String, Object> body = Map.of(
+                "timestamp", ZonedDateTime.now(),
+                "message", ex.getMessage()
+        );
+
+        return new ResponseEntity<>(body, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(WidgetVersions.WeakEntityTagException.class)
+    public ResponseEntity<Object> handleWeakEntityTagException(
+            final WidgetVersions.WeakEntityTagException ex,
+            final WebRequest request
+    ) {
+        final Map<String, Object> body = Map.of(
+                "timestamp", ZonedDateTime.now(),
+                "message", ex.getMessage()
+        );
+
+        return new ResponseEntity<>(body, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(WidgetCommandQueue.QueueFullException.class)
+    public ResponseEntity<Object> handleQueueFullException(
+            final WidgetCommandQueue.QueueFullException ex,
+            final WebRequest request
+    ) {
+        final Map<String, Object> body = Map.of(
+                "timestamp", ZonedDateTime.now(),
+                "message", ex.getMessage()
+        );
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(body);
+    }
+
+    @ExceptionHandler(WidgetService.BoardMovedException.class)
+    public ResponseEntity<Object> handleBoardMovedException(
+            final WidgetService.BoardMovedException ex,
+            final WebRequest request
+    ) {
+        final Map<String, Object> body = Map.of(
+                "timestamp", ZonedDateTime.now(),
+                "message", ex.getMessage()
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(body);
+    }
+
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Object> handleTaskRejectedException(
+            final TaskRejectedException ex,
+            final HttpServletRequest request
+    ) {
+        // a rejected stream is thrown in the request and dispatched again as the async result,
+        //  it is answered once, in the request
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return null;
+        }
+
+        final Map<String, Object> body = Map.of(
+                "timestamp", ZonedDateTime.now(),
+                "message", "Too many streamed responses, retry later"
+        );
+
+        // the request accepted a stream (e.g. application/x-ndjson), the error is sent as JSON anyway
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Object> handleIllegalArgumentException(
             final IllegalArgumentException ex,
@@ -0,0 +1,150 @@
+package com.miro.widget.controller;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.primitives.Doubles;
+import com.miro.widget.controller.dto.WidgetDTO;
+import com.miro.widget.service.WidgetService;
+
+/**
+ * Keeps the full listing of every board as the bytes it is sent as (gzip, or JSON when it is too
+ *  small) while the board does not change ({@link WidgetService#getRevision()}), for the clients
+ *  that accept gzip. A board read many times between writes is serialized and compressed once, the
+ *  other reads send the same bytes. One instance is shared by the controllers of the boards.
+ *
+ * Listings under widget.listing.gzip.min-size bytes are sent as they are, the gzip header and the
+ *  CPU are not worth it. The compression level is widget.listing.gzip.level (1 fastest to 9
+ *  smallest). Other listings (pages, ranges, streams) are left to the server compression.
+ */
+
+@Component
+final class PrecompressedListings {
+
+    private static final String GZIP = "gzip";
+
+    private final ObjectMapper objectMapper;
+
+    private final int minSize;
+
+    private final int level;
+
+    // weakly held so a removed board does not stay in memory
+    private final Map<WidgetService, Listing> listingByBoard;
+
+    PrecompressedListings(
+            final ObjectMapper objectMapper,
+            @Value("${widget.listing.gzip.min-size:2048}") final int minSize,
+            @Value("${widget.listing.gzip.level:6}") final int level
+    ) {
+        checkArgument(
+                level >= Deflater.BEST_SPEED && level <= Deflater.BEST_COMPRESSION,
+                "widget.listing.gzip.level must be between %s and %s, found %s",
+                Deflater.BEST_SPEED,
+                Deflater.BEST_COMPRESSION,
+                level
+        );
+
+        this.objectMapper = objectMapper;
+        this.minSize = minSize;
+        this.level = level;
+        this.listingByBoard = Collections.synchronizedMap(new WeakHashMap<>());
+    }
+
+    /**
+     * @return whether the Accept-Encoding header accepts gzip (not with q=0)
+     */
+    static boolean acceptsGzip(final String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        return Arrays.stream(acceptEncoding.split(","))
+                .map(coding -> coding.trim().split(";"))
+                .anyMatch(coding -> GZIP.equalsIgnoreCase(coding[0].trim())
+                        && Arrays.stream(coding).skip(1).map(String::trim).noneMatch(PrecompressedListings::isZeroQuality));
+    }
+
+    private static boolean isZeroQuality(final String parameter) {
+        final Double quality = parameter.startsWith("q=") ? Doubles.tryParse(parameter.substring(2)) : null;
+        return quality != null && quality == 0;
+    }
+
+    ResponseEntity<byte[]> listing(final WidgetService widgetService) {
+        // read before the listing, so the listing holds at least the writes of the revision
+        final long revision = widgetService.getRevision();
+
+        Listing listing = listingByBoard.get(widgetService);
+        if (listing == null || listing.revision != revision) {
+            listing = list(widgetService.findAllOrderByZIndex().stream()
+                    .map(WidgetDTO::from)
+                    .collect(Collectors.toUnmodifiableList()), revision);
+            listingByBoard.put(widgetService, listing);
+        }
+
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        return listing.gzip
+                ? response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(listing.body)
+                : response.body(listing.body);
+    }
+
+    private Listing list(final List<WidgetDTO> widgets, final long revision) {
+        try {
+            final byte[] json = objectMapper.writeValueAsBytes(widgets);
+            return json.length < minSize
+                    ? new Listing(revision, json, false)
+                    : new Listing(revision, gzip(json, level), true);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static byte[] gzip(final byte[] bytes, final int level) throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            gzipOutputStream.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static final class Listing {
+
+        private final long revision;
+
+        // only the bytes that are sent are kept, the JSON is dropped once compressed
+        private final byte[] body;
+
+        private final boolean gzip;
+
+        private Listing(final long revision, final byte[] body, final boolean gzip) {
+            this.revision = revision;
+            this.body = body;
+            this.gzip = gzip;
+        }
+
+    }
+
+}
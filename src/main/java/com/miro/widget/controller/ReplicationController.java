@@ -0,0 +1,53 @@
+package com.miro.widget.controller;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.miro.widget.controller.dto.MutationDTO;
+import com.miro.widget.controller.dto.SnapshotDTO;
+import com.miro.widget.replication.ReplicationLog;
+
+@RestController
+@RequestMapping(path = ReplicationController.PATH)
+@ConditionalOnProperty(prefix = "widget.replication", name = "role", havingValue = "leader")
+public class ReplicationController {
+
+    public static final String PATH = "/api/replication";
+
+    private static final int MAX_LIMIT = 10_000;
+
+    private final ReplicationLog replicationLog;
+
+    public ReplicationController(final ReplicationLog replicationLog) {
+        this.replicationLog = replicationLog;
+    }
+
+    /**
+     * @return the log entries after the given version, or 410 (Gone) when the follower must
+     *  restart from a snapshot
+     */
+    @GetMapping(path = "/mutations")
+    public ResponseEntity<List<MutationDTO>> getMutations(
+            @RequestParam("after") final long after,
+            @RequestParam(name = "limit", defaultValue = "1000") final int limit
+    ) {
+        return replicationLog.findAfter(after, Math.max(1, Math.min(limit, MAX_LIMIT)))
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.GONE).build());
+    }
+
+    @GetMapping(path = "/snapshot")
+    @ResponseStatus(HttpStatus.OK)
+    public SnapshotDTO getSnapshot() {
+        return replicationLog.snapshot();
+    }
+
+}
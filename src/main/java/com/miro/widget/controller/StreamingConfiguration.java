@@ -0,0 +1,54 @@
+package com.miro.widget.controller;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * The streamed responses (NDJSON listings and exports, see {@link WidgetStreams}) are written by
+ *  their own executor: widget.streaming.threads threads (64 by default), each blocked on one
+ *  client while its socket accepts data. That is the number of responses streamed at the same
+ *  time. Up to widget.streaming.queue-capacity more (256 by default) wait for a thread, within
+ *  spring.mvc.async.request-timeout; beyond that a stream is answered with 503 and Retry-After.
+ *
+ * The listing of the board is still taken before the stream starts (a list of the Widgets, the
+ *  DTOs are built while writing), only the writing is moved out of the request thread.
+ */
+
+@Configuration
+public class StreamingConfiguration implements WebMvcConfigurer {
+
+    private final ThreadPoolTaskExecutor executor;
+
+    public StreamingConfiguration(
+            @Value("${widget.streaming.threads:64}") final int threads,
+            @Value("${widget.streaming.queue-capacity:256}") final int queueCapacity
+    ) {
+        checkArgument(threads > 0, "widget.streaming.threads must be positive");
+        checkArgument(queueCapacity >= 0, "widget.streaming.queue-capacity must not be negative");
+
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("widget-stream-");
+        executor.initialize();
+    }
+
+    @Override
+    public void configureAsyncSupport(final AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(executor);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+}
@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -11,6 +12,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.miro.widget.controller.dto.WidgetDTO;
+import com.miro.widget.model.Widget;
 import com.miro.widget.service.WidgetService;
 import com.miro.widget.util.Page;
 
@@ -29,11 +31,46 @@ public class WidgetComplicationController {
     // complication 1
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public List<WidgetDTO> getPagedWidget(
+    public List<?> getPagedWidget(
             @RequestParam(value = "page", defaultValue = "0") final int page,
-            @RequestParam(value = "size", defaultValue = "10") final int size
+            @RequestParam(value = "size", defaultValue = "10") final int size,
+            @RequestParam(value = "fields", required = false) final String fields
     ) {
-        return widgetService.findAllOrderByZIndex(Page.from(page, size)).stream()
+        return list(widgetService.findAllOrderByZIndex(Page.from(page, size)), fields);
+    }
+
+    @GetMapping(params = {"zFrom", "zTo"})
+    @ResponseStatus(HttpStatus.OK)
+    public List<?> getWidgetsByZIndexRange(
+            @RequestParam("zFrom") final int zFrom,
+            @RequestParam("zTo") final int zTo,
+            @RequestParam(value = "fields", required = false) final String fields
+    ) {
+        return list(widgetService.findByZIndexRange(zFrom, zTo), fields);
+    }
+
+    /**
+     * Hit-test: the topmost Widget containing the point, or no content when there is none.
+     */
+    @GetMapping(path = "/at")
+    public ResponseEntity<WidgetDTO> getTopmostWidgetAt(
+            @RequestParam("x") final int x,
+            @RequestParam("y") final int y
+    ) {
+        return widgetService.findTopmostAt(x, y)
+                .map(WidgetDTO::from)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    /**
+     * @return the WidgetDTOs, or only the requested fields (see {@link WidgetFields})
+     */
+    private static List<?> list(final List<Widget> widgets, final String fields) {
+        if (fields != null) {
+            return WidgetFields.from(fields).project(widgets);
+        }
+        return widgets.stream()
                 .map(WidgetDTO::from)
                 .collect(Collectors.toUnmodifiableList());
     }
@@ -1,25 +1,37 @@
 package com.miro.widget.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.miro.widget.controller.dto.CreateWidgetDTO;
+import com.miro.widget.controller.dto.PatchWidgetDTO;
 import com.miro.widget.controller.dto.UpdateWidgetDTO;
 import com.miro.widget.controller.dto.WidgetDTO;
+import com.miro.widget.controller.dto.ZIndexCompactionDTO;
 import com.miro.widget.model.Widget;
 import com.miro.widget.service.WidgetService;
 
@@ -29,10 +41,22 @@ public class WidgetController {
 
     public static final String PATH = "/api/widgets";
 
+    private static final String EXPORT_FILE_NAME = "widgets.ndjson.gz";
+
     private final WidgetService widgetService;
 
-    public WidgetController(final WidgetService widgetService) {
+    private final ObjectMapper objectMapper;
+
+    private final PrecompressedListings listings;
+
+    public WidgetController(
+            final WidgetService widgetService,
+            final ObjectMapper objectMapper,
+            final PrecompressedListings listings
+    ) {
         this.widgetService = widgetService;
+        this.objectMapper = objectMapper;
+        this.listings = listings;
     }
 
     @PostMapping
@@ -48,34 +72,129 @@ public class WidgetController {
         return WidgetDTO.from(widget);
     }
 
+    /**
+     * Updates the Widget, only if it is still the version given in If-Match when the header is sent
+     *  (412 Precondition Failed otherwise). The new version is returned as ETag.
+     */
     @PutMapping
-    @ResponseStatus(HttpStatus.OK)
-    public WidgetDTO updateWidget(@RequestBody @Validated final UpdateWidgetDTO widgetDTO) {
+    public ResponseEntity<WidgetDTO> updateWidget(
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) final String ifMatch,
+            @RequestBody @Validated final UpdateWidgetDTO widgetDTO
+    ) {
         final Widget widget = widgetService.updateWidget(
                 widgetDTO.getId(),
+                WidgetVersions.expectedVersion(ifMatch),
                 widgetDTO.getCoordinateX(),
                 widgetDTO.getCoordinateY(),
                 widgetDTO.getzIndex(),
                 widgetDTO.getWidth(),
                 widgetDTO.getHeight()
         );
-        return WidgetDTO.from(widget);
+        return WidgetVersions.ok(widget);
+    }
+
+    /**
+     * Changes the position and size of the Widget keeping its z-index, see
+     *  {@link WidgetService#updateGeometry(UUID, Long, Integer, Integer, Integer, Integer)}. Meant
+     *  for drags and resizes, with If-Match as in PUT.
+     */
+    @PatchMapping(path = "/{widgetId}")
+    public ResponseEntity<WidgetDTO> patchWidget(
+            @PathVariable("widgetId") final UUID widgetId,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) final String ifMatch,
+            @RequestBody @Validated final PatchWidgetDTO widgetDTO
+    ) {
+        final Widget widget = widgetService.updateGeometry(
+                widgetId,
+                WidgetVersions.expectedVersion(ifMatch),
+                widgetDTO.getCoordinateX(),
+                widgetDTO.getCoordinateY(),
+                widgetDTO.getWidth(),
+                widgetDTO.getHeight()
+        );
+        return WidgetVersions.ok(widget);
+    }
+
+    /**
+     * Moves the Widget right above the given one, see {@link WidgetService#moveWidgetAbove(UUID, UUID)}.
+     */
+    @PostMapping(path = "/{widgetId}/move")
+    @ResponseStatus(HttpStatus.OK)
+    public WidgetDTO moveWidget(
+            @PathVariable("widgetId") final UUID widgetId,
+            @RequestParam("above") final UUID belowWidgetId
+    ) {
+        return WidgetDTO.from(widgetService.moveWidgetAbove(widgetId, belowWidgetId));
     }
 
     @GetMapping(path = "/{widgetId}")
     public ResponseEntity<WidgetDTO> getWidget(@PathVariable("widgetId") final UUID widgetId) {
         return widgetService.findById(widgetId)
-                .map(WidgetDTO::from)
-                .map(ResponseEntity::ok)
+                .map(WidgetVersions::ok)
                 .orElseGet(() -> ResponseEntity.noContent().build());
     }
 
+    /**
+     * Lists the board in z-index order, as gzip kept between writes when the client accepts it
+     *  (see {@link PrecompressedListings}), or only the requested fields (see {@link WidgetFields}).
+     */
     @GetMapping
-    @ResponseStatus(HttpStatus.OK)
-    public List<WidgetDTO> getAllWidgets() {
-        return widgetService.findAllOrderByZIndex().stream()
+    public ResponseEntity<?> getAllWidgets(
+            @RequestParam(value = "fields", required = false) final String fields,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) final String acceptEncoding
+    ) {
+        if (fields != null) {
+            return ResponseEntity.ok(WidgetFields.from(fields).project(widgetService.findAllOrderByZIndex()));
+        }
+        if (PrecompressedListings.acceptsGzip(acceptEncoding)) {
+            return listings.listing(widgetService);
+        }
+        return ResponseEntity.ok(widgetService.findAllOrderByZIndex().stream()
                 .map(WidgetDTO::from)
-                .collect(Collectors.toUnmodifiableList());
+                .collect(Collectors.toUnmodifiableList()));
+    }
+
+    /**
+     * Same listing as {@link #getAllWidgets(String, String)}, streamed one Widget per line without
+     *  holding the request thread while the client reads it.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllWidgets() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(WidgetStreams.ndjson(objectMapper, widgetService.findAllOrderByZIndex()));
+    }
+
+    /**
+     * Exports the board as gzip NDJSON, streamed as it is written.
+     */
+    @GetMapping(path = "/export", produces = WidgetStreams.GZIP_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportWidgets() {
+        return ResponseEntity.ok()
+                .contentType(WidgetStreams.GZIP)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + EXPORT_FILE_NAME + "\"")
+                .body(WidgetStreams.gzipNdjson(objectMapper, widgetService.findAllOrderByZIndex()));
+    }
+
+    /**
+     * Replaces the board by an export, read from the request before the board is locked.
+     */
+    @PostMapping(path = "/import", consumes = WidgetStreams.GZIP_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public Map<String, Integer> importWidgets(final InputStream body) throws IOException {
+        final int imported = widgetService.importWidgets(WidgetStreams.readGzipNdjson(objectMapper, body));
+        return Map.of("imported", imported);
+    }
+
+    /**
+     * Renumbers the z-indexes of the board keeping their order, see {@link WidgetService#compactZIndexes(int)}.
+     */
+    @PostMapping(path = "/compaction")
+    @ResponseStatus(HttpStatus.OK)
+    public ZIndexCompactionDTO compactZIndexes(
+            @RequestParam(name = "spacing", defaultValue = "1") final int spacing
+    ) {
+        return ZIndexCompactionDTO.from(widgetService.compactZIndexes(spacing));
     }
 
     @DeleteMapping(path = "/{widgetId}")
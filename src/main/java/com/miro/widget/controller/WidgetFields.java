@@ -0,0 +1,145 @@
+package com.miro.widget.controller;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.miro.widget.model.Widget;
+
+/**
+ * The properties of a Widget requested with fields= (e.g. fields=id,zIndex,coordinateX), named
+ *  as in the WidgetDTO. The selected properties are written straight from the Widget, in the
+ *  WidgetDTO order: no WidgetDTO is built and the date is only formatted when it is requested.
+ */
+
+final class WidgetFields {
+
+    enum Field {
+        ID("id"),
+        LAST_MODIFICATION_DATE("lastModificationDate"),
+        COORDINATE_X("coordinateX"),
+        COORDINATE_Y("coordinateY"),
+        Z_INDEX("zIndex"),
+        WIDTH("width"),
+        HEIGHT("height"),
+        VERSION("version");
+
+        private final String property;
+
+        Field(final String property) {
+            this.property = property;
+        }
+
+    }
+
+    private final Set<Field> fields;
+
+    private WidgetFields(final Set<Field> fields) {
+        checkArgument(!fields.isEmpty(), "At least one field must be requested");
+
+        this.fields = fields;
+    }
+
+    /**
+     * @throws IllegalArgumentException if a field is not a Widget property
+     */
+    static WidgetFields from(final String fields) {
+        final Set<Field> selected = EnumSet.noneOf(Field.class);
+        for (final String property : fields.split(",")) {
+            if (!property.isBlank()) {
+                selected.add(field(property.trim()));
+            }
+        }
+        return new WidgetFields(selected);
+    }
+
+    private static Field field(final String property) {
+        return Arrays.stream(Field.values())
+                .filter(field -> field.property.equals(property))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(String.format(
+                        "Unknown field %s, expected %s",
+                        property,
+                        Arrays.stream(Field.values()).map(field -> field.property).collect(Collectors.joining(","))
+                )));
+    }
+
+    List<JsonSerializable> project(final List<Widget> widgets) {
+        return widgets.stream()
+                .map(this::project)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    private JsonSerializable project(final Widget widget) {
+        return new JsonSerializable.Base() {
+
+            @Override
+            public void serialize(final JsonGenerator gen, final SerializerProvider serializers) throws IOException {
+                gen.writeStartObject();
+                write(widget, gen, serializers);
+                gen.writeEndObject();
+            }
+
+            @Override
+            public void serializeWithType(
+                    final JsonGenerator gen,
+                    final SerializerProvider serializers,
+                    final TypeSerializer typeSer
+            ) throws IOException {
+                final WritableTypeId typeId = typeSer.typeId(this, JsonToken.START_OBJECT);
+                typeSer.writeTypePrefix(gen, typeId);
+                write(widget, gen, serializers);
+                typeSer.writeTypeSuffix(gen, typeId);
+            }
+
+        };
+    }
+
+    private void write(final Widget widget, final JsonGenerator gen, final SerializerProvider serializers)
+            throws IOException {
+        for (final Field field : fields) {
+            switch (field) {
+                case ID:
+                    gen.writeStringField(field.property, widget.getId().toString());
+                    break;
+                case LAST_MODIFICATION_DATE:
+                    // the configured date format, as in the WidgetDTO
+                    gen.writeFieldName(field.property);
+                    serializers.defaultSerializeValue(widget.getLastModificationDate(), gen);
+                    break;
+                case COORDINATE_X:
+                    gen.writeNumberField(field.property, widget.getCoordinateX());
+                    break;
+                case COORDINATE_Y:
+                    gen.writeNumberField(field.property, widget.getCoordinateY());
+                    break;
+                case Z_INDEX:
+                    gen.writeNumberField(field.property, widget.getZIndex());
+                    break;
+                case WIDTH:
+                    gen.writeNumberField(field.property, widget.getWidth());
+                    break;
+                case HEIGHT:
+                    gen.writeNumberField(field.property, widget.getHeight());
+                    break;
+                case VERSION:
+                    gen.writeNumberField(field.property, widget.getVersion());
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected field " + field);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.miro.widget.controller;
+
+import java.net.URI;
+import java.util.UUID;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.miro.widget.controller.dto.CreateWidgetDTO;
+import com.miro.widget.controller.dto.OperationDTO;
+import com.miro.widget.controller.dto.UpdateWidgetDTO;
+import com.miro.widget.service.BoardService;
+import com.miro.widget.service.WidgetCommand;
+import com.miro.widget.service.WidgetCommandQueue;
+
+/**
+ * Asynchronous creations and updates: the write is queued and answered right away with a 202
+ *  (Accepted), the operation id and its Location, where the client polls for the written Widget.
+ *  The writes are executed in batches by {@link WidgetCommandQueue}, a full queue is answered
+ *  with a 429.
+ */
+
+@RestController
+public class WidgetOperationController {
+
+    public static final String PATH = "/api/operations";
+
+    private static final String ASYNC_PATH = "/async";
+
+    private final WidgetCommandQueue commandQueue;
+
+    public WidgetOperationController(final WidgetCommandQueue commandQueue) {
+        this.commandQueue = commandQueue;
+    }
+
+    @PostMapping(path = WidgetController.PATH + ASYNC_PATH)
+    public ResponseEntity<OperationDTO> createWidget(@RequestBody @Validated final CreateWidgetDTO widgetDTO) {
+        return createWidget(BoardService.DEFAULT_BOARD_ID, widgetDTO);
+    }
+
+    @PostMapping(path = BoardWidgetController.PATH + ASYNC_PATH)
+    public ResponseEntity<OperationDTO> createWidget(
+            @PathVariable("boardId") final String boardId,
+            @RequestBody @Validated final CreateWidgetDTO widgetDTO
+    ) {
+        return accepted(commandQueue.submit(WidgetCommand.create(
+                boardId,
+                widgetDTO.getCoordinateX(),
+                widgetDTO.getCoordinateY(),
+                widgetDTO.getzIndex(),
+                widgetDTO.getWidth(),
+                widgetDTO.getHeight()
+        )));
+    }
+
+    @PutMapping(path = WidgetController.PATH + ASYNC_PATH)
+    public ResponseEntity<OperationDTO> updateWidget(
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) final String ifMatch,
+            @RequestBody @Validated final UpdateWidgetDTO widgetDTO
+    ) {
+        return updateWidget(BoardService.DEFAULT_BOARD_ID, ifMatch, widgetDTO);
+    }
+
+    @PutMapping(path = BoardWidgetController.PATH + ASYNC_PATH)
+    public ResponseEntity<OperationDTO> updateWidget(
+            @PathVariable("boardId") final String boardId,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) final String ifMatch,
+            @RequestBody @Validated final UpdateWidgetDTO widgetDTO
+    ) {
+        return accepted(commandQueue.submit(WidgetCommand.update(
+                boardId,
+                widgetDTO.getId(),
+                WidgetVersions.expectedVersion(ifMatch),
+                widgetDTO.getCoordinateX(),
+                widgetDTO.getCoordinateY(),
+                widgetDTO.getzIndex(),
+                widgetDTO.getWidth(),
+                widgetDTO.getHeight()
+        )));
+    }
+
+    /**
+     * @return the state of the operation, 404 when it is unknown or older than widget.async.retention
+     */
+    @GetMapping(path = PATH + "/{operationId}")
+    public ResponseEntity<OperationDTO> getOperation(@PathVariable("operationId") final UUID operationId) {
+        return commandQueue.findById(operationId)
+                .map(command -> ResponseEntity.ok(OperationDTO.from(command)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static ResponseEntity<OperationDTO> accepted(final WidgetCommand command) {
+        return ResponseEntity.accepted()
+                .location(URI.create(PATH + "/" + command.getId()))
+                .body(OperationDTO.from(command));
+    }
+
+}
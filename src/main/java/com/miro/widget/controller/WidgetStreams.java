@@ -0,0 +1,94 @@
+package com.miro.widget.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.miro.widget.controller.dto.WidgetDTO;
+import com.miro.widget.model.Widget;
+
+/**
+ * Streams Widgets as newline delimited JSON (one WidgetDTO per line).
+ *
+ * The body is written asynchronously by the streaming executor (see StreamingConfiguration), so
+ *  the request thread is released as soon as the listing is taken and a slow client only holds an
+ *  executor thread while the socket accepts data. Each DTO is built right before it is written,
+ *  the whole response is never held in memory. The gzip variant is the export/import format of a
+ *  board.
+ */
+
+final class WidgetStreams {
+
+    static final String GZIP_VALUE = "application/gzip";
+
+    static final MediaType GZIP = MediaType.parseMediaType(GZIP_VALUE);
+
+    private static final byte NEW_LINE = '\n';
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private WidgetStreams() { }
+
+    static StreamingResponseBody ndjson(final ObjectMapper objectMapper, final List<Widget> widgets) {
+        final ObjectWriter writer = objectMapper.writerFor(WidgetDTO.class);
+        return outputStream -> writeLines(writer, widgets, outputStream);
+    }
+
+    static StreamingResponseBody gzipNdjson(final ObjectMapper objectMapper, final List<Widget> widgets) {
+        final ObjectWriter writer = objectMapper.writerFor(WidgetDTO.class);
+        return outputStream -> {
+            final GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, GZIP_BUFFER_SIZE);
+            writeLines(writer, widgets, gzipOutputStream);
+            gzipOutputStream.finish();
+        };
+    }
+
+    /**
+     * Reads a whole gzip NDJSON stream, so a slow upload is read before the board is locked.
+     *
+     * @throws IllegalArgumentException if the stream is not gzip or a line is not a valid Widget
+     */
+    static List<Widget> readGzipNdjson(final ObjectMapper objectMapper, final InputStream inputStream) throws IOException {
+        final MappingIterator<WidgetDTO> dtos;
+        try {
+            dtos = objectMapper.readerFor(WidgetDTO.class)
+                    .readValues(new GZIPInputStream(inputStream, GZIP_BUFFER_SIZE));
+        } catch (final ZipException e) {
+            throw new IllegalArgumentException("The body is not gzip: " + e.getMessage(), e);
+        }
+
+        final List<Widget> widgets = new ArrayList<>();
+        try {
+            while (dtos.hasNext()) {
+                widgets.add(dtos.next().toWidget());
+            }
+        } catch (final RuntimeJsonMappingException e) {
+            throw new IllegalArgumentException("Invalid Widget: " + e.getMessage(), e);
+        }
+        return widgets;
+    }
+
+    private static void writeLines(
+            final ObjectWriter writer,
+            final List<Widget> widgets,
+            final OutputStream outputStream
+    ) throws IOException {
+        for (final Widget widget : widgets) {
+            outputStream.write(writer.writeValueAsBytes(WidgetDTO.from(widget)));
+            outputStream.write(NEW_LINE);
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.miro.widget.controller;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.springframework.http.ResponseEntity;
+
+import com.google.common.primitives.Longs;
+import com.miro.widget.controller.dto.WidgetDTO;
+import com.miro.widget.model.Widget;
+
+/**
+ * Maps the version of a Widget to HTTP entity tags: a Widget is returned with its version as
+ *  ETag, and an update sent with If-Match is applied only to that version of the Widget.
+ */
+
+final class WidgetVersions {
+
+    private static final String ANY = "*";
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private WidgetVersions() { }
+
+    static ResponseEntity<WidgetDTO> ok(final Widget widget) {
+        return ResponseEntity.ok()
+                .eTag(Long.toString(widget.getVersion()))
+                .body(WidgetDTO.from(widget));
+    }
+
+    /**
+     * @return the version required by an If-Match header, or null when any version is accepted
+     *  (no header or "*")
+     * @throws WeakEntityTagException if the header is a weak entity tag, which never matches as
+     *  If-Match uses the strong comparison (RFC 7232, section 3.1)
+     * @throws IllegalArgumentException if the header is not a single version entity tag
+     */
+    static Long expectedVersion(final String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals(ANY)) {
+            return null;
+        }
+
+        String tag = ifMatch.trim();
+        if (tag.startsWith(WEAK_PREFIX)) {
+            throw new WeakEntityTagException(ifMatch);
+        }
+        if (tag.length() > 1 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+
+        final Long version = Longs.tryParse(tag);
+        checkArgument(version != null, "If-Match must be a Widget version, found %s", ifMatch);
+        return version;
+    }
+
+    static class WeakEntityTagException extends RuntimeException {
+
+        WeakEntityTagException(final String ifMatch) {
+            super(String.format("If-Match %s is a weak entity tag and matches no Widget version", ifMatch));
+        }
+
+    }
+
+}
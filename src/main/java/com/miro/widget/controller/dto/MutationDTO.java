@@ -0,0 +1,113 @@
+package com.miro.widget.controller.dto;
+
+import java.util.Objects;
+import java.util.UUID;
+
+import javax.validation.constraints.NotNull;
+
+import com.miro.widget.model.Widget;
+import com.miro.widget.model.ZIndexShift;
+
+/**
+ * MutationDTO is one entry of the replication log: a change applied to a board, identified by
+ *  the log version. Depending on the type, widget (SAVED), widgetId (DELETED), the shift range
+ *  (SHIFTED) or the spacing (RENUMBERED) is filled.
+ */
+
+public class MutationDTO {
+
+    public enum Type {
+        SAVED,
+        SHIFTED,
+        DELETED,
+        RENUMBERED
+    }
+
+    @NotNull
+    private final Long version;
+
+    @NotNull
+    private final String boardId;
+
+    @NotNull
+    private final Type type;
+
+    private final WidgetDTO widget;
+
+    private final UUID widgetId;
+
+    private final Integer shiftFrom;
+
+    private final Integer shiftTo;
+
+    private final Integer spacing;
+
+    public MutationDTO(
+            final Long version,
+            final String boardId,
+            final Type type,
+            final WidgetDTO widget,
+            final UUID widgetId,
+            final Integer shiftFrom,
+            final Integer shiftTo,
+            final Integer spacing
+    ) {
+        this.version = Objects.requireNonNull(version);
+        this.boardId = Objects.requireNonNull(boardId);
+        this.type = Objects.requireNonNull(type);
+        this.widget = widget;
+        this.widgetId = widgetId;
+        this.shiftFrom = shiftFrom;
+        this.shiftTo = shiftTo;
+        this.spacing = spacing;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public String getBoardId() {
+        return boardId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public WidgetDTO getWidget() {
+        return widget;
+    }
+
+    public UUID getWidgetId() {
+        return widgetId;
+    }
+
+    public Integer getShiftFrom() {
+        return shiftFrom;
+    }
+
+    public Integer getShiftTo() {
+        return shiftTo;
+    }
+
+    public Integer getSpacing() {
+        return spacing;
+    }
+
+    public static MutationDTO saved(final long version, final String boardId, final Widget widget) {
+        return new MutationDTO(version, boardId, Type.SAVED, WidgetDTO.from(widget), null, null, null, null);
+    }
+
+    public static MutationDTO shifted(final long version, final String boardId, final ZIndexShift shift) {
+        return new MutationDTO(version, boardId, Type.SHIFTED, null, null, shift.getFrom(), shift.getTo(), null);
+    }
+
+    public static MutationDTO deleted(final long version, final String boardId, final UUID widgetId) {
+        return new MutationDTO(version, boardId, Type.DELETED, null, widgetId, null, null, null);
+    }
+
+    public static MutationDTO renumbered(final long version, final String boardId, final int spacing) {
+        return new MutationDTO(version, boardId, Type.RENUMBERED, null, null, null, null, spacing);
+    }
+
+}
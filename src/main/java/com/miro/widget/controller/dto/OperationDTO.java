@@ -0,0 +1,59 @@
+package com.miro.widget.controller.dto;
+
+import java.util.UUID;
+
+import com.miro.widget.service.WidgetCommand;
+
+/**
+ * State of an asynchronous write: PENDING, COMPLETED with the written Widget or FAILED with the
+ *  reason.
+ */
+
+public class OperationDTO {
+
+    private final UUID id;
+
+    private final WidgetCommand.Status status;
+
+    private final WidgetDTO widget;
+
+    private final String failure;
+
+    public OperationDTO(
+            final UUID id,
+            final WidgetCommand.Status status,
+            final WidgetDTO widget,
+            final String failure
+    ) {
+        this.id = id;
+        this.status = status;
+        this.widget = widget;
+        this.failure = failure;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public WidgetCommand.Status getStatus() {
+        return status;
+    }
+
+    public WidgetDTO getWidget() {
+        return widget;
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    public static OperationDTO from(final WidgetCommand command) {
+        return new OperationDTO(
+                command.getId(),
+                command.getStatus(),
+                command.getWidget().map(WidgetDTO::from).orElse(null),
+                command.getFailure().orElse(null)
+        );
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.miro.widget.controller.dto;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Position and size changes of a Widget, the fields left null are kept. The z-index is not part
+ *  of it, a patch never moves the Widget in the z-order.
+ */
+
+public class PatchWidgetDTO {
+
+    private final Integer coordinateX;
+
+    private final Integer coordinateY;
+
+    @Min(1)
+    private final Integer width;
+
+    @Min(1)
+    private final Integer height;
+
+    public PatchWidgetDTO(
+            final Integer coordinateX,
+            final Integer coordinateY,
+            final Integer width,
+            final Integer height
+    ) {
+        this.coordinateX = coordinateX;
+        this.coordinateY = coordinateY;
+        this.width = width;
+        this.height = height;
+    }
+
+    public Integer getCoordinateX() {
+        return coordinateX;
+    }
+
+    public Integer getCoordinateY() {
+        return coordinateY;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+
+}
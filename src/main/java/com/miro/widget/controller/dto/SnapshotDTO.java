@@ -0,0 +1,61 @@
+package com.miro.widget.controller.dto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * SnapshotDTO is a copy of all the boards used to (re)start a replica.
+ *
+ * Each board is copied at its own log version (no write in progress in that board), the
+ *  snapshot version is the log version before the first board was copied. A replica continues from
+ *  the snapshot version skipping, for each board, the entries already included in its copy.
+ */
+
+public class SnapshotDTO {
+
+    @NotNull
+    private final Long version;
+
+    @NotNull
+    private final Map<String, BoardSnapshotDTO> boards;
+
+    public SnapshotDTO(final Long version, final Map<String, BoardSnapshotDTO> boards) {
+        this.version = Objects.requireNonNull(version);
+        this.boards = Objects.requireNonNull(boards);
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Map<String, BoardSnapshotDTO> getBoards() {
+        return boards;
+    }
+
+    public static class BoardSnapshotDTO {
+
+        @NotNull
+        private final Long version;
+
+        @NotNull
+        private final List<WidgetDTO> widgets;
+
+        public BoardSnapshotDTO(final Long version, final List<WidgetDTO> widgets) {
+            this.version = Objects.requireNonNull(version);
+            this.widgets = Objects.requireNonNull(widgets);
+        }
+
+        public Long getVersion() {
+            return version;
+        }
+
+        public List<WidgetDTO> getWidgets() {
+            return widgets;
+        }
+
+    }
+
+}
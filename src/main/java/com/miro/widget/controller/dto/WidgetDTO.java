@@ -31,6 +31,8 @@ public class WidgetDTO {
     @NotNull
     private final Integer height;
 
+    private final long version;
+
     public WidgetDTO(
             final UUID id,
             final ZonedDateTime lastModificationDate,
@@ -38,7 +40,8 @@ public class WidgetDTO {
             final Integer coordinateY,
             final Integer zIndex,
             final Integer width,
-            final Integer height
+            final Integer height,
+            final long version
     ) {
         this.id = Objects.requireNonNull(id);
         this.lastModificationDate = Objects.requireNonNull(lastModificationDate);
@@ -47,6 +50,7 @@ public class WidgetDTO {
         this.zIndex = Objects.requireNonNull(zIndex);
         this.width = Objects.requireNonNull(width);
         this.height = Objects.requireNonNull(height);
+        this.version = version;
     }
 
     public UUID getId() {
@@ -77,6 +81,22 @@ public class WidgetDTO {
         return height;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public Widget toWidget() {
+        return Widget.builder()
+                .setId(id)
+                .setLastModificationDate(lastModificationDate)
+                .setCoordinateX(coordinateX)
+                .setCoordinateY(coordinateY)
+                .setZIndex(zIndex)
+                .setWidth(width)
+                .setHeight(height)
+                .setVersion(version)
+                .build();
+    }
 
     public static WidgetDTO from(final Widget widget) {
         return new WidgetDTO(
@@ -86,7 +106,8 @@ public class WidgetDTO {
                 widget.getCoordinateY(),
                 widget.getZIndex(),
                 widget.getWidth(),
-                widget.getHeight()
+                widget.getHeight(),
+                widget.getVersion()
         );
     }
 
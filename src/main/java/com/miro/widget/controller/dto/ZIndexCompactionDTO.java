@@ -0,0 +1,47 @@
+package com.miro.widget.controller.dto;
+
+import com.miro.widget.service.ZIndexCompaction;
+
+public class ZIndexCompactionDTO {
+
+    private final int spacing;
+
+    private final int widgets;
+
+    private final int moved;
+
+    private final long durationMillis;
+
+    public ZIndexCompactionDTO(final int spacing, final int widgets, final int moved, final long durationMillis) {
+        this.spacing = spacing;
+        this.widgets = widgets;
+        this.moved = moved;
+        this.durationMillis = durationMillis;
+    }
+
+    public int getSpacing() {
+        return spacing;
+    }
+
+    public int getWidgets() {
+        return widgets;
+    }
+
+    public int getMoved() {
+        return moved;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public static ZIndexCompactionDTO from(final ZIndexCompaction compaction) {
+        return new ZIndexCompactionDTO(
+                compaction.getSpacing(),
+                compaction.getWidgets(),
+                compaction.getMoved(),
+                compaction.getDuration().toMillis()
+        );
+    }
+
+}
@@ -0,0 +1,167 @@
+package com.miro.widget.metrics;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+/**
+ * WidgetMetrics holds the meters of the write and listing hot paths, shared by every board.
+ *
+ * The meters are registered once, so recording is a lock-free update of an existing histogram:
+ *  no lookup, no tag and no allocation per call. The repository sizes are gauges read only when
+ *  the metrics are scraped.
+ */
+
+@Component
+public class WidgetMetrics {
+
+    /**
+     * Discards everything, used when the service is built outside of the application context.
+     */
+    public static final WidgetMetrics NOOP = new WidgetMetrics(new CompositeMeterRegistry());
+
+    private final Timer transactionWait;
+
+    private final Timer transactionHold;
+
+    private final DistributionSummary shiftLength;
+
+    private final Timer sort;
+
+    private final DistributionSummary saveBatchSize;
+
+    private final Timer compaction;
+
+    private final DistributionSummary compactionMoved;
+
+    private final DistributionSummary coalescedUpdates;
+
+    private final Counter shedWrites;
+
+    // sources of the size gauges, weakly held so a removed board does not stay in memory
+    private final Map<Object, ToIntFunction<Object>> widgetsByRepository;
+
+    private final Map<Object, ToIntFunction<Object>> zIndexesByRepository;
+
+    /**
+     * Records in the application registry, or nowhere when the context has none (e.g. test slices).
+     */
+    @Autowired
+    public WidgetMetrics(final ObjectProvider<MeterRegistry> registry) {
+        this(registry.getIfAvailable(CompositeMeterRegistry::new));
+    }
+
+    public WidgetMetrics(final MeterRegistry registry) {
+        transactionWait = Timer.builder("widget.transaction.wait")
+                .description("Time waiting for the board write lock")
+                .publishPercentileHistogram()
+                .register(registry);
+        transactionHold = Timer.builder("widget.transaction.hold")
+                .description("Time holding the board write lock")
+                .publishPercentileHistogram()
+                .register(registry);
+        shiftLength = DistributionSummary.builder("widget.shift.length")
+                .description("Widgets moved by a z-index shift")
+                .baseUnit("widgets")
+                .publishPercentileHistogram()
+                .register(registry);
+        sort = Timer.builder("widget.repository.sort")
+                .description("Time sorting the widgets of a board by z-index")
+                .publishPercentileHistogram()
+                .register(registry);
+        saveBatchSize = DistributionSummary.builder("widget.repository.save.batch")
+                .description("Widgets saved together")
+                .baseUnit("widgets")
+                .publishPercentileHistogram()
+                .register(registry);
+        compaction = Timer.builder("widget.compaction")
+                .description("Time renumbering the z-indexes of a board")
+                .register(registry);
+        compactionMoved = DistributionSummary.builder("widget.compaction.moved")
+                .description("Widgets whose z-index changed in a compaction")
+                .baseUnit("widgets")
+                .register(registry);
+        coalescedUpdates = DistributionSummary.builder("widget.update.coalesced")
+                .description("Updates of a Widget merged into a single write")
+                .baseUnit("updates")
+                .publishPercentileHistogram()
+                .register(registry);
+        shedWrites = Counter.builder("widget.admission.shed")
+                .description("Write requests rejected because the board write lock queue was full")
+                .register(registry);
+
+        widgetsByRepository = new WeakHashMap<>();
+        zIndexesByRepository = new WeakHashMap<>();
+        Gauge.builder("widget.repository.widgets", this, metrics -> sum(metrics, metrics.widgetsByRepository))
+                .description("Widgets stored in all the boards")
+                .register(registry);
+        Gauge.builder("widget.repository.z.indexes", this, metrics -> sum(metrics, metrics.zIndexesByRepository))
+                .description("Z-index entries stored in all the boards")
+                .register(registry);
+    }
+
+    public void recordTransaction(final long waitNanos, final long holdNanos) {
+        transactionWait.record(waitNanos, TimeUnit.NANOSECONDS);
+        transactionHold.record(holdNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordShiftLength(final int length) {
+        shiftLength.record(length);
+    }
+
+    public void recordSort(final long nanos) {
+        sort.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSaveBatchSize(final int size) {
+        saveBatchSize.record(size);
+    }
+
+    public void recordCompaction(final long nanos, final int moved) {
+        compaction.record(nanos, TimeUnit.NANOSECONDS);
+        compactionMoved.record(moved);
+    }
+
+    public void recordCoalescedUpdates(final int updates) {
+        coalescedUpdates.record(updates);
+    }
+
+    public void recordShedWrite() {
+        shedWrites.increment();
+    }
+
+    /**
+     * Adds the sizes of the given repository to the size gauges. The functions must not capture
+     *  the repository (e.g. method references), otherwise it is never released.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> void monitorSizes(
+            final T repository,
+            final ToIntFunction<T> widgets,
+            final ToIntFunction<T> zIndexes
+    ) {
+        widgetsByRepository.put(repository, (ToIntFunction<Object>) widgets);
+        zIndexesByRepository.put(repository, (ToIntFunction<Object>) zIndexes);
+    }
+
+    private static double sum(final WidgetMetrics metrics, final Map<Object, ToIntFunction<Object>> sizes) {
+        synchronized (metrics) {
+            return sizes.entrySet().stream()
+                    .mapToInt(e -> e.getValue().applyAsInt(e.getKey()))
+                    .sum();
+        }
+    }
+
+}
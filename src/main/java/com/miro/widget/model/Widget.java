@@ -4,6 +4,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import java.time.ZonedDateTime;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -12,6 +13,9 @@ import java.util.UUID;
  * This object is immutable to ensure thread-safe of writing and update Widget in
  *  the widget-service. In case you need to change any field a new instance should
  *  be created using the builder pattern.
+ *
+ * Every instance built from another one (see {@link #toBuilder()}) gets the next version, so a
+ *  stored Widget can be replaced only if it is still the version the change was made from.
  */
 
 public final class Widget {
@@ -30,16 +34,20 @@ public final class Widget {
 
     private final int height;
 
+    private final long version;
+
     private Widget(
             final UUID id,
+            final ZonedDateTime lastModificationDate,
             final int coordinateX,
             final int coordinateY,
             final int zIndex,
             final int width,
-            final int height
+            final int height,
+            final long version
     ) {
         this.id = Objects.requireNonNull(id);
-        this.lastModificationDate = ZonedDateTime.now();
+        this.lastModificationDate = Optional.ofNullable(lastModificationDate).orElseGet(ZonedDateTime::now);
 
         this.coordinateX = coordinateX;
         this.coordinateY = coordinateY;
@@ -49,6 +57,7 @@ public final class Widget {
         checkArgument(height > 0, "Height must be positive");
         this.width = width;
         this.height = height;
+        this.version = version;
     }
 
     public UUID getId() {
@@ -79,6 +88,10 @@ public final class Widget {
         return height;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o)
@@ -101,7 +114,8 @@ public final class Widget {
                 .setCoordinateY(coordinateY)
                 .setZIndex(zIndex)
                 .setHeight(height)
-                .setWidth(width);
+                .setWidth(width)
+                .setVersion(version + 1);
     }
 
     public static WidgetBuilder builder() {
@@ -110,17 +124,28 @@ public final class Widget {
 
     public static class WidgetBuilder {
         private UUID id;
+        private ZonedDateTime lastModificationDate;
         private Integer coordinateX;
         private Integer coordinateY;
         private Integer zIndex;
         private Integer width;
         private Integer height;
+        private long version;
 
         public WidgetBuilder setId(final UUID id) {
             this.id = id;
             return this;
         }
 
+        /**
+         * Keeps the given modification date instead of the creation time, used when a Widget
+         *  saved somewhere else is restored (e.g. transferred between nodes).
+         */
+        public WidgetBuilder setLastModificationDate(final ZonedDateTime lastModificationDate) {
+            this.lastModificationDate = lastModificationDate;
+            return this;
+        }
+
         public WidgetBuilder setCoordinateX(final int coordinateX) {
             this.coordinateX = coordinateX;
             return this;
@@ -146,8 +171,13 @@ public final class Widget {
             return this;
         }
 
+        public WidgetBuilder setVersion(final long version) {
+            this.version = version;
+            return this;
+        }
+
         public Widget build() {
-            return new Widget(id, coordinateX, coordinateY, zIndex, width, height);
+            return new Widget(id, lastModificationDate, coordinateX, coordinateY, zIndex, width, height, version);
         }
 
     }
@@ -0,0 +1,76 @@
+package com.miro.widget.model;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Objects;
+
+/**
+ * This object represents a z-index shift: every Widget with z-index in [from, to] has its
+ *  z-index incremented by one.
+ *
+ * It is the compact form of the shift that happens when a Widget is placed in an occupied
+ *  z-index. No matter how many Widgets are moved, the shift is described by two integers, so it
+ *  can be sent and applied directly by whoever keeps a copy of the board.
+ */
+
+public final class ZIndexShift {
+
+    public static final int OFFSET = 1;
+
+    private final int from;
+
+    private final int to;
+
+    private ZIndexShift(final int from, final int to) {
+        checkArgument(from <= to, "Shift start must not be after its end");
+
+        this.from = from;
+        this.to = to;
+    }
+
+    public int getFrom() {
+        return from;
+    }
+
+    public int getTo() {
+        return to;
+    }
+
+    public int size() {
+        return to - from + 1;
+    }
+
+    public boolean contains(final int zIndex) {
+        return zIndex >= from && zIndex <= to;
+    }
+
+    public int apply(final int zIndex) {
+        return contains(zIndex) ? zIndex + OFFSET : zIndex;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        final ZIndexShift that = (ZIndexShift) o;
+        return from == that.from &&
+                to == that.to;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(from, to);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("zIndex in [%d, %d] += %d", from, to, OFFSET);
+    }
+
+    public static ZIndexShift of(final int from, final int to) {
+        return new ZIndexShift(from, to);
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.miro.widget.replication;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty(prefix = "widget.replication", name = "role", havingValue = "follower")
+public class FollowerConfiguration implements WebMvcConfigurer {
+
+    private final ReplicationFollower follower;
+
+    private final LeaderClient leaderClient;
+
+    private final ReplicationProperties properties;
+
+    public FollowerConfiguration(
+            final ReplicationFollower follower,
+            final LeaderClient leaderClient,
+            final ReplicationProperties properties
+    ) {
+        this.follower = follower;
+        this.leaderClient = leaderClient;
+        this.properties = properties;
+    }
+
+    @Override
+    public void addInterceptors(final InterceptorRegistry registry) {
+        registry.addInterceptor(new FollowerRequestInterceptor(follower, leaderClient.getLeader(), properties.getReadWait()))
+                .addPathPatterns("/api/widgets/**", "/api/v2/**", "/api/boards/**");
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.miro.widget.replication;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.google.common.primitives.Longs;
+
+/**
+ * FollowerRequestInterceptor keeps a follower read-only and its reads within the staleness bound.
+ *
+ * Writes are answered with a 307 (Temporary Redirect) to the same path in the leader. Reads are
+ *  answered with a 503 (Service Unavailable) when the follower is stale or, for a request carrying
+ *  {@link VersionTokens#MIN_VERSION_HEADER}, when that version is not applied within
+ *  widget.replication.read-wait. Answered reads carry the applied version in
+ *  {@link VersionTokens#VERSION_HEADER}. A version token that is not a number is a bad request
+ *  (400), answered by the ExceptionHandlerController like the bad parameters of the controllers.
+ */
+
+public class FollowerRequestInterceptor implements HandlerInterceptor {
+
+    private final ReplicationFollower follower;
+
+    private final String leader;
+
+    private final Duration readWait;
+
+    public FollowerRequestInterceptor(
+            final ReplicationFollower follower,
+            final String leader,
+            final Duration readWait
+    ) {
+        this.follower = follower;
+        this.leader = leader;
+        this.readWait = readWait;
+    }
+
+    @Override
+    public boolean preHandle(
+            final HttpServletRequest request,
+            final HttpServletResponse response,
+            final Object handler
+    ) throws InterruptedException {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            final String query = Optional.ofNullable(request.getQueryString())
+                    .map(q -> "?" + q)
+                    .orElse("");
+
+            response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+            response.setHeader(HttpHeaders.LOCATION, leader + request.getRequestURI() + query);
+            return false;
+        }
+
+        final String minVersionToken = Optional.ofNullable(request.getHeader(VersionTokens.MIN_VERSION_HEADER))
+                .orElse("0");
+        final Long minVersion = Longs.tryParse(minVersionToken.trim());
+        checkArgument(
+                minVersion != null,
+                "%s must be a version, found %s",
+                VersionTokens.MIN_VERSION_HEADER,
+                minVersionToken
+        );
+
+        if (follower.isStale() || !follower.awaitVersion(minVersion, readWait)) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, readWait.toSeconds())));
+            return false;
+        }
+
+        response.setHeader(VersionTokens.VERSION_HEADER, Long.toString(follower.getAppliedVersion()));
+        return true;
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.miro.widget.replication;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import com.miro.widget.controller.ReplicationController;
+import com.miro.widget.controller.dto.MutationDTO;
+import com.miro.widget.controller.dto.SnapshotDTO;
+
+@Component
+@ConditionalOnProperty(prefix = "widget.replication", name = "role", havingValue = "follower")
+public class LeaderClient {
+
+    private final RestTemplate restTemplate;
+
+    private final String leader;
+
+    public LeaderClient(final RestTemplateBuilder restTemplateBuilder, final ReplicationProperties properties) {
+        this.restTemplate = restTemplateBuilder.build();
+        this.leader = Objects.requireNonNull(properties.getLeader(), "widget.replication.leader must be set in a follower");
+    }
+
+    public String getLeader() {
+        return leader;
+    }
+
+    /**
+     * @return the leader entries after the given version, or empty when the leader does not have
+     *  them anymore and a snapshot is needed
+     */
+    public Optional<List<MutationDTO>> fetchMutations(final long after, final int limit) {
+        try {
+            final MutationDTO[] mutations = restTemplate.getForObject(
+                    leader + ReplicationController.PATH + "/mutations?after={after}&limit={limit}",
+                    MutationDTO[].class,
+                    after,
+                    limit
+            );
+            return Optional.of(List.of(Objects.requireNonNull(mutations)));
+        } catch (final HttpClientErrorException.Gone e) {
+            return Optional.empty();
+        }
+    }
+
+    public SnapshotDTO fetchSnapshot() {
+        return Objects.requireNonNull(
+                restTemplate.getForObject(leader + ReplicationController.PATH + "/snapshot", SnapshotDTO.class)
+        );
+    }
+
+}
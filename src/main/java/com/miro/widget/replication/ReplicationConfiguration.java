@@ -0,0 +1,18 @@
+package com.miro.widget.replication;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Replication is enabled by widget.replication.role. The leader takes every write and keeps
+ *  them in a {@link ReplicationLog}, the followers pull that log from widget.replication.leader
+ *  and serve the reads.
+ */
+
+@Configuration
+@ConditionalOnProperty(prefix = "widget.replication", name = "role")
+@EnableConfigurationProperties(ReplicationProperties.class)
+public class ReplicationConfiguration {
+
+}
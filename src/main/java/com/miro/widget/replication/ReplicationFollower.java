@@ -0,0 +1,184 @@
+package com.miro.widget.replication;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import com.miro.widget.controller.dto.MutationDTO;
+import com.miro.widget.controller.dto.SnapshotDTO;
+import com.miro.widget.controller.dto.WidgetDTO;
+import com.miro.widget.model.ZIndexShift;
+import com.miro.widget.service.BoardService;
+import com.miro.widget.service.WidgetChangeListener;
+
+/**
+ * ReplicationFollower keeps the local boards as a copy of the leader boards.
+ *
+ * A single thread polls the leader log every widget.replication.poll-interval and applies the
+ *  entries in order to the local boards, as they are (no shift rule is evaluated again). It starts,
+ *  and restarts whenever the leader does not have the needed entries anymore, from a snapshot.
+ *  The follower is stale when the leader was not reached for more than widget.replication.max-staleness.
+ *  It is created at startup even with lazy initialization, nothing else would start polling.
+ */
+
+@Lazy(false)
+@Component
+@ConditionalOnProperty(prefix = "widget.replication", name = "role", havingValue = "follower")
+public class ReplicationFollower {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicationFollower.class);
+
+    private final BoardService boardService;
+
+    private final LeaderClient leaderClient;
+
+    private final int batchSize;
+
+    private final Duration pollInterval;
+
+    private final Duration maxStaleness;
+
+    private final ScheduledExecutorService executor;
+
+    // version each board was copied at by the last snapshot, only used by the polling thread
+    private final Map<String, Long> snapshotVersionByBoardId;
+
+    private boolean synced;
+
+    private volatile long appliedVersion;
+
+    private volatile long lastContactNanos;
+
+    public ReplicationFollower(
+            final BoardService boardService,
+            final LeaderClient leaderClient,
+            final ReplicationProperties properties
+    ) {
+        this.boardService = boardService;
+        this.leaderClient = leaderClient;
+        this.batchSize = properties.getBatchSize();
+        this.pollInterval = properties.getPollInterval();
+        this.maxStaleness = properties.getMaxStaleness();
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "replication-follower"));
+        this.snapshotVersionByBoardId = new HashMap<>();
+        this.lastContactNanos = System.nanoTime() - maxStaleness.toNanos() - 1;
+    }
+
+    @PostConstruct
+    void start() {
+        executor.scheduleWithFixedDelay(this::poll, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    public long getAppliedVersion() {
+        return appliedVersion;
+    }
+
+    public boolean isStale() {
+        return System.nanoTime() - lastContactNanos > maxStaleness.toNanos();
+    }
+
+    /**
+     * Waits until the given version is applied.
+     *
+     * @return true when the version is applied, false when the timeout is reached before
+     */
+    public synchronized boolean awaitVersion(final long version, final Duration timeout) throws InterruptedException {
+        final long deadline = System.nanoTime() + timeout.toNanos();
+        long remaining = timeout.toNanos();
+
+        while (appliedVersion < version && remaining > 0) {
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            remaining = deadline - System.nanoTime();
+        }
+
+        return appliedVersion >= version;
+    }
+
+    void poll() {
+        try {
+            Optional<List<MutationDTO>> mutations;
+            do {
+                mutations = synced ? leaderClient.fetchMutations(appliedVersion, batchSize) : Optional.empty();
+                mutations.ifPresentOrElse(this::apply, this::resync);
+                lastContactNanos = System.nanoTime();
+            } while (mutations.map(List::size).orElse(0) == batchSize);
+        } catch (final RuntimeException e) {
+            LOGGER.warn("Could not replicate from {}", leaderClient.getLeader(), e);
+        }
+    }
+
+    private void resync() {
+        final SnapshotDTO snapshot = leaderClient.fetchSnapshot();
+
+        boardService.findAllBoardIds().stream()
+                .filter(boardId -> !snapshot.getBoards().containsKey(boardId))
+                .forEach(boardId -> boardService.forBoard(boardId).replaceAllWidgets(List.of()));
+
+        snapshotVersionByBoardId.clear();
+        snapshot.getBoards().forEach((boardId, board) -> {
+            boardService.forBoard(boardId).replaceAllWidgets(
+                    board.getWidgets().stream().map(WidgetDTO::toWidget).collect(Collectors.toList())
+            );
+            snapshotVersionByBoardId.put(boardId, board.getVersion());
+        });
+
+        synced = true;
+        setAppliedVersion(snapshot.getVersion());
+    }
+
+    private void apply(final List<MutationDTO> mutations) {
+        mutations.forEach(mutation -> {
+            final long boardVersion = snapshotVersionByBoardId.getOrDefault(mutation.getBoardId(), 0L);
+            if (mutation.getVersion() > boardVersion) {
+                applyTo(mutation, boardService.forBoard(mutation.getBoardId()).changeApplier());
+            }
+            setAppliedVersion(mutation.getVersion());
+        });
+
+        snapshotVersionByBoardId.values().removeIf(boardVersion -> boardVersion <= appliedVersion);
+    }
+
+    private static void applyTo(final MutationDTO mutation, final WidgetChangeListener listener) {
+        switch (mutation.getType()) {
+            case SAVED:
+                listener.onSaved(Objects.requireNonNull(mutation.getWidget()).toWidget());
+                break;
+            case SHIFTED:
+                listener.onShifted(ZIndexShift.of(mutation.getShiftFrom(), mutation.getShiftTo()));
+                break;
+            case DELETED:
+                listener.onDeleted(Objects.requireNonNull(mutation.getWidgetId()));
+                break;
+            case RENUMBERED:
+                listener.onRenumbered(Objects.requireNonNull(mutation.getSpacing()));
+                break;
+        }
+    }
+
+    private synchronized void setAppliedVersion(final long version) {
+        appliedVersion = version;
+        notifyAll();
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.miro.widget.replication;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import com.miro.widget.controller.dto.MutationDTO;
+import com.miro.widget.controller.dto.SnapshotDTO;
+import com.miro.widget.controller.dto.WidgetDTO;
+import com.miro.widget.model.Widget;
+import com.miro.widget.model.ZIndexShift;
+import com.miro.widget.service.BoardService;
+import com.miro.widget.service.WidgetChangeListener;
+
+/**
+ * ReplicationLog is the ordered stream of changes of a leader, read by its followers.
+ *
+ * Every change of every board gets the next version. Changes are appended while the board
+ *  write lock is held, so the versions of one board follow the order its changes were applied. The
+ *  log keeps the last widget.replication.log-capacity entries in a ring buffer; a follower that
+ *  falls further behind restarts from a {@link #snapshot()}. The log is never lazily initialized:
+ *  it must listen to the boards before their first write, not when a follower first reads it.
+ */
+
+@Lazy(false)
+@Component
+@ConditionalOnProperty(prefix = "widget.replication", name = "role", havingValue = "leader")
+public class ReplicationLog {
+
+    private final BoardService boardService;
+
+    private final MutationDTO[] mutations;
+
+    private long version;
+
+    public ReplicationLog(final BoardService boardService, final ReplicationProperties properties) {
+        this.boardService = boardService;
+        this.mutations = new MutationDTO[properties.getLogCapacity()];
+    }
+
+    @PostConstruct
+    void listenToBoards() {
+        boardService.addBoardListener((boardId, widgetService) -> widgetService.addChangeListener(new BoardLog(boardId)));
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the entries after the given version, up to the limit, or empty when some of them
+     *  are not in the log anymore (or the version is unknown to this leader)
+     */
+    public synchronized Optional<List<MutationDTO>> findAfter(final long after, final int limit) {
+        final long oldest = Math.max(1, version - mutations.length + 1);
+        if (after + 1 < oldest || after > version) {
+            return Optional.empty();
+        }
+
+        final long last = Math.min(version, after + limit);
+        final List<MutationDTO> found = new ArrayList<>((int) (last - after));
+        for (long v = after + 1; v <= last; v++) {
+            found.add(mutations[slot(v)]);
+        }
+        return Optional.of(found);
+    }
+
+    public SnapshotDTO snapshot() {
+        final long snapshotVersion = getVersion();
+
+        final Map<String, SnapshotDTO.BoardSnapshotDTO> boards = new HashMap<>();
+        boardService.findAllBoardIds().forEach(boardId -> boardService.findBoard(boardId)
+                .map(widgetService -> widgetService.snapshot(this::boardSnapshot))
+                .ifPresent(board -> boards.put(boardId, board)));
+
+        return new SnapshotDTO(snapshotVersion, boards);
+    }
+
+    private SnapshotDTO.BoardSnapshotDTO boardSnapshot(final List<Widget> widgets) {
+        return new SnapshotDTO.BoardSnapshotDTO(
+                getVersion(),
+                widgets.stream().map(WidgetDTO::from).collect(Collectors.toList())
+        );
+    }
+
+    private synchronized long append(final LongFunction<MutationDTO> mutation) {
+        version++;
+        mutations[slot(version)] = mutation.apply(version);
+        return version;
+    }
+
+    private int slot(final long mutationVersion) {
+        return (int) (mutationVersion % mutations.length);
+    }
+
+    private class BoardLog implements WidgetChangeListener {
+
+        private final String boardId;
+
+        private BoardLog(final String boardId) {
+            this.boardId = boardId;
+        }
+
+        @Override
+        public void onSaved(final Widget widget) {
+            VersionTokens.publish(append(v -> MutationDTO.saved(v, boardId, widget)));
+        }
+
+        @Override
+        public void onShifted(final ZIndexShift shift) {
+            VersionTokens.publish(append(v -> MutationDTO.shifted(v, boardId, shift)));
+        }
+
+        @Override
+        public void onDeleted(final UUID widgetId) {
+            VersionTokens.publish(append(v -> MutationDTO.deleted(v, boardId, widgetId)));
+        }
+
+        @Override
+        public void onRenumbered(final int spacing) {
+            VersionTokens.publish(append(v -> MutationDTO.renumbered(v, boardId, spacing)));
+        }
+
+    }
+
+}
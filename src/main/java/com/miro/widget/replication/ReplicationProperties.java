@@ -0,0 +1,85 @@
+package com.miro.widget.replication;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "widget.replication")
+public class ReplicationProperties {
+
+    public enum Role {
+        LEADER,
+        FOLLOWER
+    }
+
+    private Role role;
+
+    private String leader;
+
+    private int logCapacity = 100_000;
+
+    private int batchSize = 1_000;
+
+    private Duration pollInterval = Duration.ofMillis(100);
+
+    private Duration maxStaleness = Duration.ofSeconds(5);
+
+    private Duration readWait = Duration.ofSeconds(1);
+
+    public Role getRole() {
+        return role;
+    }
+
+    public void setRole(final Role role) {
+        this.role = role;
+    }
+
+    public String getLeader() {
+        return leader;
+    }
+
+    public void setLeader(final String leader) {
+        this.leader = leader;
+    }
+
+    public int getLogCapacity() {
+        return logCapacity;
+    }
+
+    public void setLogCapacity(final int logCapacity) {
+        this.logCapacity = logCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(final Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public Duration getMaxStaleness() {
+        return maxStaleness;
+    }
+
+    public void setMaxStaleness(final Duration maxStaleness) {
+        this.maxStaleness = maxStaleness;
+    }
+
+    public Duration getReadWait() {
+        return readWait;
+    }
+
+    public void setReadWait(final Duration readWait) {
+        this.readWait = readWait;
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.miro.widget.replication;
+
+import java.util.Optional;
+
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Version tokens give read-your-writes across replicas: every write answered by the leader
+ *  carries the log version that includes it ({@link #VERSION_HEADER}) and a client that sends it
+ *  back in {@link #MIN_VERSION_HEADER} is only answered by a follower that applied that version.
+ */
+
+public final class VersionTokens {
+
+    public static final String VERSION_HEADER = "X-Widget-Version";
+
+    public static final String MIN_VERSION_HEADER = "X-Widget-Min-Version";
+
+    private VersionTokens() { }
+
+    /**
+     * Sets the version in the response of the request handled by the current thread, if any.
+     *  It is called while the request is being handled, before the response body is written.
+     */
+    static void publish(final long version) {
+        Optional.ofNullable(RequestContextHolder.getRequestAttributes())
+                .filter(ServletRequestAttributes.class::isInstance)
+                .map(attributes -> ((ServletRequestAttributes) attributes).getResponse())
+                .ifPresent(response -> response.setHeader(VERSION_HEADER, Long.toString(version)));
+    }
+
+}
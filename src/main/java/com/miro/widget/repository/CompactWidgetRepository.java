@@ -0,0 +1,693 @@
+package com.miro.widget.repository;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.miro.widget.metrics.WidgetMetrics;
+import com.miro.widget.model.Widget;
+import com.miro.widget.model.ZIndexShift;
+import com.miro.widget.util.Page;
+
+/**
+ * CompactWidgetRepository stores the Widgets of a board in primitive arrays, for boards whose
+ *  idle heap matters more than their write cost (widget.repository.mode=compact).
+ *
+ * Every Widget takes a slot of the columns: its id as two longs, geometry, z-index, version and
+ *  modification time (the zone is interned, the Widgets of a board share a few zones). The slots
+ *  are dense, a deleted Widget is replaced by the last one. An open-addressing table (linear
+ *  probing) finds the slot of an id and the z-order is a pair of sorted arrays (z-index, slot),
+ *  so there are no map entries, boxed keys, UUID or ZonedDateTime objects: they are built when a
+ *  Widget is read.
+ *
+ * The price is paid by writes and hit-tests: placing or releasing a z-index moves the tail of the
+ *  sorted arrays, and the hit-test walks the z-order from the top instead of using a grid. Reads
+ *  and writes are guarded by a read/write lock.
+ */
+
+public class CompactWidgetRepository implements WidgetRepository {
+
+    private static final int INITIAL_Z_INDEX_VALUE = 0;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final int NO_SLOT = -1;
+
+    private static final Comparator<Widget> Z_INDEX_ORDER = Comparator.comparingInt(Widget::getZIndex);
+
+    // columns, indexed by slot
+    private long[] idMost;
+    private long[] idLeast;
+    private int[] coordinateX;
+    private int[] coordinateY;
+    private int[] zIndex;
+    private int[] width;
+    private int[] height;
+    private long[] version;
+    private long[] modificationSecond;
+    private int[] modificationNano;
+    private ZoneId[] modificationZone;
+    private int size;
+
+    // slot + 1 of every id, 0 is a free entry
+    private int[] slotTable;
+
+    // z-indexes in order and the slot of each one
+    private int[] sortedZIndexes;
+    private int[] sortedSlots;
+    private int indexed;
+
+    private int nextZIndex;
+
+    private final Map<ZoneId, ZoneId> zones;
+    private final ReentrantReadWriteLock lock;
+    private final WidgetMetrics metrics;
+
+    public CompactWidgetRepository() {
+        this(WidgetMetrics.NOOP);
+    }
+
+    public CompactWidgetRepository(final WidgetMetrics metrics) {
+        zones = new HashMap<>();
+        lock = new ReentrantReadWriteLock();
+        this.metrics = metrics;
+        clear();
+        metrics.monitorSizes(this, CompactWidgetRepository::count, CompactWidgetRepository::countZIndexes);
+    }
+
+    private void clear() {
+        idMost = new long[INITIAL_CAPACITY];
+        idLeast = new long[INITIAL_CAPACITY];
+        coordinateX = new int[INITIAL_CAPACITY];
+        coordinateY = new int[INITIAL_CAPACITY];
+        zIndex = new int[INITIAL_CAPACITY];
+        width = new int[INITIAL_CAPACITY];
+        height = new int[INITIAL_CAPACITY];
+        version = new long[INITIAL_CAPACITY];
+        modificationSecond = new long[INITIAL_CAPACITY];
+        modificationNano = new int[INITIAL_CAPACITY];
+        modificationZone = new ZoneId[INITIAL_CAPACITY];
+        size = 0;
+
+        slotTable = new int[INITIAL_CAPACITY * 2];
+
+        sortedZIndexes = new int[INITIAL_CAPACITY];
+        sortedSlots = new int[INITIAL_CAPACITY];
+        indexed = 0;
+
+        nextZIndex = INITIAL_Z_INDEX_VALUE;
+        zones.clear();
+    }
+
+    @Override
+    public Optional<Widget> findById(final UUID id) {
+        lock.readLock().lock();
+        try {
+            final int slot = slotOf(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            return slot == NO_SLOT ? Optional.empty() : Optional.of(widgetAt(slot));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Widget> findAllOrderedByZIndex() {
+        final WidgetListingEvent event = new WidgetListingEvent(-1, 0);
+        lock.readLock().lock();
+        try {
+            final List<Widget> widgets = widgetsInOrder(0, indexed);
+
+            commit(event, size, widgets.size());
+            return widgets;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Widget> findAllOrderedByZIndex(final Page page) {
+        final WidgetListingEvent event = new WidgetListingEvent(page.getPage(), page.getSize());
+        lock.readLock().lock();
+        try {
+            final long start = (long) page.getPage() * page.getSize();
+            final long end = Math.min(indexed, start + page.getSize());
+            final List<Widget> widgets = end - start <= 0 ? List.of() : widgetsInOrder((int) start, (int) end);
+
+            commit(event, size, widgets.size());
+            return widgets;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void commit(final WidgetListingEvent event, final int widgets, final int returned) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.widgets = widgets;
+            event.returned = returned;
+            event.commit();
+        }
+    }
+
+    @Override
+    public Optional<Widget> findByZIndex(final int zIndex) {
+        lock.readLock().lock();
+        try {
+            final int position = Arrays.binarySearch(sortedZIndexes, 0, indexed, zIndex);
+            return position < 0 ? Optional.empty() : Optional.of(widgetAt(sortedSlots[position]));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Widget> findByZIndexRange(final int from, final int to) {
+        checkArgument(from <= to, "zFrom must not be greater than zTo");
+
+        lock.readLock().lock();
+        try {
+            return widgetsInOrder(firstAtOrAbove(from), firstAbove(to));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Widget> findFirstAbove(final int zIndex) {
+        lock.readLock().lock();
+        try {
+            final int position = firstAbove(zIndex);
+            return position < indexed ? Optional.of(widgetAt(sortedSlots[position])) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Widget> findTopmostAt(final int x, final int y) {
+        lock.readLock().lock();
+        try {
+            for (int position = indexed - 1; position >= 0; position--) {
+                final int slot = sortedSlots[position];
+                if (x >= coordinateX[slot] && x <= (long) coordinateX[slot] + width[slot]
+                        && y >= coordinateY[slot] && y <= (long) coordinateY[slot] + height[slot]) {
+                    return Optional.of(widgetAt(slot));
+                }
+            }
+            return Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int findNextZIndex() {
+        lock.writeLock().lock();
+        try {
+            return nextZIndex++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int count() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int countZIndexes() {
+        lock.readLock().lock();
+        try {
+            return indexed;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Widget> saveAll(final Collection<Widget> widgets) {
+        metrics.recordSaveBatchSize(widgets.size());
+
+        final Map<UUID, Widget> widgetById = widgets.stream()
+                .collect(Collectors.toMap(Widget::getId, Function.identity()));
+        final Map<Integer, UUID> idByZIndex = widgets.stream()
+                .collect(Collectors.toMap(Widget::getZIndex, Widget::getId));
+
+        final int maxInsertedZIndex = idByZIndex.keySet().stream()
+                .max(Integer::compareTo)
+                .orElse(0);
+
+        lock.writeLock().lock();
+        try {
+            // the previous z-indexes are released before any new one is taken, as in a swap
+            final int[] slots = new int[widgetById.size()];
+            int saved = 0;
+            for (final Widget widget : widgetById.values()) {
+                int slot = slotOf(widget.getId().getMostSignificantBits(), widget.getId().getLeastSignificantBits());
+                if (slot == NO_SLOT) {
+                    slot = allocate(widget.getId());
+                } else {
+                    unindex(zIndex[slot], slot);
+                }
+                write(slot, widget);
+                slots[saved++] = slot;
+            }
+            indexAll(slots);
+
+            nextZIndex = Math.max(nextZIndex, maxInsertedZIndex + 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        return widgetById.values().stream()
+                .sorted(Z_INDEX_ORDER)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean compareAndSave(final Widget widget, final long expectedVersion) {
+        metrics.recordSaveBatchSize(1);
+
+        lock.writeLock().lock();
+        try {
+            final int slot = slotOf(widget.getId().getMostSignificantBits(), widget.getId().getLeastSignificantBits());
+            if (slot == NO_SLOT || version[slot] != expectedVersion) {
+                return false;
+            }
+
+            if (zIndex[slot] != widget.getZIndex()) {
+                unindex(zIndex[slot], slot);
+                index(widget.getZIndex(), slot);
+                nextZIndex = Math.max(nextZIndex, widget.getZIndex() + 1);
+            }
+            write(slot, widget);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void loadAll(final Collection<Widget> widgets) {
+        metrics.recordSaveBatchSize(widgets.size());
+
+        final Set<UUID> ids = new HashSet<>();
+        final Set<Integer> zIndexes = new HashSet<>();
+        lock.writeLock().lock();
+        try {
+            widgets.forEach(widget -> checkArgument(
+                    ids.add(widget.getId()) && zIndexes.add(widget.getZIndex())
+                            && slotOf(widget.getId().getMostSignificantBits(), widget.getId().getLeastSignificantBits()) == NO_SLOT
+                            && Arrays.binarySearch(sortedZIndexes, 0, indexed, widget.getZIndex()) < 0,
+                    "Widget %s collides with another Widget id or z-index",
+                    widget.getId()
+            ));
+
+            final int[] slots = new int[widgets.size()];
+            int loaded = 0;
+            for (final Widget widget : widgets) {
+                final int slot = allocate(widget.getId());
+                write(slot, widget);
+                slots[loaded++] = slot;
+            }
+            indexAll(slots);
+            zIndexes.stream()
+                    .max(Integer::compareTo)
+                    .ifPresent(maxZIndex -> nextZIndex = Math.max(nextZIndex, maxZIndex + 1));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The z-indexes of the run are consecutive positions of the sorted arrays and keep their order
+     *  once shifted, they are incremented in place.
+     */
+    @Override
+    public void shift(final ZIndexShift shift) {
+        lock.writeLock().lock();
+        try {
+            final int from = firstAtOrAbove(shift.getFrom());
+            int to = firstAbove(shift.getTo());
+
+            // the top of the run takes the z-index above it, as a put that replaces its Widget
+            if (to > from && to < indexed && sortedZIndexes[to - 1] == shift.getTo()
+                    && sortedZIndexes[to] == shift.apply(shift.getTo())) {
+                removeIndexAt(to);
+            }
+
+            final ZonedDateTime now = ZonedDateTime.now();
+            for (int position = from; position < to; position++) {
+                final int slot = sortedSlots[position];
+                sortedZIndexes[position] = shift.apply(sortedZIndexes[position]);
+                zIndex[slot] = sortedZIndexes[position];
+                touch(slot, now);
+            }
+
+            nextZIndex = Math.max(nextZIndex, shift.apply(shift.getTo()) + 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int renumber(final int spacing) {
+        checkArgument(spacing > 0, "Spacing must be positive");
+
+        lock.writeLock().lock();
+        try {
+            checkArgument(
+                    (long) indexed * spacing <= Integer.MAX_VALUE,
+                    "Spacing %s is too large for %s Widgets",
+                    spacing,
+                    indexed
+            );
+
+            int moved = 0;
+            final ZonedDateTime now = ZonedDateTime.now();
+            for (int rank = 0; rank < indexed; rank++) {
+                final int renumbered = INITIAL_Z_INDEX_VALUE + rank * spacing;
+                final int slot = sortedSlots[rank];
+                if (zIndex[slot] != renumbered) {
+                    zIndex[slot] = renumbered;
+                    touch(slot, now);
+                    moved++;
+                }
+                sortedZIndexes[rank] = renumbered;
+            }
+
+            nextZIndex = INITIAL_Z_INDEX_VALUE + indexed * spacing;
+            return moved;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(final UUID id) {
+        lock.writeLock().lock();
+        try {
+            final int slot = slotOf(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (slot == NO_SLOT) {
+                return;
+            }
+
+            unindex(zIndex[slot], slot);
+            removeFromTable(tablePositionOf(slot));
+
+            final int last = size - 1;
+            if (slot != last) {
+                move(last, slot);
+            }
+            modificationZone[last] = null;
+            size--;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        lock.writeLock().lock();
+        try {
+            clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Widget> widgetsInOrder(final int from, final int to) {
+        final List<Widget> widgets = new ArrayList<>(to - from);
+        for (int position = from; position < to; position++) {
+            widgets.add(widgetAt(sortedSlots[position]));
+        }
+        return widgets;
+    }
+
+    private Widget widgetAt(final int slot) {
+        final Instant modification = Instant.ofEpochSecond(modificationSecond[slot], modificationNano[slot]);
+        return Widget.builder()
+                .setId(new UUID(idMost[slot], idLeast[slot]))
+                .setLastModificationDate(ZonedDateTime.ofInstant(modification, modificationZone[slot]))
+                .setCoordinateX(coordinateX[slot])
+                .setCoordinateY(coordinateY[slot])
+                .setZIndex(zIndex[slot])
+                .setWidth(width[slot])
+                .setHeight(height[slot])
+                .setVersion(version[slot])
+                .build();
+    }
+
+    private void write(final int slot, final Widget widget) {
+        coordinateX[slot] = widget.getCoordinateX();
+        coordinateY[slot] = widget.getCoordinateY();
+        zIndex[slot] = widget.getZIndex();
+        width[slot] = widget.getWidth();
+        height[slot] = widget.getHeight();
+        version[slot] = widget.getVersion();
+        setModification(slot, widget.getLastModificationDate());
+    }
+
+    /**
+     * Records a change made by the repository itself (shift, renumbering), as a Widget built from
+     *  the stored one would have: next version, modified now.
+     */
+    private void touch(final int slot, final ZonedDateTime now) {
+        version[slot]++;
+        setModification(slot, now);
+    }
+
+    private void setModification(final int slot, final ZonedDateTime modification) {
+        modificationSecond[slot] = modification.toEpochSecond();
+        modificationNano[slot] = modification.getNano();
+        modificationZone[slot] = zones.computeIfAbsent(modification.getZone(), Function.identity());
+    }
+
+    private int allocate(final UUID id) {
+        ensureCapacity(size + 1);
+        final int slot = size++;
+        idMost[slot] = id.getMostSignificantBits();
+        idLeast[slot] = id.getLeastSignificantBits();
+        addToTable(slot);
+        return slot;
+    }
+
+    /**
+     * Moves the columns of a slot to another one, pointing its id and z-index entries to it.
+     */
+    private void move(final int from, final int to) {
+        slotTable[tablePositionOf(from)] = to + 1;
+        final int position = Arrays.binarySearch(sortedZIndexes, 0, indexed, zIndex[from]);
+        if (position >= 0 && sortedSlots[position] == from) {
+            sortedSlots[position] = to;
+        }
+
+        idMost[to] = idMost[from];
+        idLeast[to] = idLeast[from];
+        coordinateX[to] = coordinateX[from];
+        coordinateY[to] = coordinateY[from];
+        zIndex[to] = zIndex[from];
+        width[to] = width[from];
+        height[to] = height[from];
+        version[to] = version[from];
+        modificationSecond[to] = modificationSecond[from];
+        modificationNano[to] = modificationNano[from];
+        modificationZone[to] = modificationZone[from];
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity <= idMost.length) {
+            return;
+        }
+
+        final int grown = Math.max(capacity, idMost.length * 2);
+        idMost = Arrays.copyOf(idMost, grown);
+        idLeast = Arrays.copyOf(idLeast, grown);
+        coordinateX = Arrays.copyOf(coordinateX, grown);
+        coordinateY = Arrays.copyOf(coordinateY, grown);
+        zIndex = Arrays.copyOf(zIndex, grown);
+        width = Arrays.copyOf(width, grown);
+        height = Arrays.copyOf(height, grown);
+        version = Arrays.copyOf(version, grown);
+        modificationSecond = Arrays.copyOf(modificationSecond, grown);
+        modificationNano = Arrays.copyOf(modificationNano, grown);
+        modificationZone = Arrays.copyOf(modificationZone, grown);
+    }
+
+    // ---- id table: open addressing, linear probing, at most 3/4 full
+
+    private static int hash(final long most, final long least) {
+        return Long.hashCode((most ^ least) * 0x9E3779B97F4A7C15L);
+    }
+
+    private int slotOf(final long most, final long least) {
+        final int mask = slotTable.length - 1;
+        for (int position = hash(most, least) & mask; ; position = (position + 1) & mask) {
+            final int slot = slotTable[position] - 1;
+            if (slot == NO_SLOT || (idMost[slot] == most && idLeast[slot] == least)) {
+                return slot;
+            }
+        }
+    }
+
+    private int tablePositionOf(final int slot) {
+        final int mask = slotTable.length - 1;
+        int position = hash(idMost[slot], idLeast[slot]) & mask;
+        while (slotTable[position] != slot + 1) {
+            position = (position + 1) & mask;
+        }
+        return position;
+    }
+
+    private void addToTable(final int slot) {
+        if ((long) size * 4 > (long) slotTable.length * 3) {
+            slotTable = new int[slotTable.length * 2];
+            for (int stored = 0; stored < size; stored++) {
+                if (stored != slot) {
+                    putInTable(stored);
+                }
+            }
+        }
+        putInTable(slot);
+    }
+
+    private void putInTable(final int slot) {
+        final int mask = slotTable.length - 1;
+        int position = hash(idMost[slot], idLeast[slot]) & mask;
+        while (slotTable[position] != 0) {
+            position = (position + 1) & mask;
+        }
+        slotTable[position] = slot + 1;
+    }
+
+    /**
+     * Empties a table entry moving back the entries after it that would not be found otherwise,
+     *  so lookups never need tombstones.
+     */
+    private void removeFromTable(final int position) {
+        final int mask = slotTable.length - 1;
+        int hole = position;
+        for (int next = (hole + 1) & mask; slotTable[next] != 0; next = (next + 1) & mask) {
+            final int slot = slotTable[next] - 1;
+            final int home = hash(idMost[slot], idLeast[slot]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                slotTable[hole] = slotTable[next];
+                hole = next;
+            }
+        }
+        slotTable[hole] = 0;
+    }
+
+    // ---- z-order: sorted z-indexes and their slots
+
+    private int firstAtOrAbove(final int zIndex) {
+        final int position = Arrays.binarySearch(sortedZIndexes, 0, indexed, zIndex);
+        return position >= 0 ? position : -position - 1;
+    }
+
+    private int firstAbove(final int zIndex) {
+        final int position = Arrays.binarySearch(sortedZIndexes, 0, indexed, zIndex);
+        return position >= 0 ? position + 1 : -position - 1;
+    }
+
+    /**
+     * Points the z-index to the slot, replacing the slot it pointed to if it was taken.
+     */
+    private void index(final int zIndex, final int slot) {
+        final int position = Arrays.binarySearch(sortedZIndexes, 0, indexed, zIndex);
+        if (position >= 0) {
+            sortedSlots[position] = slot;
+            return;
+        }
+
+        final int insertion = -position - 1;
+        if (indexed == sortedZIndexes.length) {
+            sortedZIndexes = Arrays.copyOf(sortedZIndexes, indexed * 2);
+            sortedSlots = Arrays.copyOf(sortedSlots, indexed * 2);
+        }
+        System.arraycopy(sortedZIndexes, insertion, sortedZIndexes, insertion + 1, indexed - insertion);
+        System.arraycopy(sortedSlots, insertion, sortedSlots, insertion + 1, indexed - insertion);
+        sortedZIndexes[insertion] = zIndex;
+        sortedSlots[insertion] = slot;
+        indexed++;
+    }
+
+    /**
+     * Indexes the z-indexes of the slots, as {@link #index(int, int)} does for each of them, merging
+     *  them with the sorted arrays in a single pass when there are several.
+     */
+    private void indexAll(final int[] slots) {
+        if (slots.length == 1) {
+            index(zIndex[slots[0]], slots[0]);
+            return;
+        }
+
+        final int[] added = Arrays.stream(slots)
+                .boxed()
+                .sorted(Comparator.comparingInt(slot -> zIndex[slot]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        final int capacity = Math.max(sortedZIndexes.length, indexed + added.length);
+        final int[] mergedZIndexes = new int[capacity];
+        final int[] mergedSlots = new int[capacity];
+
+        int merged = 0;
+        int stored = 0;
+        for (final int slot : added) {
+            while (stored < indexed && sortedZIndexes[stored] < zIndex[slot]) {
+                mergedZIndexes[merged] = sortedZIndexes[stored];
+                mergedSlots[merged++] = sortedSlots[stored++];
+            }
+            // a taken z-index now points to the added slot
+            if (stored < indexed && sortedZIndexes[stored] == zIndex[slot]) {
+                stored++;
+            }
+            mergedZIndexes[merged] = zIndex[slot];
+            mergedSlots[merged++] = slot;
+        }
+        System.arraycopy(sortedZIndexes, stored, mergedZIndexes, merged, indexed - stored);
+        System.arraycopy(sortedSlots, stored, mergedSlots, merged, indexed - stored);
+
+        sortedZIndexes = mergedZIndexes;
+        sortedSlots = mergedSlots;
+        indexed = merged + indexed - stored;
+    }
+
+    /**
+     * Releases the z-index unless another slot took it already (e.g. a Widget shifted into it).
+     */
+    private void unindex(final int zIndex, final int slot) {
+        final int position = Arrays.binarySearch(sortedZIndexes, 0, indexed, zIndex);
+        if (position >= 0 && sortedSlots[position] == slot) {
+            removeIndexAt(position);
+        }
+    }
+
+    private void removeIndexAt(final int position) {
+        System.arraycopy(sortedZIndexes, position + 1, sortedZIndexes, position, indexed - position - 1);
+        System.arraycopy(sortedSlots, position + 1, sortedSlots, position, indexed - position - 1);
+        indexed--;
+    }
+
+}
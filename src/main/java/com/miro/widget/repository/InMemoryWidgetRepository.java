@@ -1,20 +1,31 @@
 package com.miro.widget.repository;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.annotation.Autowired;
 
+import com.miro.widget.metrics.WidgetMetrics;
 import com.miro.widget.model.Widget;
+import com.miro.widget.model.ZIndexShift;
 import com.miro.widget.util.Page;
 
 /**
@@ -22,24 +33,41 @@ import com.miro.widget.util.Page;
  *
  * Two collections are used: widgetById is the main one and the first to be updated,
  *  the search operations that use only this collection can be done parallel.
- *  widgetIdByZIndex is the auxiliary collection that works as an index, it is the
- *  second to be updated, that way, it is necessary to synchronize all the operations
- *  that use that collection.
+ *  widgetIdByZIndex is the auxiliary collection that works as an index (ordered, so z-index
+ *  ranges are read without sorting), it is the second to be updated, that way, it is necessary
+ *  to synchronize all the operations that use that collection (indexLock). The spatial grid used
+ *  by the hit-test is a second index, kept up to date with the z-index one under the same lock.
  */
 
-@Component
 public class InMemoryWidgetRepository implements WidgetRepository {
 
     private static final int INITIAL_Z_INDEX_VALUE = 0;
 
+    // below it the fork/join split and merge cost more than they save (see OrderedListingBenchmark)
+    static final int PARALLEL_SORT_THRESHOLD = 100_000;
+
+    private static final Comparator<Widget> Z_INDEX_ORDER = Comparator.comparingInt(Widget::getZIndex);
+
     private final Map<UUID, Widget> widgetById;
-    private final Map<Integer, UUID> widgetIdByZIndex;
+    private final ConcurrentNavigableMap<Integer, UUID> widgetIdByZIndex;
     private final AtomicInteger nextZIndex;
+    private final SpatialGrid spatialGrid;
+    private final ReentrantLock indexLock;
+    private final WidgetMetrics metrics;
 
     public InMemoryWidgetRepository() {
+        this(WidgetMetrics.NOOP);
+    }
+
+    @Autowired
+    public InMemoryWidgetRepository(final WidgetMetrics metrics) {
         widgetById = new ConcurrentHashMap<>();
-        widgetIdByZIndex = new ConcurrentHashMap<>();
+        widgetIdByZIndex = new ConcurrentSkipListMap<>();
         nextZIndex = new AtomicInteger(INITIAL_Z_INDEX_VALUE);
+        spatialGrid = new SpatialGrid();
+        indexLock = new ReentrantLock();
+        this.metrics = metrics;
+        metrics.monitorSizes(this, r -> r.widgetById.size(), r -> r.widgetIdByZIndex.size());
     }
 
     @Override
@@ -49,85 +77,317 @@ public class InMemoryWidgetRepository implements WidgetRepository {
 
     @Override
     public List<Widget> findAllOrderedByZIndex() {
-        return widgetById.values().stream()
-                .sorted(Comparator.comparingInt(Widget::getZIndex))
-                .collect(Collectors.toList());
+        final WidgetListingEvent event = new WidgetListingEvent(-1, 0);
+        final List<Widget> widgets = sortByZIndex();
+
+        commit(event, widgets.size(), widgets.size());
+        return widgets;
+    }
+
+    /**
+     * Sorts a copy of the Widgets. Above {@link #PARALLEL_SORT_THRESHOLD} Widgets the copy is
+     *  split in chunks sorted on the common fork/join pool and merged back (Arrays.parallelSort).
+     */
+    private List<Widget> sortByZIndex() {
+        final long start = System.nanoTime();
+        final Widget[] widgets = widgetById.values().toArray(new Widget[0]);
+        if (widgets.length > PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(widgets, Z_INDEX_ORDER);
+        } else {
+            Arrays.sort(widgets, Z_INDEX_ORDER);
+        }
+        metrics.recordSort(System.nanoTime() - start);
+
+        return Arrays.asList(widgets);
+    }
+
+    private static void commit(final WidgetListingEvent event, final int widgets, final int returned) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.widgets = widgets;
+            event.returned = returned;
+            event.commit();
+        }
     }
 
     @Override
     public Optional<Widget> findByZIndex(final int zIndex) {
-        synchronized (widgetIdByZIndex) {
+        indexLock.lock();
+        try {
             return Optional.ofNullable(widgetIdByZIndex.get(zIndex))
                     .map(widgetById::get);
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Widget> findByZIndexRange(final int from, final int to) {
+        checkArgument(from <= to, "zFrom must not be greater than zTo");
+
+        indexLock.lock();
+        try {
+            return widgetIdByZIndex.subMap(from, true, to, true).values().stream()
+                    .map(widgetById::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Widget> findFirstAbove(final int zIndex) {
+        indexLock.lock();
+        try {
+            return Optional.ofNullable(widgetIdByZIndex.higherEntry(zIndex))
+                    .map(Map.Entry::getValue)
+                    .map(widgetById::get);
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Widget> findTopmostAt(final int x, final int y) {
+        indexLock.lock();
+        try {
+            return spatialGrid.candidatesAt(x, y).stream()
+                    .map(widgetById::get)
+                    .filter(Objects::nonNull)
+                    .filter(widget -> SpatialGrid.contains(widget, x, y))
+                    .max(Z_INDEX_ORDER);
+        } finally {
+            indexLock.unlock();
         }
     }
 
     @Override
     public int findNextZIndex() {
-        synchronized (widgetIdByZIndex) {
+        indexLock.lock();
+        try {
             return nextZIndex.getAndIncrement();
+        } finally {
+            indexLock.unlock();
         }
     }
 
+    @Override
+    public int count() {
+        return widgetById.size();
+    }
+
+    /**
+     * The z-index a saved Widget leaves is read from its stored version, so a save costs the size
+     *  of the batch whatever the size of the board.
+     */
     @Override
     public List<Widget> saveAll(final Collection<Widget> widgets) {
+        metrics.recordSaveBatchSize(widgets.size());
+
         final Map<UUID, Widget> widgetById = widgets.stream()
                 .collect(Collectors.toMap(Widget::getId, Function.identity()));
         final Map<Integer, UUID> idByZIndex = widgets.stream()
                 .collect(Collectors.toMap(Widget::getZIndex, Widget::getId));
 
-        final Set<UUID> keysToUpdate = widgetById.keySet();
-        final Set<Integer> toRemove = widgetIdByZIndex.entrySet().stream()
-                .filter(e -> keysToUpdate.contains(e.getValue()))
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toUnmodifiableSet());
-
         final int maxInsertedZIndex = idByZIndex.keySet().stream()
                 .max(Integer::compareTo)
                 .orElse(0);
 
-        synchronized (widgetIdByZIndex) {
-            this.widgetById.putAll(widgetById);
+        indexLock.lock();
+        try {
+            widgetById.values().forEach(widget -> {
+                // a compute as well, so a concurrent compareAndSave sees the new version or loses
+                this.widgetById.compute(widget.getId(), (id, stored) -> {
+                    if (stored != null) {
+                        spatialGrid.remove(stored);
+                        // unless a shifted Widget took it already
+                        widgetIdByZIndex.remove(stored.getZIndex(), stored.getId());
+                    }
+                    return widget;
+                });
+                spatialGrid.add(widget);
+            });
 
             nextZIndex.set(Math.max(nextZIndex.get(), maxInsertedZIndex + 1));
 
-            toRemove.forEach(widgetIdByZIndex::remove);
             widgetIdByZIndex.putAll(idByZIndex);
+        } finally {
+            indexLock.unlock();
         }
 
         return widgetById.values().stream()
-                .sorted(Comparator.comparingInt(Widget::getZIndex))
+                .sorted(Z_INDEX_ORDER)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * A Widget that keeps its z-index and its grid cells (e.g. a small drag) is replaced with a
+     *  single atomic compute on its entry, without the index lock: neither index changes. Every
+     *  other write that replaces a stored Widget does it with a compute on its entry as well, so
+     *  none of them is lost.
+     */
+    @Override
+    public boolean compareAndSave(final Widget widget, final long expectedVersion) {
+        metrics.recordSaveBatchSize(1);
+
+        final Widget stored = widgetById.get(widget.getId());
+        if (stored == null || stored.getVersion() != expectedVersion) {
+            return false;
+        }
+        if (stored.getZIndex() == widget.getZIndex() && SpatialGrid.sameCells(stored, widget)) {
+            return replace(widget, expectedVersion);
+        }
+
+        indexLock.lock();
+        try {
+            if (!replace(widget, expectedVersion)) {
+                return false;
+            }
+
+            spatialGrid.remove(stored);
+            spatialGrid.add(widget);
+
+            // unless a shifted Widget took the previous z-index already
+            widgetIdByZIndex.remove(stored.getZIndex(), widget.getId());
+            widgetIdByZIndex.put(widget.getZIndex(), widget.getId());
+            nextZIndex.set(Math.max(nextZIndex.get(), widget.getZIndex() + 1));
+            return true;
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    private boolean replace(final Widget widget, final long expectedVersion) {
+        return widgetById.computeIfPresent(
+                widget.getId(),
+                (id, stored) -> stored.getVersion() == expectedVersion ? widget : stored
+        ) == widget;
+    }
+
+    @Override
+    public void loadAll(final Collection<Widget> widgets) {
+        metrics.recordSaveBatchSize(widgets.size());
+
+        final Set<UUID> ids = new HashSet<>();
+        final Set<Integer> zIndexes = new HashSet<>();
+        indexLock.lock();
+        try {
+            widgets.forEach(widget -> checkArgument(
+                    ids.add(widget.getId()) && zIndexes.add(widget.getZIndex())
+                            && !widgetById.containsKey(widget.getId())
+                            && !widgetIdByZIndex.containsKey(widget.getZIndex()),
+                    "Widget %s collides with another Widget id or z-index",
+                    widget.getId()
+            ));
+
+            widgets.forEach(widget -> {
+                widgetById.put(widget.getId(), widget);
+                widgetIdByZIndex.put(widget.getZIndex(), widget.getId());
+                spatialGrid.add(widget);
+            });
+            zIndexes.stream()
+                    .max(Integer::compareTo)
+                    .ifPresent(maxZIndex -> nextZIndex.set(Math.max(nextZIndex.get(), maxZIndex + 1)));
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    @Override
+    public void shift(final ZIndexShift shift) {
+        indexLock.lock();
+        try {
+            // walks the run from the top so every z-index is released before it is taken again
+            for (int zIndex = shift.getTo(); zIndex >= shift.getFrom(); zIndex--) {
+                final int shiftedZIndex = shift.apply(zIndex);
+                Optional.ofNullable(widgetIdByZIndex.remove(zIndex))
+                        .map(id -> widgetById.computeIfPresent(id, (k, w) -> w.toBuilder().setZIndex(shiftedZIndex).build()))
+                        .ifPresent(w -> widgetIdByZIndex.put(shiftedZIndex, w.getId()));
+            }
+
+            nextZIndex.set(Math.max(nextZIndex.get(), shift.apply(shift.getTo()) + 1));
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    @Override
+    public int renumber(final int spacing) {
+        checkArgument(spacing > 0, "Spacing must be positive");
+
+        indexLock.lock();
+        try {
+            final List<UUID> orderedIds = new ArrayList<>(widgetIdByZIndex.values());
+            checkArgument(
+                    (long) orderedIds.size() * spacing <= Integer.MAX_VALUE,
+                    "Spacing %s is too large for %s Widgets",
+                    spacing,
+                    orderedIds.size()
+            );
+
+            int moved = 0;
+            widgetIdByZIndex.clear();
+            for (int rank = 0; rank < orderedIds.size(); rank++) {
+                final int zIndex = INITIAL_Z_INDEX_VALUE + rank * spacing;
+                final UUID id = orderedIds.get(rank);
+                if (widgetById.get(id).getZIndex() != zIndex) {
+                    widgetById.computeIfPresent(id, (k, w) -> w.toBuilder().setZIndex(zIndex).build());
+                    moved++;
+                }
+                widgetIdByZIndex.put(zIndex, id);
+            }
+
+            nextZIndex.set(INITIAL_Z_INDEX_VALUE + orderedIds.size() * spacing);
+            return moved;
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
     @Override
     public void delete(final UUID id) {
-        synchronized (widgetIdByZIndex) {
+        indexLock.lock();
+        try {
             Optional.ofNullable(widgetById.remove(id))
-                    .map(Widget::getZIndex)
-                    .ifPresent(widgetIdByZIndex::remove);
+                    .ifPresent(widget -> {
+                        widgetIdByZIndex.remove(widget.getZIndex());
+                        spatialGrid.remove(widget);
+                    });
+        } finally {
+            indexLock.unlock();
         }
     }
 
     @Override
     public void deleteAll() {
-        synchronized (widgetIdByZIndex) {
+        indexLock.lock();
+        try {
             widgetById.clear();
             nextZIndex.set(0);
             widgetIdByZIndex.clear();
+            spatialGrid.clear();
+        } finally {
+            indexLock.unlock();
         }
     }
 
     @Override
     public List<Widget> findAllOrderedByZIndex(final Page page) {
+        final WidgetListingEvent event = new WidgetListingEvent(page.getPage(), page.getSize());
         final int start = page.getPage() * page.getSize();
         final int candidateEnd = start + page.getSize();
         final int end = Math.min(widgetById.size(), candidateEnd);
 
         if (end - start <= 0) {
+            commit(event, widgetById.size(), 0);
             return List.of();
         }
 
-        return findAllOrderedByZIndex().subList(start, end);
+        final List<Widget> widgets = sortByZIndex();
+        final List<Widget> pageWidgets = widgets.subList(start, end);
+
+        commit(event, widgets.size(), pageWidgets.size());
+        return pageWidgets;
     }
 }
@@ -0,0 +1,47 @@
+package com.miro.widget.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.miro.widget.metrics.WidgetMetrics;
+
+/**
+ * The repository of every board is chosen by widget.repository.mode: "default" keeps the Widgets
+ *  in concurrent maps ({@link InMemoryWidgetRepository}), "compact" in primitive arrays
+ *  ({@link CompactWidgetRepository}), a fraction of the heap for slower writes and hit-tests.
+ */
+
+@Configuration
+public class RepositoryConfiguration {
+
+    static final String DEFAULT_MODE = "default";
+
+    static final String COMPACT_MODE = "compact";
+
+    @Bean
+    public WidgetRepositoryFactory widgetRepositoryFactory(
+            @Value("${widget.repository.mode:" + DEFAULT_MODE + "}") final String mode,
+            final WidgetMetrics metrics
+    ) {
+        switch (mode) {
+            case DEFAULT_MODE:
+                return () -> new InMemoryWidgetRepository(metrics);
+            case COMPACT_MODE:
+                return () -> new CompactWidgetRepository(metrics);
+            default:
+                throw new IllegalArgumentException(String.format(
+                        "widget.repository.mode must be %s or %s, found %s", DEFAULT_MODE, COMPACT_MODE, mode
+                ));
+        }
+    }
+
+    /**
+     * The repository of the default board.
+     */
+    @Bean
+    public WidgetRepository widgetRepository(final WidgetRepositoryFactory widgetRepositoryFactory) {
+        return widgetRepositoryFactory.create();
+    }
+
+}
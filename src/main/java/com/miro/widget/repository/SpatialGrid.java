@@ -0,0 +1,118 @@
+package com.miro.widget.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.miro.widget.model.Widget;
+
+/**
+ * SpatialGrid is a uniform grid over the board plane used to find the Widgets that may contain a
+ *  point without looking at all of them.
+ *
+ * A Widget covers [x, x + width] x [y, y + height] and is registered in every cell it overlaps.
+ *  A Widget that overlaps more than {@link #MAX_CELLS_PER_WIDGET} cells is kept apart and always
+ *  returned as a candidate, so a huge Widget does not fill the grid. It is not thread-safe, the
+ *  repository guards it with its index lock.
+ */
+
+final class SpatialGrid {
+
+    static final int CELL_SIZE = 256;
+
+    static final int MAX_CELLS_PER_WIDGET = 64;
+
+    private final Map<Long, Set<UUID>> widgetIdsByCell;
+
+    private final Set<UUID> oversizedWidgetIds;
+
+    SpatialGrid() {
+        widgetIdsByCell = new HashMap<>();
+        oversizedWidgetIds = new HashSet<>();
+    }
+
+    void add(final Widget widget) {
+        final List<Long> cells = cellsOf(widget);
+        if (cells.isEmpty()) {
+            oversizedWidgetIds.add(widget.getId());
+        } else {
+            cells.forEach(cell -> widgetIdsByCell.computeIfAbsent(cell, c -> new HashSet<>()).add(widget.getId()));
+        }
+    }
+
+    void remove(final Widget widget) {
+        final List<Long> cells = cellsOf(widget);
+        if (cells.isEmpty()) {
+            oversizedWidgetIds.remove(widget.getId());
+        } else {
+            cells.forEach(cell -> widgetIdsByCell.computeIfPresent(cell, (c, ids) -> {
+                ids.remove(widget.getId());
+                return ids.isEmpty() ? null : ids;
+            }));
+        }
+    }
+
+    void clear() {
+        widgetIdsByCell.clear();
+        oversizedWidgetIds.clear();
+    }
+
+    /**
+     * @return the ids of the Widgets that may contain the point, a superset of the ones that do
+     */
+    Collection<UUID> candidatesAt(final int x, final int y) {
+        final Set<UUID> cell = widgetIdsByCell.getOrDefault(cellKey(cell(x), cell(y)), Set.of());
+        return Stream.concat(cell.stream(), oversizedWidgetIds.stream())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return true if both Widgets are registered in the same cells, so replacing one by the other
+     *  leaves the grid as it is
+     */
+    static boolean sameCells(final Widget widget, final Widget other) {
+        return cellsOf(widget).equals(cellsOf(other));
+    }
+
+    static boolean contains(final Widget widget, final int x, final int y) {
+        return x >= widget.getCoordinateX() && x <= (long) widget.getCoordinateX() + widget.getWidth()
+                && y >= widget.getCoordinateY() && y <= (long) widget.getCoordinateY() + widget.getHeight();
+    }
+
+    /**
+     * @return the cells overlapped by the Widget, or none when it overlaps too many of them
+     */
+    private static List<Long> cellsOf(final Widget widget) {
+        final long fromX = cell(widget.getCoordinateX());
+        final long toX = cell((long) widget.getCoordinateX() + widget.getWidth());
+        final long fromY = cell(widget.getCoordinateY());
+        final long toY = cell((long) widget.getCoordinateY() + widget.getHeight());
+        if ((toX - fromX + 1) * (toY - fromY + 1) > MAX_CELLS_PER_WIDGET) {
+            return List.of();
+        }
+
+        final List<Long> cells = new ArrayList<>();
+        for (long cellX = fromX; cellX <= toX; cellX++) {
+            for (long cellY = fromY; cellY <= toY; cellY++) {
+                cells.add(cellKey(cellX, cellY));
+            }
+        }
+        return cells;
+    }
+
+    private static long cell(final long coordinate) {
+        return Math.floorDiv(coordinate, CELL_SIZE);
+    }
+
+    private static long cellKey(final long cellX, final long cellY) {
+        return (cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+
+}
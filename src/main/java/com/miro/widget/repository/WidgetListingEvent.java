@@ -0,0 +1,39 @@
+package com.miro.widget.repository;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of an ordered listing of a board, complete or paged.
+ */
+
+@Name("com.miro.widget.Listing")
+@Label("Widget Listing")
+@Category("Widget")
+@StackTrace(false)
+class WidgetListingEvent extends jdk.jfr.Event {
+
+    @Label("Page")
+    @Description("Requested page, -1 for the complete listing")
+    int page;
+
+    @Label("Page Size")
+    int pageSize;
+
+    @Label("Widgets")
+    @Description("Widgets in the board")
+    int widgets;
+
+    @Label("Returned")
+    int returned;
+
+    WidgetListingEvent(final int page, final int pageSize) {
+        this.page = page;
+        this.pageSize = pageSize;
+        begin();
+    }
+
+}
@@ -6,6 +6,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 import com.miro.widget.model.Widget;
+import com.miro.widget.model.ZIndexShift;
 import com.miro.widget.util.Page;
 
 public interface WidgetRepository {
@@ -16,10 +17,57 @@ public interface WidgetRepository {
 
     Optional<Widget> findByZIndex(int zIndex);
 
+    /**
+     * @return the Widgets whose z-index is between from and to (both included), ordered by z-index
+     */
+    List<Widget> findByZIndexRange(int from, int to);
+
+    /**
+     * @return the Widget with the lowest z-index greater than the given one, i.e. its upper neighbour
+     */
+    Optional<Widget> findFirstAbove(int zIndex);
+
+    /**
+     * @return the Widget with the highest z-index among the ones that contain the point, edges included
+     */
+    Optional<Widget> findTopmostAt(int x, int y);
+
     int findNextZIndex();
 
+    int count();
+
     List<Widget> saveAll(Collection<Widget> widgets);
 
+    /**
+     * Replaces the stored Widget with the same id only if it is still the expected version, the
+     *  check and the replacement are a single step for every other writer of the repository.
+     *
+     * @return false if the Widget was deleted or replaced by another version, nothing is stored then
+     */
+    boolean compareAndSave(Widget widget, long expectedVersion);
+
+    /**
+     * Stores Widgets that are new to the repository, as they are, without looking for stored
+     *  versions to replace.
+     *
+     * @throws IllegalArgumentException if the id or the z-index of a Widget is already taken, nothing is stored then
+     */
+    void loadAll(Collection<Widget> widgets);
+
+    void shift(ZIndexShift shift);
+
+    /**
+     * Renumbers the z-indexes keeping their order: the i-th Widget gets i * spacing, leaving
+     *  spacing - 1 free z-indexes after every Widget. The lookups by z-index (single, range,
+     *  hit-test) see either the old or the new numbering. A read made meanwhile without the index
+     *  lock (the full listing and the lookup by id of {@link InMemoryWidgetRepository}) may mix
+     *  both, listing a z-index twice or Widgets out of order; the reads started after it returns
+     *  see the new numbering only.
+     *
+     * @return the number of Widgets whose z-index changed
+     */
+    int renumber(int spacing);
+
     void delete(UUID id);
 
     void deleteAll();
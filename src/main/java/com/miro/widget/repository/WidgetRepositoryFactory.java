@@ -0,0 +1,12 @@
+package com.miro.widget.repository;
+
+/**
+ * Creates the empty repository of a board.
+ */
+
+@FunctionalInterface
+public interface WidgetRepositoryFactory {
+
+    WidgetRepository create();
+
+}
@@ -0,0 +1,146 @@
+package com.miro.widget.service;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.miro.widget.metrics.WidgetMetrics;
+import com.miro.widget.repository.InMemoryWidgetRepository;
+import com.miro.widget.repository.WidgetRepositoryFactory;
+
+/**
+ * Board Service keeps one {@link WidgetService} per board.
+ *
+ * Every board has its own repository partition, so it has its own z-index space and its own
+ *  write serialization: writes to different boards never wait for each other. Boards are created
+ *  on first use, an idle board costs only an empty repository and its service. The board used by
+ *  the board-less API ({@link #DEFAULT_BOARD_ID}) is the application WidgetService.
+ */
+
+@Service
+public class BoardService {
+
+    public static final String DEFAULT_BOARD_ID = "default";
+
+    private static final Pattern BOARD_ID_PATTERN = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final Map<String, WidgetService> widgetServiceByBoardId;
+
+    private final List<BiConsumer<String, WidgetService>> boardListeners;
+
+    private final WidgetMetrics metrics;
+
+    private final WidgetRepositoryFactory repositoryFactory;
+
+    private final Duration coalescingWindow;
+
+    // whether a board belongs to this node, a board of another node is never created here
+    private volatile Predicate<String> localBoards;
+
+    public BoardService(final WidgetService defaultBoardService) {
+        this(defaultBoardService, WidgetMetrics.NOOP);
+    }
+
+    public BoardService(final WidgetService defaultBoardService, final WidgetMetrics metrics) {
+        this(defaultBoardService, metrics, () -> new InMemoryWidgetRepository(metrics), Duration.ZERO);
+    }
+
+    /**
+     * @param coalescingWindow the update coalescing window of the boards created from now on, as the
+     *  one of the default board
+     */
+    @Autowired
+    public BoardService(
+            final WidgetService defaultBoardService,
+            final WidgetMetrics metrics,
+            final WidgetRepositoryFactory repositoryFactory,
+            @Value("${widget.update.coalescing-window:0ms}") final Duration coalescingWindow
+    ) {
+        widgetServiceByBoardId = new ConcurrentHashMap<>();
+        widgetServiceByBoardId.put(DEFAULT_BOARD_ID, Objects.requireNonNull(defaultBoardService));
+        boardListeners = new CopyOnWriteArrayList<>();
+        this.metrics = metrics;
+        this.repositoryFactory = repositoryFactory;
+        this.coalescingWindow = coalescingWindow;
+        this.localBoards = boardId -> true;
+    }
+
+    /**
+     * Restricts the boards created from now on to the ones this node owns (see the cluster). A
+     *  board removed once it was moved to its new owner is not created again by a write that was
+     *  routed here before the owner changed, the write fails with
+     *  {@link WidgetService.BoardMovedException} instead.
+     */
+    public void setLocalBoards(final Predicate<String> localBoards) {
+        this.localBoards = Objects.requireNonNull(localBoards);
+    }
+
+    /**
+     * Registers a listener called with every existing board and with every board created from
+     *  now on, before the new board is visible to any request.
+     */
+    public synchronized void addBoardListener(final BiConsumer<String, WidgetService> listener) {
+        boardListeners.add(Objects.requireNonNull(listener));
+        widgetServiceByBoardId.forEach(listener);
+    }
+
+    public WidgetService forBoard(final String boardId) {
+        checkBoardId(boardId);
+        return widgetServiceByBoardId.computeIfAbsent(boardId, this::createBoard);
+    }
+
+    /**
+     * Runs in the lock of the map entry, as the removal of the board: once a moved board is removed
+     *  the owner checked here is the new one.
+     */
+    private WidgetService createBoard(final String boardId) {
+        if (!localBoards.test(boardId)) {
+            throw new WidgetService.BoardMovedException();
+        }
+
+        final WidgetService widgetService = new WidgetService(
+                repositoryFactory.create(),
+                metrics,
+                coalescingWindow
+        );
+        boardListeners.forEach(listener -> listener.accept(boardId, widgetService));
+        return widgetService;
+    }
+
+    public Optional<WidgetService> findBoard(final String boardId) {
+        checkBoardId(boardId);
+        return Optional.ofNullable(widgetServiceByBoardId.get(boardId));
+    }
+
+    public Optional<WidgetService> removeBoard(final String boardId) {
+        checkBoardId(boardId);
+        checkArgument(!DEFAULT_BOARD_ID.equals(boardId), "The default board cannot be removed");
+        return Optional.ofNullable(widgetServiceByBoardId.remove(boardId));
+    }
+
+    public Set<String> findAllBoardIds() {
+        return Set.copyOf(widgetServiceByBoardId.keySet());
+    }
+
+    private static void checkBoardId(final String boardId) {
+        checkArgument(
+                boardId != null && BOARD_ID_PATTERN.matcher(boardId).matches(),
+                "Board id must have 1 to 64 letters, digits, '-' or '_'"
+        );
+    }
+
+}
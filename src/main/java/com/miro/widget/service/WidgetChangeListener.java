@@ -0,0 +1,33 @@
+package com.miro.widget.service;
+
+import java.util.UUID;
+
+import com.miro.widget.model.Widget;
+import com.miro.widget.model.ZIndexShift;
+
+/**
+ * WidgetChangeListener receives the changes applied by the {@link WidgetService}, in the same
+ *  order they were applied to the repository.
+ *
+ * A shift is delivered as a single {@link ZIndexShift} instead of one saved Widget per moved
+ *  Widget, so a consumer that keeps a copy of the board (sync, export) applies it directly.
+ */
+
+public interface WidgetChangeListener {
+
+    default void onSaved(final Widget widget) {
+    }
+
+    default void onShifted(final ZIndexShift shift) {
+    }
+
+    default void onDeleted(final UUID widgetId) {
+    }
+
+    /**
+     * The z-indexes were renumbered with the given spacing, see {@link WidgetService#compactZIndexes(int)}.
+     */
+    default void onRenumbered(final int spacing) {
+    }
+
+}
@@ -0,0 +1,191 @@
+package com.miro.widget.service;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import com.miro.widget.model.Widget;
+
+/**
+ * WidgetCommand is a creation or an update of a Widget submitted to the {@link WidgetCommandQueue}
+ *  and executed later. Its id identifies the operation until it is completed, with the written
+ *  Widget, or failed, with the message of the exception it threw.
+ */
+
+public final class WidgetCommand {
+
+    public enum Type {
+        CREATE,
+        UPDATE
+    }
+
+    public enum Status {
+        PENDING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final UUID id;
+
+    private final String boardId;
+
+    private final Type type;
+
+    private final UUID widgetId;
+
+    private final Long expectedVersion;
+
+    private final Integer coordinateX;
+
+    private final Integer coordinateY;
+
+    private final Integer zIndex;
+
+    private final Integer width;
+
+    private final Integer height;
+
+    private final CompletableFuture<Widget> result;
+
+    private WidgetCommand(
+            final String boardId,
+            final Type type,
+            final UUID widgetId,
+            final Long expectedVersion,
+            final Integer coordinateX,
+            final Integer coordinateY,
+            final Integer zIndex,
+            final Integer width,
+            final Integer height
+    ) {
+        this.id = UUID.randomUUID();
+        this.boardId = Objects.requireNonNull(boardId);
+        this.type = type;
+        this.widgetId = widgetId;
+        this.expectedVersion = expectedVersion;
+        this.coordinateX = coordinateX;
+        this.coordinateY = coordinateY;
+        this.zIndex = zIndex;
+        this.width = width;
+        this.height = height;
+        this.result = new CompletableFuture<>();
+    }
+
+    public static WidgetCommand create(
+            final String boardId,
+            final int coordinateX,
+            final int coordinateY,
+            final Integer zIndex,
+            final int width,
+            final int height
+    ) {
+        return new WidgetCommand(boardId, Type.CREATE, null, null, coordinateX, coordinateY, zIndex, width, height);
+    }
+
+    /**
+     * An update as {@link WidgetService#updateWidget(UUID, Long, Integer, Integer, Integer, Integer, Integer)}.
+     */
+    public static WidgetCommand update(
+            final String boardId,
+            final UUID widgetId,
+            final Long expectedVersion,
+            final Integer coordinateX,
+            final Integer coordinateY,
+            final Integer zIndex,
+            final Integer width,
+            final Integer height
+    ) {
+        return new WidgetCommand(
+                boardId,
+                Type.UPDATE,
+                Objects.requireNonNull(widgetId),
+                expectedVersion,
+                coordinateX,
+                coordinateY,
+                zIndex,
+                width,
+                height
+        );
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getBoardId() {
+        return boardId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public UUID getWidgetId() {
+        return widgetId;
+    }
+
+    public Long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    public Integer getCoordinateX() {
+        return coordinateX;
+    }
+
+    public Integer getCoordinateY() {
+        return coordinateY;
+    }
+
+    public Integer getZIndex() {
+        return zIndex;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+
+    public Status getStatus() {
+        if (!result.isDone()) {
+            return Status.PENDING;
+        }
+        return result.isCompletedExceptionally() ? Status.FAILED : Status.COMPLETED;
+    }
+
+    /**
+     * @return the written Widget, once completed
+     */
+    public Optional<Widget> getWidget() {
+        return getStatus() == Status.COMPLETED ? Optional.of(result.join()) : Optional.empty();
+    }
+
+    /**
+     * @return the message of the exception thrown by the command, once failed
+     */
+    public Optional<String> getFailure() {
+        return getStatus() == Status.FAILED
+                ? Optional.of(result.handle((widget, e) -> String.valueOf(e.getMessage())).join())
+                : Optional.empty();
+    }
+
+    /**
+     * @return the result of the command, completed when it is executed
+     */
+    public CompletionStage<Widget> getResult() {
+        return result.minimalCompletionStage();
+    }
+
+    void complete(final Widget widget) {
+        result.complete(widget);
+    }
+
+    void fail(final RuntimeException e) {
+        result.completeExceptionally(e);
+    }
+
+}
@@ -0,0 +1,166 @@
+package com.miro.widget.service;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * WidgetCommandQueue executes the submitted {@link WidgetCommand}s in the background, for clients
+ *  that do not wait for their writes (e.g. bulk automations).
+ *
+ * A single writer takes the queued commands in batches of up to widget.async.batch-size, groups
+ *  them by board keeping their order and executes the commands of a board holding its write lock
+ *  once ({@link WidgetService#executeAll(List)}). The queue holds up to widget.async.capacity
+ *  commands, a command submitted to a full queue is rejected. A command can be found by its id
+ *  for widget.async.retention after it was submitted, as long as it is among the last 10 times
+ *  widget.async.capacity commands (the older ones are dropped first under a sustained load).
+ */
+
+@Component
+public class WidgetCommandQueue {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WidgetCommandQueue.class);
+
+    // the commands kept for findById, in multiples of the capacity of the queue
+    private static final int RETAINED_CAPACITIES = 10;
+
+    private final BoardService boardService;
+
+    private final int batchSize;
+
+    private final BlockingQueue<WidgetCommand> queue;
+
+    private final Cache<UUID, WidgetCommand> commandById;
+
+    private final ExecutorService executor;
+
+    public WidgetCommandQueue(
+            final BoardService boardService,
+            @Value("${widget.async.capacity:10000}") final int capacity,
+            @Value("${widget.async.batch-size:500}") final int batchSize,
+            @Value("${widget.async.retention:5m}") final Duration retention
+    ) {
+        checkArgument(capacity > 0, "widget.async.capacity must be positive");
+        checkArgument(batchSize > 0, "widget.async.batch-size must be positive");
+
+        this.boardService = boardService;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.commandById = CacheBuilder.newBuilder()
+                .expireAfterWrite(retention.toMillis(), TimeUnit.MILLISECONDS)
+                .maximumSize((long) capacity * RETAINED_CAPACITIES)
+                .build();
+        this.executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "widget-command-writer"));
+    }
+
+    @PostConstruct
+    void start() {
+        executor.execute(this::write);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return the submitted command, to be executed later
+     * @throws IllegalArgumentException if the board id is not valid
+     * @throws QueueFullException if the queue is full
+     */
+    public WidgetCommand submit(final WidgetCommand command) {
+        boardService.findBoard(command.getBoardId());
+
+        commandById.put(command.getId(), command);
+        if (!queue.offer(command)) {
+            commandById.invalidate(command.getId());
+            throw new QueueFullException(queue.size());
+        }
+        return command;
+    }
+
+    public Optional<WidgetCommand> findById(final UUID id) {
+        return Optional.ofNullable(commandById.getIfPresent(id));
+    }
+
+    private void write() {
+        final List<WidgetCommand> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+
+            try {
+                execute(batch);
+            } catch (final Throwable e) {
+                // the writer is the only one, it must outlive a batch whatever the batch throws
+                LOGGER.error("Could not execute a batch of {} commands", batch.size(), e);
+                final RuntimeException failure = new IllegalStateException("The command was not executed", e);
+                batch.forEach(command -> command.fail(failure));
+            }
+            batch.clear();
+        }
+    }
+
+    void execute(final List<WidgetCommand> batch) {
+        final Map<String, List<WidgetCommand>> commandsByBoardId = new LinkedHashMap<>();
+        batch.forEach(command -> commandsByBoardId
+                .computeIfAbsent(command.getBoardId(), boardId -> new ArrayList<>())
+                .add(command));
+
+        commandsByBoardId.forEach((boardId, commands) -> {
+            try {
+                // only a creation creates the board, as the synchronous writes do
+                final boolean creates = commands.stream().anyMatch(c -> c.getType() == WidgetCommand.Type.CREATE);
+                final Optional<WidgetService> widgetService = creates
+                        ? Optional.of(boardService.forBoard(boardId))
+                        : boardService.findBoard(boardId);
+                if (widgetService.isPresent()) {
+                    widgetService.get().executeAll(commands);
+                } else {
+                    commands.forEach(command -> command.fail(
+                            new WidgetService.WidgetNotFoundException(command.getWidgetId())
+                    ));
+                }
+            } catch (final RuntimeException e) {
+                LOGGER.warn("Could not execute {} commands of board {}", commands.size(), boardId, e);
+                commands.forEach(command -> command.fail(e));
+            }
+        });
+    }
+
+    public static class QueueFullException extends RuntimeException {
+
+        public QueueFullException(final int queued) {
+            super(String.format("The command queue is full, %s commands are waiting", queued));
+        }
+
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.miro.widget.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event of a Widget write (creation, update, move or deletion) of a board.
+ *
+ * Its duration covers the whole operation, lock wait included. When the event is not enabled in
+ *  the running recording nothing but begin/end is evaluated.
+ */
+
+@Name("com.miro.widget.Operation")
+@Label("Widget Operation")
+@Category("Widget")
+@StackTrace(false)
+class WidgetOperationEvent extends jdk.jfr.Event {
+
+    static final String CREATE = "create";
+
+    static final String UPDATE = "update";
+
+    static final String MOVE = "move";
+
+    static final String DELETE = "delete";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Widget Id")
+    String widgetId;
+
+    @Label("Z-index")
+    @Description("Z-index of the Widget after the operation, or before it for a deletion")
+    int zIndex;
+
+    @Label("Shift Length")
+    @Description("Widgets moved up to make room for the Widget")
+    int shiftLength;
+
+    @Label("Lock Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long lockWait;
+
+    @Label("Widgets")
+    @Description("Widgets in the board after the operation")
+    int widgets;
+
+    WidgetOperationEvent(final String operation) {
+        this.operation = operation;
+        begin();
+    }
+
+}
@@ -1,17 +1,31 @@
 package com.miro.widget.service;
 
-import java.util.HashSet;
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.miro.widget.metrics.WidgetMetrics;
 import com.miro.widget.model.Widget;
+import com.miro.widget.model.ZIndexShift;
 import com.miro.widget.repository.WidgetRepository;
 import com.miro.widget.util.Page;
 
@@ -22,15 +36,85 @@ import com.miro.widget.util.Page;
  *  That way, all the time the widgets are saved in the repository the correct information is sent
  *  avoiding the need for unicity checking in the data storage. Operations that demand shift
  *  (creation and update) are done in a serial way.
+ *
+ * A shift is not sent as one update per moved Widget, it is applied and published as a single
+ *  {@link ZIndexShift}, so its cost for listeners is the same no matter how long the shifted run is.
  */
 
 @Service
 public class WidgetService {
 
+    private static final LongConsumer NO_LOCK_WAIT_CONSUMER = wait -> { };
+
     private final WidgetRepository repository;
 
+    private final WidgetMetrics metrics;
+
+    private final List<WidgetChangeListener> listeners;
+
+    // a lock rather than a monitor so a blocked writer never pins the thread it runs on
+    private final ReentrantLock lock;
+
+    // null when the updates are not coalesced
+    private final WidgetUpdateCoalescer coalescer;
+
+    // incremented after every change of the repository, before the write returns
+    private final AtomicLong revision;
+
+    // shared by the updates made without the board write lock, taken alone to close the board
+    private final StampedLock moveFence;
+
+    // set while the board is moved to another node and after it was moved, see moveOut
+    private volatile boolean moved;
+
     public WidgetService(final WidgetRepository repository) {
+        this(repository, WidgetMetrics.NOOP);
+    }
+
+    public WidgetService(final WidgetRepository repository, final WidgetMetrics metrics) {
+        this(repository, metrics, Duration.ZERO);
+    }
+
+    /**
+     * @param coalescingWindow how long the updates of a Widget are merged before being written,
+     *  zero (the default) to write every update (see {@link WidgetUpdateCoalescer})
+     */
+    @Autowired
+    public WidgetService(
+            final WidgetRepository repository,
+            final WidgetMetrics metrics,
+            @Value("${widget.update.coalescing-window:0ms}") final Duration coalescingWindow
+    ) {
+        checkArgument(!coalescingWindow.isNegative(), "The coalescing window must not be negative");
+
         this.repository = repository;
+        this.metrics = metrics;
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.lock = new ReentrantLock();
+        this.revision = new AtomicLong();
+        this.moveFence = new StampedLock();
+        this.coalescer = coalescingWindow.isZero()
+                ? null
+                : new WidgetUpdateCoalescer(coalescingWindow, this::writeCoalesced, metrics);
+    }
+
+    /**
+     * @return a number that changes with every write of the board: a listing taken at a revision
+     *  is still the listing of the board while the revision is the same
+     */
+    public long getRevision() {
+        return revision.get();
+    }
+
+    /**
+     * @return an estimate of the writers waiting for the board write lock
+     */
+    public int getQueuedWriters() {
+        return lock.getQueueLength();
+    }
+
+    public void addChangeListener(final WidgetChangeListener listener) {
+        listeners.add(Objects.requireNonNull(listener));
     }
 
     public Widget createWidget(
@@ -40,7 +124,8 @@ public class WidgetService {
             final int width,
             final int height
     ) {
-        return doInTransaction(() -> {
+        final WidgetOperationEvent event = new WidgetOperationEvent(WidgetOperationEvent.CREATE);
+        final Widget createdWidget = doInTransaction(wait -> event.lockWait = wait, () -> {
             final int widgetZIndex = Optional.ofNullable(zIndex)
                     .orElseGet(repository::findNextZIndex);
             final var widget = Widget.builder()
@@ -52,35 +137,87 @@ public class WidgetService {
                     .setHeight(height)
                     .build();
 
-            final Set<Widget> widgets = shiftWidgets(widgetZIndex);
-            widgets.add(widget);
-
-            repository.saveAll(widgets);
+            event.shiftLength = shiftWidgets(widgetZIndex, widget.getId());
+            save(widget);
 
             return widget;
         });
+
+        commit(event, createdWidget.getId(), createdWidget.getZIndex());
+        return createdWidget;
+    }
+
+    private <T> T doInTransaction(final Supplier<T> function) {
+        return doInTransaction(NO_LOCK_WAIT_CONSUMER, function);
     }
 
-    private synchronized <T> T doInTransaction(final Supplier<T> function) {
-        return function.get();
+    private <T> T doInTransaction(final LongConsumer lockWaitConsumer, final Supplier<T> function) {
+        final long requested = System.nanoTime();
+        lock.lock();
+        final long acquired = System.nanoTime();
+        try {
+            lockWaitConsumer.accept(acquired - requested);
+            checkNotMoved();
+            return function.get();
+        } finally {
+            final long released = System.nanoTime();
+            lock.unlock();
+            metrics.recordTransaction(acquired - requested, released - acquired);
+        }
+    }
+
+    /**
+     * @return the number of Widgets shifted
+     */
+    private int shiftWidgets(final int widgetZIndex, final UUID widgetId) {
+        final ZIndexShiftEvent event = new ZIndexShiftEvent(widgetZIndex);
+        int index = widgetZIndex;
+
+        // the slot of the widget being placed is treated as a gap because it is released by the save
+        while (repository.findByZIndex(index).filter(w -> !w.getId().equals(widgetId)).isPresent()) {
+            index++;
+        }
+
+        final int length = index - widgetZIndex;
+        metrics.recordShiftLength(length);
+        if (length > 0) {
+            shift(ZIndexShift.of(widgetZIndex, index - 1));
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.length = length;
+            event.commit();
+        }
+        return length;
     }
 
-    private Set<Widget> shiftWidgets(final int widgetZIndex) {
-        final Set<Widget> shiftedWidget = new HashSet<>();
+    private void commit(final WidgetOperationEvent event, final UUID widgetId, final int zIndex) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.widgetId = widgetId.toString();
+            event.zIndex = zIndex;
+            event.widgets = repository.count();
+            event.commit();
+        }
+    }
 
-        // using AtomicInteger because it is incremented in the lambda (not because of synchronization)
-        final AtomicInteger index = new AtomicInteger(widgetZIndex);
-        Optional<Widget> widget;
+    private void shift(final ZIndexShift shift) {
+        repository.shift(shift);
+        revision.incrementAndGet();
+        listeners.forEach(l -> l.onShifted(shift));
+    }
 
-        do {
-            widget = repository.findByZIndex(index.get());
-            widget.map(w -> w.toBuilder()
-                    .setZIndex(index.incrementAndGet())
-                    .build()
-            ).ifPresent(shiftedWidget::add);
-        } while (widget.isPresent());
+    private void save(final Widget widget) {
+        repository.saveAll(Set.of(widget));
+        revision.incrementAndGet();
+        listeners.forEach(l -> l.onSaved(widget));
+    }
 
-        return shiftedWidget;
+    private void delete(final UUID widgetId) {
+        repository.delete(widgetId);
+        revision.incrementAndGet();
+        listeners.forEach(l -> l.onDeleted(widgetId));
     }
 
     public Widget updateWidget(
@@ -91,43 +228,483 @@ public class WidgetService {
             final Integer width,
             final Integer height
     ) {
-        final Widget widget = repository.findById(widgetId)
-                .orElseThrow(() -> new WidgetNotFoundException(widgetId));
+        return updateWidget(widgetId, null, coordinateX, coordinateY, zIndex, width, height);
+    }
+
+    /**
+     * Updates the Widget only if it is still the expected version (when given), the version check is
+     *  made by the repository in the same step that stores the update.
+     *
+     * An update that keeps the z-index shifts nothing, so it is stored as a compare-and-set of the
+     *  Widget, retried over the new version if another writer replaced it, without the board write
+     *  lock. That is done only when nobody listens to the changes of the board (e.g. a replication
+     *  log), since listeners must receive the changes in the order the lock gives them.
+     *
+     * When a coalescing window is set, the updates without expected version are merged with the
+     *  other updates of the Widget sent within the window and written once.
+     *
+     * @throws WidgetVersionMismatchException if the stored Widget is not the expected version
+     */
+    public Widget updateWidget(
+            final UUID widgetId,
+            final Long expectedVersion,
+            final Integer coordinateX,
+            final Integer coordinateY,
+            final Integer zIndex,
+            final Integer width,
+            final Integer height
+    ) {
+        if (coalescer != null && expectedVersion == null) {
+            return coalescer.update(
+                    widgetId,
+                    WidgetUpdateCoalescer.Changes.of(coordinateX, coordinateY, zIndex, width, height)
+            );
+        }
+        return writeUpdate(widgetId, expectedVersion, coordinateX, coordinateY, zIndex, width, height);
+    }
 
-        final Widget.WidgetBuilder widgetBuilder = widget.toBuilder();
-        Optional.ofNullable(coordinateX).ifPresent(widgetBuilder::setCoordinateX);
-        Optional.ofNullable(coordinateY).ifPresent(widgetBuilder::setCoordinateY);
-        Optional.ofNullable(width).ifPresent(widgetBuilder::setWidth);
-        Optional.ofNullable(height).ifPresent(widgetBuilder::setHeight);
+    private Widget writeUpdate(
+            final UUID widgetId,
+            final Long expectedVersion,
+            final Integer coordinateX,
+            final Integer coordinateY,
+            final Integer zIndex,
+            final Integer width,
+            final Integer height
+    ) {
+        final UnaryOperator<Widget.WidgetBuilder> changes = geometry(coordinateX, coordinateY, width, height);
+
+        final WidgetOperationEvent event = new WidgetOperationEvent(WidgetOperationEvent.UPDATE);
+        final Widget updatedWidget = updateInPlace(widgetId, expectedVersion, zIndex, changes)
+                .orElseGet(() -> doInTransaction(wait -> event.lockWait = wait, () -> {
+                    // read with the lock held, otherwise a concurrent shift or deletion is overwritten
+                    final Widget widget = findVersion(widgetId, expectedVersion);
+
+                    final int widgetZIndex;
+                    if (Objects.isNull(zIndex)) {
+                        widgetZIndex = repository.findNextZIndex();
+                    } else {
+                        widgetZIndex = zIndex;
+                        if (zIndex != widget.getZIndex()) {
+                            event.shiftLength = shiftWidgets(zIndex, widgetId);
+                        }
+                    }
+
+                    return saveChanges(
+                            widgetId,
+                            expectedVersion,
+                            widgetBuilder -> changes.apply(widgetBuilder).setZIndex(widgetZIndex)
+                    );
+                }));
+
+        commit(event, widgetId, updatedWidget.getZIndex());
+        return updatedWidget;
+    }
 
-        return doInTransaction(() -> {
-            final Set<Widget> widgetsToUpdate = new HashSet<>();
+    /**
+     * Changes the position and size of the Widget keeping its z-index (null values are kept as
+     *  well), only if it is still the expected version (when given). Nothing is shifted, so the
+     *  Widget is stored as a compare-and-set of its entry without the board write lock, unless
+     *  somebody listens to the changes of the board. Its cost does not depend on the board size.
+     *  It is coalesced as {@link #updateWidget(UUID, Long, Integer, Integer, Integer, Integer, Integer)}.
+     *
+     * @throws WidgetVersionMismatchException if the stored Widget is not the expected version
+     */
+    public Widget updateGeometry(
+            final UUID widgetId,
+            final Long expectedVersion,
+            final Integer coordinateX,
+            final Integer coordinateY,
+            final Integer width,
+            final Integer height
+    ) {
+        if (coalescer != null && expectedVersion == null) {
+            return coalescer.update(
+                    widgetId,
+                    WidgetUpdateCoalescer.Changes.geometry(coordinateX, coordinateY, width, height)
+            );
+        }
+        return writeGeometry(widgetId, expectedVersion, coordinateX, coordinateY, width, height);
+    }
+
+    private Widget writeGeometry(
+            final UUID widgetId,
+            final Long expectedVersion,
+            final Integer coordinateX,
+            final Integer coordinateY,
+            final Integer width,
+            final Integer height
+    ) {
+        final UnaryOperator<Widget.WidgetBuilder> changes = geometry(coordinateX, coordinateY, width, height);
+
+        final WidgetOperationEvent event = new WidgetOperationEvent(WidgetOperationEvent.UPDATE);
+        final Widget updatedWidget = listeners.isEmpty()
+                ? saveChanges(widgetId, expectedVersion, changes)
+                : doInTransaction(wait -> event.lockWait = wait, () -> saveChanges(widgetId, expectedVersion, changes));
+
+        commit(event, widgetId, updatedWidget.getZIndex());
+        return updatedWidget;
+    }
+
+    private Widget writeCoalesced(final UUID widgetId, final WidgetUpdateCoalescer.Changes changes) {
+        if (changes.keepsZIndex()) {
+            return writeGeometry(
+                    widgetId,
+                    null,
+                    changes.getCoordinateX(),
+                    changes.getCoordinateY(),
+                    changes.getWidth(),
+                    changes.getHeight()
+            );
+        }
+        return writeUpdate(
+                widgetId,
+                null,
+                changes.getCoordinateX(),
+                changes.getCoordinateY(),
+                changes.getZIndex(),
+                changes.getWidth(),
+                changes.getHeight()
+        );
+    }
+
+    private static UnaryOperator<Widget.WidgetBuilder> geometry(
+            final Integer coordinateX,
+            final Integer coordinateY,
+            final Integer width,
+            final Integer height
+    ) {
+        return widgetBuilder -> {
+            Optional.ofNullable(coordinateX).ifPresent(widgetBuilder::setCoordinateX);
+            Optional.ofNullable(coordinateY).ifPresent(widgetBuilder::setCoordinateY);
+            Optional.ofNullable(width).ifPresent(widgetBuilder::setWidth);
+            Optional.ofNullable(height).ifPresent(widgetBuilder::setHeight);
+            return widgetBuilder;
+        };
+    }
 
-            if (Objects.isNull(zIndex)) {
-                widgetBuilder.setZIndex(repository.findNextZIndex());
-            } else if (zIndex != widget.getZIndex()) {
-                widgetBuilder.setZIndex(zIndex);
+    /**
+     * @return the Widget stored without the board write lock, or empty if the update moves it in
+     *  the z-order or somebody listens to the changes, then it must be done with the lock held
+     */
+    private Optional<Widget> updateInPlace(
+            final UUID widgetId,
+            final Long expectedVersion,
+            final Integer zIndex,
+            final UnaryOperator<Widget.WidgetBuilder> changes
+    ) {
+        if (Objects.isNull(zIndex) || !listeners.isEmpty()) {
+            return Optional.empty();
+        }
 
-                final Set<Widget> shiftedWidgets = shiftWidgets(zIndex);
-                widgetsToUpdate.addAll(shiftedWidgets);
+        while (true) {
+            final Widget widget = findVersion(widgetId, expectedVersion);
+            if (zIndex != widget.getZIndex()) {
+                return Optional.empty();
             }
 
-            final Widget updatedWidget = widgetBuilder.build();
+            final Widget builtWidget = changes.apply(widget.toBuilder()).build();
+            if (compareAndSave(builtWidget, widget.getVersion())) {
+                revision.incrementAndGet();
+                return Optional.of(builtWidget);
+            }
+        }
+    }
 
-            widgetsToUpdate.add(updatedWidget);
-            repository.saveAll(widgetsToUpdate);
+    /**
+     * Applies the changes to the stored Widget and saves it, over again if an update made without
+     *  the board write lock replaced it meanwhile.
+     */
+    private Widget saveChanges(
+            final UUID widgetId,
+            final Long expectedVersion,
+            final UnaryOperator<Widget.WidgetBuilder> changes
+    ) {
+        while (true) {
+            final Widget widget = findVersion(widgetId, expectedVersion);
+            final Widget builtWidget = changes.apply(widget.toBuilder()).build();
+            if (compareAndSave(builtWidget, widget.getVersion())) {
+                revision.incrementAndGet();
+                listeners.forEach(l -> l.onSaved(builtWidget));
+                return builtWidget;
+            }
+        }
+    }
+
+    private Widget findVersion(final UUID widgetId, final Long expectedVersion) {
+        final Widget widget = repository.findById(widgetId)
+                .orElseThrow(() -> new WidgetNotFoundException(widgetId));
+        if (expectedVersion != null && expectedVersion != widget.getVersion()) {
+            throw new WidgetVersionMismatchException(widgetId, expectedVersion, widget.getVersion());
+        }
+        return widget;
+    }
 
-            return updatedWidget;
+    /**
+     * Moves the Widget right above another one, between it and its current upper neighbour.
+     *
+     * The Widget takes the middle of the free z-indexes between both, so in a board with spaced
+     *  z-indexes (see {@link #compactZIndexes(int)}) a move rewrites only the moved Widget. Only when
+     *  both neighbours are consecutive the Widget takes the z-index right above and the usual shift
+     *  makes room for it.
+     */
+    public Widget moveWidgetAbove(final UUID widgetId, final UUID belowWidgetId) {
+        checkArgument(!widgetId.equals(belowWidgetId), "A Widget cannot be moved above itself");
+
+        final WidgetOperationEvent event = new WidgetOperationEvent(WidgetOperationEvent.MOVE);
+        final Widget movedWidget = doInTransaction(wait -> event.lockWait = wait, () -> {
+            final Widget widget = repository.findById(widgetId)
+                    .orElseThrow(() -> new WidgetNotFoundException(widgetId));
+            final Widget below = repository.findById(belowWidgetId)
+                    .orElseThrow(() -> new WidgetNotFoundException(belowWidgetId));
+            final Optional<Widget> above = repository.findFirstAbove(below.getZIndex());
+
+            if (above.filter(widget::equals).isPresent()) {
+                return widget;
+            }
+            checkArgument(below.getZIndex() < Integer.MAX_VALUE, "There is no z-index above Widget %s", belowWidgetId);
+
+            final int zIndex = above
+                    .map(w -> below.getZIndex() + (int) Math.max(1, ((long) w.getZIndex() - below.getZIndex()) / 2))
+                    .orElse(below.getZIndex() + 1);
+            event.shiftLength = shiftWidgets(zIndex, widgetId);
+
+            return saveChanges(widgetId, null, widgetBuilder -> widgetBuilder.setZIndex(zIndex));
         });
+
+        commit(event, widgetId, movedWidget.getZIndex());
+        return movedWidget;
     }
 
     public void deleteWidget(final UUID widgetId) {
+        final WidgetOperationEvent event = new WidgetOperationEvent(WidgetOperationEvent.DELETE);
+        final int zIndex = doInTransaction(wait -> event.lockWait = wait, () -> {
+            final int deletedZIndex = event.isEnabled()
+                    ? repository.findById(widgetId).map(Widget::getZIndex).orElse(0)
+                    : 0;
+            delete(widgetId);
+            return deletedZIndex;
+        });
+
+        commit(event, widgetId, zIndex);
+    }
+
+    /**
+     * Places Widgets that already exist somewhere else (same id and modification date) using the
+     *  same shift rules as the creation, so the z-index stays unique in this board. A Widget this
+     *  board already holds at the same or a newer version is skipped: a transfer sent again must not
+     *  undo the writes made here since.
+     */
+    public void restoreWidgets(final Collection<Widget> widgets) {
+        doInTransaction(() -> {
+            widgets.stream()
+                    .filter(widget -> repository.findById(widget.getId())
+                            .map(held -> held.getVersion() < widget.getVersion())
+                            .orElse(true))
+                    .forEach(widget -> {
+                        shiftWidgets(widget.getZIndex(), widget.getId());
+                        save(widget);
+                    });
+            return null;
+        });
+    }
+
+    /**
+     * Hands the board over to another node. The board is closed and its Widgets are taken while
+     *  the board write lock is held, and while no update made without the lock is between its
+     *  check of the board and its store (see {@link #compareAndSave(Widget, long)}). So every
+     *  write either is in the Widgets taken or throws {@link BoardMovedException}, none is
+     *  stored here after. The sender gets the Widgets once the lock is released, a slow new owner
+     *  does not hold the readers and writers of the board. If the sender throws, the board is
+     *  open again.
+     */
+    public void moveOut(final Consumer<List<Widget>> sender) {
+        final List<Widget> widgets = doInTransaction(() -> {
+            final long stamp = moveFence.writeLock();
+            try {
+                moved = true;
+            } finally {
+                moveFence.unlockWrite(stamp);
+            }
+            return repository.findAllOrderedByZIndex();
+        });
+
+        try {
+            sender.accept(widgets);
+        } catch (final RuntimeException e) {
+            moved = false;
+            throw e;
+        }
+    }
+
+    /**
+     * Stores the Widget if it is still the expected version and the board was not moved, the
+     *  check of the board and the store are a single step for {@link #moveOut(Consumer)}.
+     */
+    private boolean compareAndSave(final Widget widget, final long expectedVersion) {
+        final long stamp = moveFence.readLock();
+        try {
+            checkNotMoved();
+            return repository.compareAndSave(widget, expectedVersion);
+        } finally {
+            moveFence.unlockRead(stamp);
+        }
+    }
+
+    private void checkNotMoved() {
+        if (moved) {
+            throw new BoardMovedException();
+        }
+    }
+
+    /**
+     * Replaces all the Widgets of the board by the given ones, as they are.
+     */
+    public void replaceAllWidgets(final Collection<Widget> widgets) {
         doInTransaction(() -> {
-            repository.delete(widgetId);
+            repository.findAllOrderedByZIndex().forEach(widget -> delete(widget.getId()));
+            widgets.forEach(this::save);
             return null;
         });
     }
 
+    /**
+     * Replaces all the Widgets of the board by the given ones, as they are, loading them straight
+     *  into the repository in a single load (no shift): their ids and z-indexes must be unique, as
+     *  in an export. The Widgets are already read, only the swap holds the board write lock. If the
+     *  load is rejected the replaced Widgets are loaded back and the listeners are not notified,
+     *  readers may only see the board empty meanwhile.
+     *
+     * @return the number of imported Widgets
+     * @throws IllegalArgumentException if two Widgets share an id or a z-index, the board is unchanged then
+     */
+    public int importWidgets(final List<Widget> widgets) {
+        return doInTransaction(() -> {
+            final List<Widget> replaced = repository.findAllOrderedByZIndex();
+            repository.deleteAll();
+            try {
+                repository.loadAll(widgets);
+            } catch (final RuntimeException e) {
+                repository.loadAll(replaced);
+                throw e;
+            } finally {
+                // a listing taken while the board was empty is not the listing of any revision
+                revision.incrementAndGet();
+            }
+
+            replaced.forEach(widget -> listeners.forEach(l -> l.onDeleted(widget.getId())));
+            widgets.forEach(widget -> listeners.forEach(l -> l.onSaved(widget)));
+            return widgets.size();
+        });
+    }
+
+    /**
+     * Renumbers the z-indexes of the board keeping their order, the i-th Widget gets i * spacing.
+     *  After many deletes and shifts it closes the gaps (spacing 1) or opens one after every Widget
+     *  (e.g. spacing 1024), so later inserts land in a free z-index and shift nothing. It is done
+     *  with the board write lock held and published as a single renumbering.
+     */
+    public ZIndexCompaction compactZIndexes(final int spacing) {
+        return doInTransaction(() -> {
+            final long start = System.nanoTime();
+            final int moved = renumber(spacing);
+            final long duration = System.nanoTime() - start;
+
+            metrics.recordCompaction(duration, moved);
+            return new ZIndexCompaction(spacing, repository.count(), moved, Duration.ofNanos(duration));
+        });
+    }
+
+    private int renumber(final int spacing) {
+        final int moved = repository.renumber(spacing);
+        revision.incrementAndGet();
+        listeners.forEach(l -> l.onRenumbered(spacing));
+        return moved;
+    }
+
+    /**
+     * Executes the commands in order holding the board write lock once for all of them, so a batch
+     *  waits for the lock once instead of once per command. Every command is completed with its
+     *  Widget or failed with its exception, a failed command does not stop the others. Updates are
+     *  never coalesced, the batch is their window.
+     */
+    public void executeAll(final List<WidgetCommand> commands) {
+        doInTransaction(() -> {
+            commands.forEach(this::execute);
+            return commands.size();
+        });
+    }
+
+    private void execute(final WidgetCommand command) {
+        try {
+            if (command.getType() == WidgetCommand.Type.CREATE) {
+                command.complete(createWidget(
+                        command.getCoordinateX(),
+                        command.getCoordinateY(),
+                        command.getZIndex(),
+                        command.getWidth(),
+                        command.getHeight()
+                ));
+            } else {
+                command.complete(writeUpdate(
+                        command.getWidgetId(),
+                        command.getExpectedVersion(),
+                        command.getCoordinateX(),
+                        command.getCoordinateY(),
+                        command.getZIndex(),
+                        command.getWidth(),
+                        command.getHeight()
+                ));
+            }
+        } catch (final RuntimeException e) {
+            command.fail(e);
+        }
+    }
+
+    /**
+     * Runs the function over the Widgets of the board while no write is in progress, so anything
+     *  the function reads together with the Widgets (e.g. a change log position) matches them.
+     */
+    public <T> T snapshot(final Function<List<Widget>, T> function) {
+        return doInTransaction(() -> function.apply(repository.findAllOrderedByZIndex()));
+    }
+
+    /**
+     * Returns a listener that applies the changes published by another WidgetService (e.g. a
+     *  replication leader) to this one as they are, without running the shift rules again.
+     */
+    public WidgetChangeListener changeApplier() {
+        return new WidgetChangeListener() {
+
+            @Override
+            public void onSaved(final Widget widget) {
+                doInTransaction(() -> {
+                    save(widget);
+                    return null;
+                });
+            }
+
+            @Override
+            public void onShifted(final ZIndexShift shift) {
+                doInTransaction(() -> {
+                    shift(shift);
+                    return null;
+                });
+            }
+
+            @Override
+            public void onDeleted(final UUID widgetId) {
+                deleteWidget(widgetId);
+            }
+
+            @Override
+            public void onRenumbered(final int spacing) {
+                doInTransaction(() -> renumber(spacing));
+            }
+
+        };
+    }
+
     public Optional<Widget> findById(final UUID id) {
         return repository.findById(id);
     }
@@ -141,6 +718,14 @@ public class WidgetService {
         return repository.findAllOrderedByZIndex(page);
     }
 
+    public List<Widget> findByZIndexRange(final int from, final int to) {
+        return repository.findByZIndexRange(from, to);
+    }
+
+    public Optional<Widget> findTopmostAt(final int x, final int y) {
+        return repository.findTopmostAt(x, y);
+    }
+
     public static class WidgetNotFoundException extends RuntimeException {
 
         public WidgetNotFoundException(final UUID widgetId) {
@@ -149,4 +734,20 @@ public class WidgetService {
 
     }
 
+    public static class BoardMovedException extends RuntimeException {
+
+        public BoardMovedException() {
+            super("The board was moved to another node, retry the request");
+        }
+
+    }
+
+    public static class WidgetVersionMismatchException extends RuntimeException {
+
+        public WidgetVersionMismatchException(final UUID widgetId, final long expectedVersion, final long version) {
+            super(String.format("Widget %s is at version %s, not %s", widgetId, version, expectedVersion));
+        }
+
+    }
+
 }
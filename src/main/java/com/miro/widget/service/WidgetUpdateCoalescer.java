@@ -0,0 +1,215 @@
+package com.miro.widget.service;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import com.google.common.base.Throwables;
+import com.miro.widget.metrics.WidgetMetrics;
+import com.miro.widget.model.Widget;
+
+/**
+ * WidgetUpdateCoalescer merges the updates of a Widget sent within a window (e.g. the updates of a
+ *  drag) into a single write of the latest state.
+ *
+ * The first update of a Widget opens the window and waits for it to end, the updates that arrive
+ *  meanwhile are merged into it and wait as well. Then the merged update is applied once and every
+ *  caller gets its result, or its exception. The merged update ends in the same Widget the
+ *  updates would have left one after another, only the intermediate z-indexes are skipped (the
+ *  Widgets they would have shifted are not moved).
+ */
+
+final class WidgetUpdateCoalescer {
+
+    private final long windowNanos;
+
+    private final BiFunction<UUID, Changes, Widget> writer;
+
+    private final WidgetMetrics metrics;
+
+    private final ConcurrentMap<UUID, PendingUpdate> pendingUpdateById;
+
+    WidgetUpdateCoalescer(
+            final Duration window,
+            final BiFunction<UUID, Changes, Widget> writer,
+            final WidgetMetrics metrics
+    ) {
+        this.windowNanos = window.toNanos();
+        this.writer = writer;
+        this.metrics = metrics;
+        this.pendingUpdateById = new ConcurrentHashMap<>();
+    }
+
+    Widget update(final UUID widgetId, final Changes changes) {
+        // merged under the lock of the map entry, so nothing is merged once the window is closed
+        final PendingUpdate pendingUpdate = pendingUpdateById.compute(
+                widgetId,
+                (id, pending) -> pending == null ? new PendingUpdate(changes) : pending.merge(changes)
+        );
+
+        if (pendingUpdate.openedBy != changes) {
+            return await(pendingUpdate.result);
+        }
+
+        waitForWindow();
+        pendingUpdateById.remove(widgetId, pendingUpdate);
+        metrics.recordCoalescedUpdates(pendingUpdate.updates);
+
+        try {
+            final Widget widget = writer.apply(widgetId, pendingUpdate.changes);
+            pendingUpdate.result.complete(widget);
+            return widget;
+        } catch (final Throwable e) {
+            // the merged callers wait for the result whatever the writer throws, an Error included
+            pendingUpdate.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void waitForWindow() {
+        try {
+            TimeUnit.NANOSECONDS.sleep(windowNanos);
+        } catch (final InterruptedException e) {
+            // the window ends early, the merged update is applied anyway
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Widget await(final CompletableFuture<Widget> result) {
+        try {
+            return result.join();
+        } catch (final CompletionException e) {
+            // the writer only throws unchecked exceptions, rethrown as they are
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        }
+    }
+
+    private static final class PendingUpdate {
+
+        private final Changes openedBy;
+
+        private final CompletableFuture<Widget> result;
+
+        private Changes changes;
+
+        private int updates;
+
+        private PendingUpdate(final Changes changes) {
+            this.openedBy = changes;
+            this.result = new CompletableFuture<>();
+            this.changes = changes;
+            this.updates = 1;
+        }
+
+        private PendingUpdate merge(final Changes later) {
+            changes = changes.then(later);
+            updates++;
+            return this;
+        }
+
+    }
+
+    /**
+     * Changes of an update: the null fields are kept. The z-index is either kept (geometry update)
+     *  or set, null meaning the top of the board as in {@link WidgetService#updateWidget}.
+     */
+    static final class Changes {
+
+        private final Integer coordinateX;
+
+        private final Integer coordinateY;
+
+        private final boolean keepsZIndex;
+
+        private final Integer zIndex;
+
+        private final Integer width;
+
+        private final Integer height;
+
+        private Changes(
+                final Integer coordinateX,
+                final Integer coordinateY,
+                final boolean keepsZIndex,
+                final Integer zIndex,
+                final Integer width,
+                final Integer height
+        ) {
+            this.coordinateX = coordinateX;
+            this.coordinateY = coordinateY;
+            this.keepsZIndex = keepsZIndex;
+            this.zIndex = zIndex;
+            this.width = width;
+            this.height = height;
+        }
+
+        static Changes of(
+                final Integer coordinateX,
+                final Integer coordinateY,
+                final Integer zIndex,
+                final Integer width,
+                final Integer height
+        ) {
+            return new Changes(coordinateX, coordinateY, false, zIndex, width, height);
+        }
+
+        static Changes geometry(
+                final Integer coordinateX,
+                final Integer coordinateY,
+                final Integer width,
+                final Integer height
+        ) {
+            return new Changes(coordinateX, coordinateY, true, null, width, height);
+        }
+
+        /**
+         * @return the changes of this update followed by the later one
+         */
+        Changes then(final Changes later) {
+            return new Changes(
+                    latest(later.coordinateX, coordinateX),
+                    latest(later.coordinateY, coordinateY),
+                    keepsZIndex && later.keepsZIndex,
+                    later.keepsZIndex ? zIndex : later.zIndex,
+                    latest(later.width, width),
+                    latest(later.height, height)
+            );
+        }
+
+        private static Integer latest(final Integer later, final Integer earlier) {
+            return later != null ? later : earlier;
+        }
+
+        Integer getCoordinateX() {
+            return coordinateX;
+        }
+
+        Integer getCoordinateY() {
+            return coordinateY;
+        }
+
+        boolean keepsZIndex() {
+            return keepsZIndex;
+        }
+
+        Integer getZIndex() {
+            return zIndex;
+        }
+
+        Integer getWidth() {
+            return width;
+        }
+
+        Integer getHeight() {
+            return height;
+        }
+
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.miro.widget.service;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The report of a z-index compaction of one board: how many Widgets it had, how many of them got
+ *  a new z-index and how long the board write lock was held for it.
+ */
+
+public final class ZIndexCompaction {
+
+    private final int spacing;
+
+    private final int widgets;
+
+    private final int moved;
+
+    private final Duration duration;
+
+    public ZIndexCompaction(final int spacing, final int widgets, final int moved, final Duration duration) {
+        this.spacing = spacing;
+        this.widgets = widgets;
+        this.moved = moved;
+        this.duration = Objects.requireNonNull(duration);
+    }
+
+    public int getSpacing() {
+        return spacing;
+    }
+
+    public int getWidgets() {
+        return widgets;
+    }
+
+    public int getMoved() {
+        return moved;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d of %d widgets moved (spacing %d) in %d ms", moved, widgets, spacing, duration.toMillis());
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.miro.widget.service;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * ZIndexCompactionJob compacts the z-indexes of every board every widget.compaction.interval,
+ *  with widget.compaction.spacing (1 by default) between consecutive Widgets.
+ *
+ * Boards are compacted one at a time, so only the board being compacted waits for it. A follower
+ *  never runs it: it applies the compactions of its leader. Nothing injects the job, so it is
+ *  created at startup even with lazy initialization.
+ */
+
+@Lazy(false)
+@Component
+@ConditionalOnProperty(prefix = "widget.compaction", name = "interval")
+@ConditionalOnExpression("'${widget.replication.role:}' != 'follower'")
+public class ZIndexCompactionJob {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ZIndexCompactionJob.class);
+
+    private final BoardService boardService;
+
+    private final Duration interval;
+
+    private final int spacing;
+
+    private final ScheduledExecutorService executor;
+
+    public ZIndexCompactionJob(
+            final BoardService boardService,
+            @Value("${widget.compaction.interval}") final Duration interval,
+            @Value("${widget.compaction.spacing:1}") final int spacing
+    ) {
+        this.boardService = boardService;
+        this.interval = interval;
+        this.spacing = spacing;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "z-index-compaction"));
+    }
+
+    @PostConstruct
+    void start() {
+        executor.scheduleWithFixedDelay(this::compact, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    void compact() {
+        boardService.findAllBoardIds().forEach(boardId -> {
+            try {
+                boardService.findBoard(boardId)
+                        .map(widgetService -> widgetService.compactZIndexes(spacing))
+                        .ifPresent(compaction -> LOGGER.info("Board {} compacted: {}", boardId, compaction));
+            } catch (final RuntimeException e) {
+                LOGGER.warn("Could not compact board {}", boardId, e);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.miro.widget.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a z-index collision check: the probe of the occupied run and, when
+ *  the run is not empty, its shift.
+ */
+
+@Name("com.miro.widget.Shift")
+@Label("Z-index Shift")
+@Category("Widget")
+@StackTrace(false)
+class ZIndexShiftEvent extends jdk.jfr.Event {
+
+    @Label("From")
+    int from;
+
+    @Label("Length")
+    int length;
+
+    ZIndexShiftEvent(final int from) {
+        this.from = from;
+        begin();
+    }
+
+}
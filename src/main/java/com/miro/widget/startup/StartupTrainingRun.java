@@ -0,0 +1,53 @@
+package com.miro.widget.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import com.miro.widget.controller.WidgetController;
+import com.miro.widget.controller.dto.CreateWidgetDTO;
+
+/**
+ * StartupTrainingRun, enabled by widget.startup.training-run=true, creates a Widget and lists the
+ *  board once the service is ready, then stops the service.
+ *
+ * It is the run that records the class list of the class data sharing archive
+ *  (-XX:DumpLoadedClassList, see the cds build profile): the classes loaded by the startup and by
+ *  the first requests are archived, so the next starts map them instead of loading and verifying
+ *  them again.
+ */
+
+@Component
+@ConditionalOnProperty(prefix = "widget.startup", name = "training-run", havingValue = "true")
+public class StartupTrainingRun implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupTrainingRun.class);
+
+    private final RestTemplate restTemplate;
+
+    public StartupTrainingRun(final RestTemplateBuilder restTemplateBuilder) {
+        this.restTemplate = restTemplateBuilder.build();
+    }
+
+    @Override
+    public void onApplicationEvent(final ApplicationReadyEvent event) {
+        final ConfigurableApplicationContext context = event.getApplicationContext();
+        final String widgets = "http://localhost:"
+                + context.getEnvironment().getProperty("local.server.port")
+                + WidgetController.PATH;
+
+        restTemplate.postForObject(widgets, new CreateWidgetDTO(1, 1, null, 1, 1), String.class);
+        restTemplate.getForObject(widgets, String.class);
+        LOGGER.info("Training run done, stopping");
+
+        System.exit(SpringApplication.exit(context));
+    }
+
+}
@@ -0,0 +1,113 @@
+package com.miro.widget.admission;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.miro.widget.metrics.WidgetMetrics;
+import com.miro.widget.service.BoardService;
+import com.miro.widget.service.WidgetService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("Write Admission Interceptor Test")
+class WriteAdmissionInterceptorTest {
+
+    private static final int MAX_QUEUED_WRITERS = 8;
+
+    private final BoardService boardServiceMock = mock(BoardService.class);
+
+    private final WidgetService widgetServiceMock = mock(WidgetService.class);
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private final WriteAdmissionInterceptor subject = new WriteAdmissionInterceptor(
+            boardServiceMock,
+            MAX_QUEUED_WRITERS,
+            Duration.ofSeconds(2),
+            new WidgetMetrics(registry)
+    );
+
+    @Test
+    @DisplayName("writes are admitted while the board write lock queue is under the bound")
+    void preHandle_shouldAdmitWrite_whenQueueIsUnderTheBound() {
+        // given
+        final MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/widgets");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        when(boardServiceMock.findBoard(BoardService.DEFAULT_BOARD_ID)).thenReturn(Optional.of(widgetServiceMock));
+        when(widgetServiceMock.getQueuedWriters()).thenReturn(MAX_QUEUED_WRITERS - 1);
+
+        // when
+        final boolean actual = subject.preHandle(request, response, new Object());
+
+        // then
+        assertThat(actual).isTrue();
+        assertThat(registry.get("widget.admission.shed").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("writes to a board whose write lock queue is full are shed with 429 and Retry-After")
+    void preHandle_shouldShedWrite_whenQueueIsFull() {
+        // given
+        final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/boards/board-1/widgets");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("boardId", "board-1"));
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        when(boardServiceMock.findBoard("board-1")).thenReturn(Optional.of(widgetServiceMock));
+        when(widgetServiceMock.getQueuedWriters()).thenReturn(MAX_QUEUED_WRITERS);
+
+        // when
+        final boolean actual = subject.preHandle(request, response, new Object());
+
+        // then
+        assertThat(actual).isFalse();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(registry.get("widget.admission.shed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("reads are admitted whatever the write lock queue")
+    void preHandle_shouldAdmitRead_whenQueueIsFull() {
+        // given
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/widgets");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        when(boardServiceMock.findBoard(BoardService.DEFAULT_BOARD_ID)).thenReturn(Optional.of(widgetServiceMock));
+        when(widgetServiceMock.getQueuedWriters()).thenReturn(MAX_QUEUED_WRITERS);
+
+        // when
+        final boolean actual = subject.preHandle(request, response, new Object());
+
+        // then
+        assertThat(actual).isTrue();
+    }
+
+    @Test
+    @DisplayName("writes to a board that does not exist yet are admitted")
+    void preHandle_shouldAdmitWrite_whenBoardDoesNotExist() {
+        // given
+        final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/boards/board-2/widgets");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("boardId", "board-2"));
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        when(boardServiceMock.findBoard("board-2")).thenReturn(Optional.empty());
+
+        // when
+        final boolean actual = subject.preHandle(request, response, new Object());
+
+        // then
+        assertThat(actual).isTrue();
+    }
+
+}
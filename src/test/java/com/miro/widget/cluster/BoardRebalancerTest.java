@@ -0,0 +1,124 @@
+package com.miro.widget.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.miro.widget.service.BoardService;
+import com.miro.widget.service.WidgetService;
+
+@DisplayName("Board Rebalancer Test")
+class BoardRebalancerTest {
+
+    private static final String SELF = "http://localhost:8080";
+
+    private static final String OTHER = "http://localhost:8081";
+
+    private final BoardService boardService = new BoardService(mock(WidgetService.class));
+
+    private final BoardTransferClient transferClientMock = mock(BoardTransferClient.class);
+
+    private final ClusterProperties properties = properties();
+
+    private final ClusterMembership membership = new ClusterMembership(properties);
+
+    private final BoardRebalancer subject = new BoardRebalancer(boardService, membership, transferClientMock, properties);
+
+    private static ClusterProperties properties() {
+        final ClusterProperties properties = new ClusterProperties();
+        properties.setSelf(SELF);
+        properties.setNodes(List.of(SELF));
+        properties.setTransferBatchSize(2);
+        return properties;
+    }
+
+    @Test
+    @DisplayName("rebalance keeps the boards when this node still owns them")
+    void rebalance_shouldKeepBoards_whenTheyAreStillLocal() {
+        // given
+        boardService.forBoard("board-1").createWidget(1, 2, null, 3, 4);
+
+        // when
+        final List<String> actual = subject.rebalance();
+
+        // then
+        assertThat(actual).isEmpty();
+        assertThat(boardService.findBoard("board-1")).isPresent();
+        verify(transferClientMock, never()).send(anyString(), anyString(), anyList());
+    }
+
+    @Test
+    @DisplayName("rebalance sends the widgets in batches to the new owner and removes the local board")
+    void rebalance_shouldTransferBoardInBatches_whenOwnerChanges() {
+        // given
+        IntStream.range(0, 3).forEach(i -> boardService.forBoard("board-1").createWidget(1, 2, null, 3, 4));
+        membership.changeNodes(List.of(OTHER));
+
+        // when
+        final List<String> actual = subject.rebalance();
+
+        // then
+        assertThat(actual).containsExactly("board-1");
+        assertThat(boardService.findBoard("board-1")).isEmpty();
+        assertThat(boardService.findBoard(BoardService.DEFAULT_BOARD_ID)).isPresent();
+        verify(transferClientMock, times(2)).send(eq(OTHER), eq("board-1"), anyList());
+    }
+
+    @Test
+    @DisplayName("rebalance fences the board: writes that got it before the transfer fail instead of being lost")
+    void rebalance_shouldRejectWrites_whenBoardWasTransferred() {
+        // given
+        final WidgetService board = boardService.forBoard("board-1");
+        board.createWidget(1, 2, null, 3, 4);
+        membership.changeNodes(List.of(OTHER));
+
+        // when
+        subject.rebalance();
+
+        // then
+        assertThrows(WidgetService.BoardMovedException.class, () -> board.createWidget(1, 2, null, 3, 4));
+    }
+
+    @Test
+    @DisplayName("a create routed here before the transfer fails instead of creating the board again")
+    void forBoard_shouldThrow_whenCreateArrivesAfterTransfer() {
+        // given
+        boardService.forBoard("board-1").createWidget(1, 2, null, 3, 4);
+        membership.changeNodes(List.of(OTHER));
+        subject.rebalance();
+
+        // when - then
+        assertThrows(WidgetService.BoardMovedException.class, () -> boardService.forBoard("board-1"));
+        assertThat(boardService.findBoard("board-1")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("rebalance keeps the board locally when the transfer fails")
+    void rebalance_shouldKeepBoard_whenTransferFails() {
+        // given
+        boardService.forBoard("board-1").createWidget(1, 2, null, 3, 4);
+        membership.changeNodes(List.of(OTHER));
+        doThrow(new IllegalStateException("node down")).when(transferClientMock).send(anyString(), anyString(), anyList());
+
+        // when
+        final List<String> actual = subject.rebalance();
+
+        // then
+        assertThat(actual).isEmpty();
+        assertThat(boardService.findBoard("board-1")).isPresent();
+    }
+
+}
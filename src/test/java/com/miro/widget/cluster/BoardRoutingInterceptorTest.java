@@ -0,0 +1,97 @@
+package com.miro.widget.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+@DisplayName("Board Routing Interceptor Test")
+class BoardRoutingInterceptorTest {
+
+    private static final String SELF = "http://localhost:8080";
+
+    private static final String OTHER = "http://localhost:8081";
+
+    private final ClusterMembership membership = membership();
+
+    private final BoardRoutingInterceptor subject = new BoardRoutingInterceptor(membership);
+
+    private static ClusterMembership membership() {
+        final ClusterProperties properties = new ClusterProperties();
+        properties.setSelf(SELF);
+        properties.setNodes(List.of(SELF, OTHER + "/"));
+        return new ClusterMembership(properties);
+    }
+
+    @Test
+    @DisplayName("requests for a board owned by this node are handled locally")
+    void preHandle_shouldContinue_whenBoardIsLocal() {
+        // given
+        final String boardId = findBoardOwnedBy(SELF);
+        final MockHttpServletRequest request = boardRequest(boardId);
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        final boolean actual = subject.preHandle(request, response, new Object());
+
+        // then
+        assertThat(actual).isTrue();
+        assertThat(response.getHeader(HttpHeaders.LOCATION)).isNull();
+    }
+
+    @Test
+    @DisplayName("requests for a board owned by another node are redirected keeping path and query")
+    void preHandle_shouldRedirectToOwner_whenBoardIsRemote() {
+        // given
+        final String boardId = findBoardOwnedBy(OTHER);
+        final MockHttpServletRequest request = boardRequest(boardId);
+        request.setQueryString("page=1&size=5");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        final boolean actual = subject.preHandle(request, response, new Object());
+
+        // then
+        assertThat(actual).isFalse();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TEMPORARY_REDIRECT.value());
+        assertThat(response.getHeader(HttpHeaders.LOCATION))
+                .isEqualTo(OTHER + "/api/boards/" + boardId + "/widgets?page=1&size=5");
+    }
+
+    @Test
+    @DisplayName("requests without board id are handled locally")
+    void preHandle_shouldContinue_whenThereIsNoBoardId() {
+        // given
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/widgets");
+
+        // when - then
+        assertThat(subject.preHandle(request, new MockHttpServletResponse(), new Object())).isTrue();
+    }
+
+    private String findBoardOwnedBy(final String node) {
+        return IntStream.range(0, 1_000)
+                .mapToObj(i -> "board-" + i)
+                .filter(boardId -> membership.ownerOf(boardId).equals(node))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static MockHttpServletRequest boardRequest(final String boardId) {
+        final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/boards/" + boardId + "/widgets");
+        request.setAttribute(
+                HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE,
+                Map.of(BoardRoutingInterceptor.BOARD_ID_VARIABLE, boardId)
+        );
+        return request;
+    }
+
+}
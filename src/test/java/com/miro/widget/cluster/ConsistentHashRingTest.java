@@ -0,0 +1,76 @@
+package com.miro.widget.cluster;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Consistent Hash Ring Test")
+class ConsistentHashRingTest {
+
+    private static final int VIRTUAL_NODES = 128;
+
+    private static final List<String> KEYS = IntStream.range(0, 10_000)
+            .mapToObj(i -> "board-" + i)
+            .collect(Collectors.toUnmodifiableList());
+
+    @Test
+    @DisplayName("should not be possible to create a ring without nodes")
+    void of_shouldThrowException_whenThereIsNoNode() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> ConsistentHashRing.of(Set.of(), VIRTUAL_NODES)
+        );
+    }
+
+    @Test
+    @DisplayName("ownerOf returns the only node when the ring has one node")
+    void ownerOf_shouldReturnTheNode_whenRingHasOneNode() {
+        // given
+        final ConsistentHashRing subject = ConsistentHashRing.of(Set.of("http://a"), VIRTUAL_NODES);
+
+        // when - then
+        assertThat(KEYS).allSatisfy(key -> assertThat(subject.ownerOf(key)).isEqualTo("http://a"));
+    }
+
+    @Test
+    @DisplayName("ownerOf spreads the keys over all the nodes")
+    void ownerOf_shouldSpreadKeysOverAllNodes() {
+        // given
+        final ConsistentHashRing subject = ConsistentHashRing.of(Set.of("http://a", "http://b", "http://c"), VIRTUAL_NODES);
+
+        // when
+        final Map<String, Long> keysByNode = KEYS.stream()
+                .collect(Collectors.groupingBy(subject::ownerOf, Collectors.counting()));
+
+        // then
+        assertThat(keysByNode).containsOnlyKeys("http://a", "http://b", "http://c");
+        assertThat(keysByNode.values()).allSatisfy(count -> assertThat(count).isBetween(2_000L, 4_700L));
+    }
+
+    @Test
+    @DisplayName("a new node only takes keys, the other keys keep their owner")
+    void ownerOf_shouldMoveKeysOnlyToNewNode_whenANodeJoins() {
+        // given
+        final ConsistentHashRing before = ConsistentHashRing.of(Set.of("http://a", "http://b"), VIRTUAL_NODES);
+        final ConsistentHashRing after = ConsistentHashRing.of(Set.of("http://a", "http://b", "http://c"), VIRTUAL_NODES);
+
+        // when
+        final Map<String, String> movedKeys = KEYS.stream()
+                .filter(key -> !before.ownerOf(key).equals(after.ownerOf(key)))
+                .collect(Collectors.toMap(Function.identity(), after::ownerOf));
+
+        // then
+        assertThat(movedKeys.values()).containsOnly("http://c");
+        assertThat(movedKeys.size()).isBetween(2_000, 4_700);
+    }
+
+}
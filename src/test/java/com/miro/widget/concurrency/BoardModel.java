@@ -0,0 +1,116 @@
+package com.miro.widget.concurrency;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import com.miro.widget.model.Widget;
+
+/**
+ * BoardModel is the sequential specification of the z-index rules of a board: a Widget placed in
+ *  a taken z-index moves the consecutive run of Widgets from there up by one, a Widget without
+ *  z-index goes in front of every other one.
+ */
+
+public final class BoardModel {
+
+    public static final String NOT_FOUND = "not found";
+
+    private final TreeMap<Integer, UUID> idByZIndex;
+
+    private final Map<UUID, Integer> zIndexById;
+
+    private int nextZIndex;
+
+    private BoardModel(final TreeMap<Integer, UUID> idByZIndex, final Map<UUID, Integer> zIndexById, final int nextZIndex) {
+        this.idByZIndex = idByZIndex;
+        this.zIndexById = zIndexById;
+        this.nextZIndex = nextZIndex;
+    }
+
+    /**
+     * @return the model of a board where the Widgets were imported
+     */
+    public static BoardModel of(final List<Widget> widgets) {
+        final BoardModel model = new BoardModel(new TreeMap<>(), new HashMap<>(), 0);
+        widgets.forEach(widget -> model.put(widget.getId(), widget.getZIndex()));
+        return model;
+    }
+
+    public BoardModel copy() {
+        return new BoardModel(new TreeMap<>(idByZIndex), new HashMap<>(zIndexById), nextZIndex);
+    }
+
+    public Object create(final UUID id, final Integer zIndex) {
+        return place(id, zIndex);
+    }
+
+    public Object update(final UUID id, final Integer zIndex) {
+        if (!zIndexById.containsKey(id)) {
+            return NOT_FOUND;
+        }
+        if (Objects.equals(zIndex, zIndexById.get(id))) {
+            return zIndex;
+        }
+        return place(id, zIndex);
+    }
+
+    public Object delete(final UUID id) {
+        Objects.requireNonNull(id);
+        final Integer zIndex = zIndexById.remove(id);
+        if (zIndex != null) {
+            idByZIndex.remove(zIndex);
+        }
+        return null;
+    }
+
+    /**
+     * @return the (id, z-index) of every Widget, ordered by z-index
+     */
+    public List<Map.Entry<UUID, Integer>> snapshot() {
+        return idByZIndex.entrySet().stream()
+                .map(e -> new AbstractMap.SimpleImmutableEntry<>(e.getValue(), e.getKey()))
+                .collect(Collectors.toList());
+    }
+
+    private int place(final UUID id, final Integer zIndex) {
+        if (zIndex == null) {
+            final int next = nextZIndex++;
+            put(id, next);
+            return next;
+        }
+
+        // the slot of the Widget being placed is a gap, it is released by the placement
+        int top = zIndex;
+        while (idByZIndex.containsKey(top) && !idByZIndex.get(top).equals(id)) {
+            top++;
+        }
+        for (int shifted = top - 1; shifted >= zIndex; shifted--) {
+            final UUID shiftedId = idByZIndex.remove(shifted);
+            idByZIndex.put(shifted + 1, shiftedId);
+            zIndexById.put(shiftedId, shifted + 1);
+        }
+        if (top > zIndex) {
+            nextZIndex = Math.max(nextZIndex, top + 1);
+        }
+
+        put(id, zIndex);
+        return zIndex;
+    }
+
+    private void put(final UUID id, final int zIndex) {
+        final Integer previous = zIndexById.put(id, zIndex);
+        // unless a shifted Widget took it already
+        if (previous != null && id.equals(idByZIndex.get(previous))) {
+            idByZIndex.remove(previous);
+        }
+        idByZIndex.put(zIndex, id);
+        nextZIndex = Math.max(nextZIndex, zIndex + 1);
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.miro.widget.concurrency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * LinearizabilityChecker tells whether a concurrent history can be explained by a sequential order
+ *  of its calls that respects real time (a call that returned before another one was invoked comes
+ *  first) and where every call gives, on a sequential model, the result it gave for real
+ *  (Wing & Gong search).
+ *
+ * The search is exponential on the calls that overlap, it is meant for short histories (a few
+ *  threads doing a few calls each) checked many times.
+ */
+
+public final class LinearizabilityChecker<M> {
+
+    private final UnaryOperator<M> copy;
+
+    private final List<Call<M>> history;
+
+    /**
+     * @param copy copies a model, the search applies every candidate call to its own copy
+     */
+    public LinearizabilityChecker(final UnaryOperator<M> copy) {
+        this.copy = copy;
+        this.history = new ArrayList<>();
+    }
+
+    /**
+     * Adds a call to the history, it can be called from any thread.
+     *
+     * @param model applies the call to the model and returns the result the call must have given
+     */
+    public synchronized void record(
+            final String description,
+            final long invoked,
+            final long returned,
+            final Object result,
+            final Function<M, Object> model
+    ) {
+        history.add(new Call<>(description, invoked, returned, result, model));
+    }
+
+    public synchronized boolean isLinearizable(final M initial) {
+        return search(new ArrayList<>(history), initial);
+    }
+
+    private boolean search(final List<Call<M>> pending, final M model) {
+        if (pending.isEmpty()) {
+            return true;
+        }
+
+        final long firstReturned = pending.stream().mapToLong(call -> call.returned).min().orElseThrow();
+        for (final Call<M> call : pending) {
+            // a call invoked after another pending one returned cannot be the next one
+            if (call.invoked > firstReturned) {
+                continue;
+            }
+
+            final M next = copy.apply(model);
+            if (Objects.equals(call.model.apply(next), call.result)) {
+                final List<Call<M>> rest = new ArrayList<>(pending);
+                rest.remove(call);
+                if (search(rest, next)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized String toString() {
+        final long first = history.stream().mapToLong(call -> call.invoked).min().orElse(0);
+        return history.stream()
+                .sorted((a, b) -> Long.compare(a.invoked, b.invoked))
+                .map(call -> String.format(
+                        "[%d, %d] %s -> %s", call.invoked - first, call.returned - first, call.description, call.result
+                ))
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static final class Call<M> {
+
+        private final String description;
+
+        private final long invoked;
+
+        private final long returned;
+
+        private final Object result;
+
+        private final Function<M, Object> model;
+
+        private Call(
+                final String description,
+                final long invoked,
+                final long returned,
+                final Object result,
+                final Function<M, Object> model
+        ) {
+            this.description = description;
+            this.invoked = invoked;
+            this.returned = returned;
+            this.result = result;
+            this.model = model;
+        }
+
+    }
+
+}
@@ -0,0 +1,198 @@
+package com.miro.widget.controller;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.miro.widget.controller.dto.CreateWidgetDTO;
+import com.miro.widget.fixture.WidgetFixture;
+import com.miro.widget.service.BoardService;
+import com.miro.widget.service.WidgetService;
+import com.miro.widget.util.Page;
+
+import io.restassured.http.ContentType;
+import io.restassured.module.mockmvc.RestAssuredMockMvc;
+
+@WebMvcTest(controllers = {BoardWidgetController.class})
+@Import(PrecompressedListings.class)
+@DisplayName("Board Widget Controller Test")
+class BoardWidgetControllerTest {
+
+    private static final String BOARD_ID = "board-1";
+
+    @MockBean
+    private BoardService boardServiceMock;
+
+    private final WidgetService widgetServiceMock = mock(WidgetService.class);
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @BeforeEach
+    void setup() {
+        RestAssuredMockMvc.reset();
+        RestAssuredMockMvc.mockMvc(MockMvcBuilders.webAppContextSetup(context).build());
+        RestAssuredMockMvc.basePath = BoardWidgetController.PATH.replace("{boardId}", BOARD_ID);
+
+        when(boardServiceMock.forBoard(BOARD_ID)).thenReturn(widgetServiceMock);
+        when(boardServiceMock.findBoard(BOARD_ID)).thenReturn(Optional.of(widgetServiceMock));
+    }
+
+    @Test
+    @DisplayName("POST should create the widget in the board of the path")
+    void createWidget_shouldCreateWidgetInTheBoard() {
+        // given
+        final var widget = WidgetFixture.create();
+        when(widgetServiceMock.createWidget(
+                widget.getCoordinateX(),
+                widget.getCoordinateY(),
+                widget.getZIndex(),
+                widget.getWidth(),
+                widget.getHeight()
+        )).thenReturn(widget);
+
+        final var create = new CreateWidgetDTO(
+                widget.getCoordinateX(),
+                widget.getCoordinateY(),
+                widget.getZIndex(),
+                widget.getWidth(),
+                widget.getHeight()
+        );
+
+        // when - then
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body(create)
+                .when()
+                .post()
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .body("id", equalTo(widget.getId().toString()));
+    }
+
+    @Test
+    @DisplayName("POST should return Service Unavailable when the board was moved to another node")
+    void createWidget_shouldReturnServiceUnavailable_whenBoardWasMoved() {
+        // given
+        when(boardServiceMock.forBoard(BOARD_ID)).thenThrow(new WidgetService.BoardMovedException());
+
+        // when - then
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body(new CreateWidgetDTO(1, 2, 3, 4, 5))
+                .when()
+                .post()
+                .then()
+                .statusCode(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .header(HttpHeaders.RETRY_AFTER, equalTo("1"));
+    }
+
+    @Test
+    @DisplayName("GET returns the widgets of the board order by zIndex")
+    void getAllWidgets_shouldGetWidgetsOfTheBoard() {
+        // given
+        final var widget1 = WidgetFixture.create(1);
+        final var widget2 = WidgetFixture.create(2);
+        when(widgetServiceMock.findAllOrderByZIndex()).thenReturn(List.of(widget1, widget2));
+
+        // when - then
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .when()
+                .get()
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("id", contains(widget1.getId().toString(), widget2.getId().toString()));
+    }
+
+    @Test
+    @DisplayName("GET with page returns the page of the board")
+    void getPagedWidget_shouldUsePageSetUp_whenPassedAsParameters() {
+        // given
+        final var widget = WidgetFixture.create();
+        when(widgetServiceMock.findAllOrderByZIndex(Page.from(1, 5))).thenReturn(List.of(widget));
+
+        // when - then
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .params(Map.of("page", 1, "size", 5))
+                .when()
+                .get()
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("id", contains(widget.getId().toString()));
+    }
+
+    @Test
+    @DisplayName("GET returns an empty list for a board that does not exist")
+    void getAllWidgets_shouldReturnEmptyList_whenBoardDoesNotExist() {
+        // given
+        RestAssuredMockMvc.basePath = BoardWidgetController.PATH.replace("{boardId}", "unknown");
+        when(boardServiceMock.findBoard("unknown")).thenReturn(Optional.empty());
+
+        // when - then
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .when()
+                .get()
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("$", empty());
+    }
+
+    @Test
+    @DisplayName("requests to an invalid board id return BAD REQUEST")
+    void createWidget_shouldReturnBadRequest_whenBoardIdIsInvalid() {
+        // given
+        RestAssuredMockMvc.basePath = BoardWidgetController.PATH.replace("{boardId}", "invalid.board");
+        when(boardServiceMock.forBoard("invalid.board")).thenThrow(new IllegalArgumentException("invalid"));
+
+        // when - then
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body(new CreateWidgetDTO(1, 2, null, 3, 4))
+                .when()
+                .post()
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    @DisplayName("DELETE should remove the widget from the board")
+    void deleteWidgetById_shouldDeleteWidgetFromTheBoard() {
+        // given
+        final var widgetId = UUID.randomUUID();
+
+        // when - then
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .when()
+                .delete("/{widgetId}", widgetId)
+                .then()
+                .statusCode(HttpStatus.OK.value());
+
+        verify(widgetServiceMock).deleteWidget(eq(widgetId));
+    }
+
+}
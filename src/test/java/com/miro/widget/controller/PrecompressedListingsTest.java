@@ -0,0 +1,101 @@
+package com.miro.widget.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.miro.widget.repository.InMemoryWidgetRepository;
+import com.miro.widget.service.WidgetService;
+
+@DisplayName("Precompressed Listings Test")
+class PrecompressedListingsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final WidgetService widgetService = new WidgetService(new InMemoryWidgetRepository());
+
+    private final PrecompressedListings subject = new PrecompressedListings(objectMapper, 0, 6);
+
+    @Test
+    @DisplayName("gzip is accepted unless it is missing or refused with q=0")
+    void acceptsGzip_shouldFollowAcceptEncoding() {
+        assertThat(PrecompressedListings.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(PrecompressedListings.acceptsGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+        assertThat(PrecompressedListings.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(PrecompressedListings.acceptsGzip("gzip; q=0.000")).isFalse();
+        assertThat(PrecompressedListings.acceptsGzip("deflate, br")).isFalse();
+        assertThat(PrecompressedListings.acceptsGzip(null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("the listing is sent as gzip of the board JSON")
+    void listing_shouldSendGzipOfTheListing() throws IOException {
+        // given
+        widgetService.createWidget(1, 2, 3, 4, 5);
+
+        // when
+        final ResponseEntity<byte[]> actual = subject.listing(widgetService);
+
+        // then
+        assertThat(actual.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(actual.getHeaders().getFirst(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(objectMapper.readTree(gunzip(actual.getBody())).findValuesAsText("zIndex")).containsExactly("3");
+    }
+
+    @Test
+    @DisplayName("the compressed listing is reused until the board is written")
+    void listing_shouldReuseBytes_untilTheBoardChanges() throws IOException {
+        // given
+        widgetService.createWidget(1, 2, 3, 4, 5);
+        final byte[] first = subject.listing(widgetService).getBody();
+
+        // when
+        final byte[] unchanged = subject.listing(widgetService).getBody();
+        widgetService.createWidget(1, 2, 3, 4, 5);
+        final byte[] changed = subject.listing(widgetService).getBody();
+
+        // then
+        assertThat(unchanged).isSameAs(first);
+        assertThat(objectMapper.readTree(gunzip(changed)).findValuesAsText("zIndex")).containsExactly("3", "4");
+    }
+
+    @Test
+    @DisplayName("listings under the minimum size are sent as they are")
+    void listing_shouldNotCompress_whenListingIsSmall() {
+        // given
+        final PrecompressedListings listings = new PrecompressedListings(objectMapper, 2048, 6);
+        widgetService.createWidget(1, 2, 3, 4, 5);
+
+        // when
+        final ResponseEntity<byte[]> actual = listings.listing(widgetService);
+
+        // then
+        assertThat(actual.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(actual.getBody()).startsWith((byte) '[');
+    }
+
+    @Test
+    @DisplayName("a compression level out of 1-9 is rejected")
+    void constructor_shouldThrow_whenLevelIsOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new PrecompressedListings(objectMapper, 0, 10));
+    }
+
+    private static byte[] gunzip(final byte[] bytes) throws IOException {
+        try (GZIPInputStream gzipInputStream = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return gzipInputStream.readAllBytes();
+        }
+    }
+
+}
@@ -1,10 +1,13 @@
 package com.miro.widget.controller;
 
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -101,4 +104,109 @@ class WidgetComplicationControllerTest {
                 .statusCode(HttpStatus.BAD_REQUEST.value());
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("GET with a z-index range brings the widgets in that range")
+    void getWidgetsByZIndexRange_shouldReturnFoundWidgets_whenRangeIsSent() {
+        // given
+        final Widget widget1 = WidgetFixture.create(3);
+        final Widget widget2 = WidgetFixture.create(4);
+
+        when(widgetServiceMock.findByZIndexRange(2, 5)).thenReturn(List.of(widget1, widget2));
+
+        // when - then
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .params(Map.of("zFrom", 2, "zTo", 5))
+                .when()
+                .get()
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("id", contains(widget1.getId().toString(), widget2.getId().toString()));
+    }
+
+    @Test
+    @DisplayName("GET with a z-index range returns a BAD REQUEST when the range is not valid")
+    void getWidgetsByZIndexRange_shouldThrowsException_whenRangeIsNotValid() {
+        // given
+        when(widgetServiceMock.findByZIndexRange(5, 2)).thenThrow(new IllegalArgumentException("zFrom must not be greater than zTo"));
+
+        // when - then
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .params(Map.of("zFrom", 5, "zTo", 2))
+                .when()
+                .get()
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    @DisplayName("GET with fields brings only the requested properties of the widgets")
+    void getWidgetsByZIndexRange_shouldReturnRequestedFields_whenFieldsAreSent() {
+        // given
+        final Widget widget1 = WidgetFixture.create(3);
+        final Widget widget2 = WidgetFixture.create(4);
+
+        when(widgetServiceMock.findByZIndexRange(2, 5)).thenReturn(List.of(widget1, widget2));
+
+        // when - then
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .params(Map.of("zFrom", 2, "zTo", 5, "fields", "id,zIndex,width"))
+                .when()
+                .get()
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("zIndex", contains(3, 4))
+                .body("[0].keySet()", containsInAnyOrder("id", "zIndex", "width"));
+    }
+
+    @Test
+    @DisplayName("GET with an unknown field returns a BAD REQUEST")
+    void getPagedWidget_shouldThrowsException_whenFieldIsUnknown() {
+        // given
+        when(widgetServiceMock.findAllOrderByZIndex(Page.from(0, 10))).thenReturn(List.of(WidgetFixture.create()));
+
+        // when - then
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .params(Map.of("fields", "id,color"))
+                .when()
+                .get()
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    @DisplayName("GET at a point brings the topmost widget containing it")
+    void getTopmostWidgetAt_shouldReturnFoundWidget() {
+        // given
+        final Widget widget = WidgetFixture.create();
+        when(widgetServiceMock.findTopmostAt(2, 3)).thenReturn(Optional.of(widget));
+
+        // when - then
+        RestAssuredMockMvc.given()
+                .params(Map.of("x", 2, "y", 3))
+                .when()
+                .get("/at")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("id", equalTo(widget.getId().toString()));
+    }
+
+    @Test
+    @DisplayName("GET at a point returns NO CONTENT when no widget contains it")
+    void getTopmostWidgetAt_shouldReturnNoContent_whenNoWidgetIsFound() {
+        // given
+        when(widgetServiceMock.findTopmostAt(2, 3)).thenReturn(Optional.empty());
+
+        // when - then
+        RestAssuredMockMvc.given()
+                .params(Map.of("x", 2, "y", 3))
+                .when()
+                .get("/at")
+                .then()
+                .statusCode(HttpStatus.NO_CONTENT.value());
+    }
+
+}
@@ -10,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
@@ -17,6 +18,7 @@ import org.springframework.web.context.WebApplicationContext;
 import com.miro.widget.controller.dto.CreateWidgetDTO;
 import com.miro.widget.controller.dto.UpdateWidgetDTO;
 import com.miro.widget.fixture.WidgetFixture;
+import com.miro.widget.metrics.WidgetMetrics;
 import com.miro.widget.model.Widget;
 import com.miro.widget.repository.InMemoryWidgetRepository;
 import com.miro.widget.repository.WidgetRepository;
@@ -26,7 +28,7 @@ import io.restassured.http.ContentType;
 import io.restassured.module.mockmvc.RestAssuredMockMvc;
 
 @WebMvcTest(controllers = {WidgetController.class})
-@Import({WidgetService.class, InMemoryWidgetRepository.class})
+@Import({WidgetService.class, InMemoryWidgetRepository.class, WidgetMetrics.class, PrecompressedListings.class})
 @DisplayName("Widget Controller Integrated Test")
 public class WidgetControllerIT {
 
@@ -171,4 +173,34 @@ public class WidgetControllerIT {
                 .body("height", equalTo(widget.getHeight() + 1));
     }
 
+    @Test
+    @DisplayName("A conditional update is applied to the version read and refused for a stale one")
+    void happyPath_conditionalUpdateMustBeRefused_whenVersionIsStale() {
+        // given
+        final Widget widget = createWidget(WidgetFixture.create(1));
+        final String eTag = "\"" + widget.getVersion() + "\"";
+        final var update = new UpdateWidgetDTO(widget.getId(), null, null, widget.getZIndex(), widget.getWidth() + 1, null);
+
+        // when - then
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .body(update)
+                .when()
+                .put()
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header(HttpHeaders.ETAG, "\"" + (widget.getVersion() + 1) + "\"")
+                .body("width", equalTo(widget.getWidth() + 1));
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .body(update)
+                .when()
+                .put()
+                .then()
+                .statusCode(HttpStatus.PRECONDITION_FAILED.value());
+    }
+
 }
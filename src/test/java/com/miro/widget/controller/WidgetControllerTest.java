@@ -1,11 +1,24 @@
 package com.miro.widget.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,19 +29,29 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
 import com.miro.widget.controller.dto.CreateWidgetDTO;
+import com.miro.widget.controller.dto.PatchWidgetDTO;
 import com.miro.widget.controller.dto.UpdateWidgetDTO;
 import com.miro.widget.fixture.WidgetFixture;
+import com.miro.widget.model.Widget;
 import com.miro.widget.service.WidgetService;
+import com.miro.widget.service.ZIndexCompaction;
 
 import io.restassured.http.ContentType;
 import io.restassured.module.mockmvc.RestAssuredMockMvc;
 
 @WebMvcTest(controllers = {WidgetController.class})
+@Import(PrecompressedListings.class)
 @DisplayName("Widget Controller Test")
 class WidgetControllerTest {
 
@@ -90,7 +113,7 @@ class WidgetControllerTest {
         final var width = widget.getWidth();
         final var height = widget.getHeight();
 
-        when(widgetServiceMock.updateWidget(id, coordinateX, coordinateY, zIndex, width, height))
+        when(widgetServiceMock.updateWidget(id, null, coordinateX, coordinateY, zIndex, width, height))
                 .thenThrow(new WidgetService.WidgetNotFoundException(id));
 
         final var update = new UpdateWidgetDTO(id, coordinateX, coordinateY, zIndex, width, height);
@@ -117,7 +140,7 @@ class WidgetControllerTest {
         final var width = widget.getWidth();
         final var height = widget.getHeight();
 
-        when(widgetServiceMock.updateWidget(id, coordinateX, coordinateY, zIndex, width, height))
+        when(widgetServiceMock.updateWidget(id, null, coordinateX, coordinateY, zIndex, width, height))
                 .thenReturn(widget);
 
         final var update = new UpdateWidgetDTO(id, coordinateX, coordinateY, zIndex, width, height);
@@ -130,6 +153,7 @@ class WidgetControllerTest {
                 .put()
                 .then()
                 .statusCode(HttpStatus.OK.value())
+                .header(HttpHeaders.ETAG, "\"" + widget.getVersion() + "\"")
                 .body("id", equalTo(id.toString()))
                 .body("coordinateX", equalTo(coordinateX))
                 .body("coordinateY", equalTo(coordinateY))
@@ -138,6 +162,88 @@ class WidgetControllerTest {
                 .body("height", equalTo(height));
     }
 
+    @Test
+    @DisplayName("PUT with If-Match updates the widget only at the given version and returns Precondition Failed otherwise")
+    void updateWidget_shouldReturnPreconditionFailed_whenIfMatchIsAnotherVersion() {
+        // given
+        final var widget = WidgetFixture.create();
+        final var id = widget.getId();
+
+        when(widgetServiceMock.updateWidget(id, 3L, null, null, null, 10, null))
+                .thenThrow(new WidgetService.WidgetVersionMismatchException(id, 3L, 4L));
+
+        final var update = new UpdateWidgetDTO(id, null, null, null, 10, null);
+
+        // when - then
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .body(update)
+                .when()
+                .put()
+                .then()
+                .statusCode(HttpStatus.PRECONDITION_FAILED.value());
+    }
+
+    @Test
+    @DisplayName("PUT returns Precondition Failed when If-Match is a weak entity tag")
+    void updateWidget_shouldReturnPreconditionFailed_whenIfMatchIsWeak() {
+        // given
+        final var update = new UpdateWidgetDTO(UUID.randomUUID(), null, null, null, 10, null);
+
+        // when - then
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                .body(update)
+                .when()
+                .put()
+                .then()
+                .statusCode(HttpStatus.PRECONDITION_FAILED.value());
+
+        verifyNoInteractions(widgetServiceMock);
+    }
+
+    @Test
+    @DisplayName("PUT returns Bad Request when If-Match is not a widget version")
+    void updateWidget_shouldReturnBadRequest_whenIfMatchIsNotAVersion() {
+        // given
+        final var update = new UpdateWidgetDTO(UUID.randomUUID(), null, null, null, 10, null);
+
+        // when - then
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .header(HttpHeaders.IF_MATCH, "\"abc\"")
+                .body(update)
+                .when()
+                .put()
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    @DisplayName("PATCH changes position and size of the widget and returns its new version")
+    void patchWidget_shouldReturnsUpdatedWidget_whenPatchIsCall() {
+        // given
+        final var widget = WidgetFixture.create();
+        final var id = widget.getId();
+
+        when(widgetServiceMock.updateGeometry(id, null, 10, 20, null, null)).thenReturn(widget);
+
+        final var patch = new PatchWidgetDTO(10, 20, null, null);
+
+        // when - then
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body(patch)
+                .when()
+                .patch("/{widgetId}", id)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header(HttpHeaders.ETAG, "\"" + widget.getVersion() + "\"")
+                .body("id", equalTo(id.toString()));
+    }
+
     @Test
     @DisplayName("GET by id returns the widget when it is found")
     void getWidget_shouldReturnWidget_whenWidgetItIsFound() {
@@ -153,6 +259,7 @@ class WidgetControllerTest {
                 .get("/{widgetId}", widgetId)
                 .then()
                 .statusCode(HttpStatus.OK.value())
+                .header(HttpHeaders.ETAG, "\"" + widget.getVersion() + "\"")
                 .body("id", equalTo(widgetId.toString()))
                 .body("coordinateX", equalTo(widget.getCoordinateX()))
                 .body("coordinateY", equalTo(widget.getCoordinateY()))
@@ -195,6 +302,111 @@ class WidgetControllerTest {
                 .body("id", contains(widget1.getId().toString(), widget2.getId().toString()));
     }
 
+    @Test
+    @DisplayName("GET with every field returns the same listing as without fields")
+    void getAllWidgets_shouldWriteSameJson_whenEveryFieldIsRequested() throws Exception {
+        // given
+        final var widget1 = WidgetFixture.create(1);
+        final var widget2 = WidgetFixture.create(2);
+        when(widgetServiceMock.findAllOrderByZIndex()).thenReturn(List.of(widget1, widget2));
+        final MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+
+        // when
+        final String actual = mockMvc.perform(get(WidgetController.PATH)
+                        .param("fields", "id,lastModificationDate,coordinateX,coordinateY,zIndex,width,height,version"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        // then
+        final String expected = mockMvc.perform(get(WidgetController.PATH))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("GET as NDJSON should stream one widget per line ordered by z-index")
+    void streamAllWidgets_shouldWriteOneWidgetPerLine() throws Exception {
+        // given
+        final var widget1 = WidgetFixture.create(1);
+        final var widget2 = WidgetFixture.create(2);
+        when(widgetServiceMock.findAllOrderByZIndex()).thenReturn(List.of(widget1, widget2));
+        final MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+
+        // when
+        final MvcResult result = mockMvc.perform(get(WidgetController.PATH).accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        final String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+                .split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains(widget1.getId().toString());
+        assertThat(lines[1]).contains(widget2.getId().toString());
+    }
+
+    @Test
+    @DisplayName("GET as NDJSON should return Service Unavailable as JSON when the streaming executor is full")
+    void streamAllWidgets_shouldReturnServiceUnavailable_whenStreamIsRejected() throws Exception {
+        // given
+        when(widgetServiceMock.findAllOrderByZIndex()).thenThrow(new TaskRejectedException("Executor is full"));
+        final MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+
+        // when - then
+        mockMvc.perform(get(WidgetController.PATH).accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.message").value("Too many streamed responses, retry later"));
+    }
+
+    @Test
+    @DisplayName("export followed by import should load the same widgets")
+    void importWidgets_shouldLoadExportedWidgets() throws Exception {
+        // given
+        final var widget1 = WidgetFixture.create(1);
+        final var widget2 = WidgetFixture.create(2);
+        when(widgetServiceMock.findAllOrderByZIndex()).thenReturn(List.of(widget1, widget2));
+        final List<Widget> imported = new ArrayList<>();
+        when(widgetServiceMock.importWidgets(any())).thenAnswer(invocation -> {
+            imported.addAll(invocation.<List<Widget>>getArgument(0));
+            return imported.size();
+        });
+        final MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        final MvcResult export = mockMvc.perform(get(WidgetController.PATH + "/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        final byte[] exported = mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(WidgetStreams.GZIP))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+
+        // when - then
+        mockMvc.perform(post(WidgetController.PATH + "/import").contentType(WidgetStreams.GZIP).content(exported))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+        assertThat(imported).containsExactly(widget1, widget2);
+    }
+
+    @Test
+    @DisplayName("import should return bad request when the body is not gzip")
+    void importWidgets_shouldReturnBadRequest_whenBodyIsNotGzip() throws Exception {
+        MockMvcBuilders.webAppContextSetup(context).build()
+                .perform(post(WidgetController.PATH + "/import").contentType(WidgetStreams.GZIP).content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("DELETE should remove widget by id and returns OK")
     void deleteWidgetById_shouldCallWidgetServiceToDelete() {
@@ -211,4 +423,41 @@ class WidgetControllerTest {
 
         verify(widgetServiceMock).deleteWidget(eq(widgetId));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("POST compaction should compact with the given spacing and return the report")
+    void compactZIndexes_shouldReturnReport() {
+        // given
+        when(widgetServiceMock.compactZIndexes(1024)).thenReturn(new ZIndexCompaction(1024, 5, 3, Duration.ofMillis(2)));
+
+        // when - then
+        RestAssuredMockMvc.given()
+                .param("spacing", 1024)
+                .when()
+                .post("/compaction")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("widgets", equalTo(5))
+                .body("moved", equalTo(3))
+                .body("durationMillis", equalTo(2));
+    }
+
+    @Test
+    @DisplayName("POST move should move the widget above the given one and return it")
+    void moveWidget_shouldReturnMovedWidget() {
+        // given
+        final var widget = WidgetFixture.create(512);
+        final var belowWidgetId = UUID.randomUUID();
+        when(widgetServiceMock.moveWidgetAbove(widget.getId(), belowWidgetId)).thenReturn(widget);
+
+        // when - then
+        RestAssuredMockMvc.given()
+                .param("above", belowWidgetId.toString())
+                .when()
+                .post("/{widgetId}/move", widget.getId())
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("zIndex", equalTo(512));
+    }
+
+}
@@ -0,0 +1,138 @@
+package com.miro.widget.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.miro.widget.controller.dto.CreateWidgetDTO;
+import com.miro.widget.controller.dto.UpdateWidgetDTO;
+import com.miro.widget.service.WidgetCommand;
+import com.miro.widget.service.WidgetCommandQueue;
+
+import io.restassured.http.ContentType;
+import io.restassured.module.mockmvc.RestAssuredMockMvc;
+
+@WebMvcTest(controllers = {WidgetOperationController.class})
+@DisplayName("Widget Operation Controller Test")
+class WidgetOperationControllerTest {
+
+    @MockBean
+    private WidgetCommandQueue commandQueueMock;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @BeforeEach
+    void setup() {
+        RestAssuredMockMvc.reset();
+        RestAssuredMockMvc.mockMvc(MockMvcBuilders.webAppContextSetup(context).build());
+
+        when(commandQueueMock.submit(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    @DisplayName("POST async queues the creation and returns Accepted with the operation location")
+    void createWidget_shouldReturnAccepted_whenCreationIsQueued() {
+        // given
+        final var create = new CreateWidgetDTO(1, 2, 3, 4, 5);
+
+        // when
+        final String location = RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body(create)
+                .when()
+                .post(WidgetController.PATH + "/async")
+                .then()
+                .statusCode(HttpStatus.ACCEPTED.value())
+                .body("status", equalTo(WidgetCommand.Status.PENDING.name()))
+                .body("widget", nullValue())
+                .extract()
+                .header(HttpHeaders.LOCATION);
+
+        // then
+        assertThat(location).startsWith(WidgetOperationController.PATH + "/");
+    }
+
+    @Test
+    @DisplayName("PUT async in a board queues the update for that board")
+    void updateWidget_shouldReturnAccepted_whenUpdateIsQueued() {
+        // given
+        final var update = new UpdateWidgetDTO(UUID.randomUUID(), 1, 2, 3, 4, 5);
+
+        // when - then
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .header(HttpHeaders.IF_MATCH, "\"7\"")
+                .body(update)
+                .when()
+                .put("/api/boards/board-1/widgets/async")
+                .then()
+                .statusCode(HttpStatus.ACCEPTED.value())
+                .body("status", equalTo(WidgetCommand.Status.PENDING.name()));
+    }
+
+    @Test
+    @DisplayName("POST async returns Too Many Requests when the command queue is full")
+    void createWidget_shouldReturnTooManyRequests_whenQueueIsFull() {
+        // given
+        when(commandQueueMock.submit(any())).thenThrow(new WidgetCommandQueue.QueueFullException(10));
+
+        // when - then
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body(new CreateWidgetDTO(1, 2, 3, 4, 5))
+                .when()
+                .post(WidgetController.PATH + "/async")
+                .then()
+                .statusCode(HttpStatus.TOO_MANY_REQUESTS.value())
+                .header(HttpHeaders.RETRY_AFTER, equalTo("1"));
+    }
+
+    @Test
+    @DisplayName("GET operation returns the state of a queued operation")
+    void getOperation_shouldReturnState_whenOperationIsKnown() {
+        // given
+        final WidgetCommand command = WidgetCommand.create("default", 1, 2, 3, 4, 5);
+        when(commandQueueMock.findById(command.getId())).thenReturn(Optional.of(command));
+
+        // when - then
+        RestAssuredMockMvc.given()
+                .when()
+                .get(WidgetOperationController.PATH + "/" + command.getId())
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("id", equalTo(command.getId().toString()))
+                .body("status", equalTo(WidgetCommand.Status.PENDING.name()));
+    }
+
+    @Test
+    @DisplayName("GET operation returns Not Found when the operation is unknown")
+    void getOperation_shouldReturnNotFound_whenOperationIsUnknown() {
+        // given
+        when(commandQueueMock.findById(any())).thenReturn(Optional.empty());
+
+        // when - then
+        RestAssuredMockMvc.given()
+                .when()
+                .get(WidgetOperationController.PATH + "/" + UUID.randomUUID())
+                .then()
+                .statusCode(HttpStatus.NOT_FOUND.value());
+    }
+
+}
@@ -36,7 +36,7 @@ class WidgetDTOTest {
     ) {
         assertThrows(
                 NullPointerException.class,
-                () -> new WidgetDTO(id, ZonedDateTime.now(), coordinateX, coordinateY, zIndex, width, height)
+                () -> new WidgetDTO(id, ZonedDateTime.now(), coordinateX, coordinateY, zIndex, width, height, 0)
         );
     }
 
@@ -45,7 +45,7 @@ class WidgetDTOTest {
     void newWidgetDTO_shouldThrowException_whenLastModificationDateFieldIsNull() {
         assertThrows(
                 NullPointerException.class,
-                () -> new WidgetDTO(UUID.randomUUID(), null, 1, 2, 3, 4, 5)
+                () -> new WidgetDTO(UUID.randomUUID(), null, 1, 2, 3, 4, 5, 0)
         );
     }
 
@@ -67,6 +67,29 @@ class WidgetDTOTest {
         softAssertions.assertThat(actual.getzIndex()).isEqualTo(widget.getZIndex());
         softAssertions.assertThat(actual.getHeight()).isEqualTo(widget.getHeight());
         softAssertions.assertThat(actual.getWidth()).isEqualTo(widget.getWidth());
+        softAssertions.assertThat(actual.getVersion()).isEqualTo(widget.getVersion());
+        softAssertions.assertAll();
+    }
+
+    @Test
+    @DisplayName("toWidget must create a widget with the same information, including the modification date")
+    void toWidget_shouldCreateWidgetWithSameInformation() {
+        // given
+        final var widget = WidgetFixture.create();
+
+        // when
+        final var actual = WidgetDTO.from(widget).toWidget();
+
+        // then
+        final SoftAssertions softAssertions = new SoftAssertions();
+        softAssertions.assertThat(actual.getId()).isEqualTo(widget.getId());
+        softAssertions.assertThat(actual.getLastModificationDate()).isEqualTo(widget.getLastModificationDate());
+        softAssertions.assertThat(actual.getCoordinateX()).isEqualTo(widget.getCoordinateX());
+        softAssertions.assertThat(actual.getCoordinateY()).isEqualTo(widget.getCoordinateY());
+        softAssertions.assertThat(actual.getZIndex()).isEqualTo(widget.getZIndex());
+        softAssertions.assertThat(actual.getHeight()).isEqualTo(widget.getHeight());
+        softAssertions.assertThat(actual.getWidth()).isEqualTo(widget.getWidth());
+        softAssertions.assertThat(actual.getVersion()).isEqualTo(widget.getVersion());
         softAssertions.assertAll();
     }
 }
\ No newline at end of file
@@ -0,0 +1,362 @@
+package com.miro.widget.load;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.miro.widget.Application;
+import com.miro.widget.controller.WidgetComplicationController;
+import com.miro.widget.controller.WidgetController;
+import com.miro.widget.controller.dto.WidgetDTO;
+
+/**
+ * LoadGenerator drives a mixed workload ({@link LoadOperation}) against the default board and
+ *  reports the latency percentiles of every operation. It starts the service locally unless
+ *  load.target is set (see {@link LoadSettings}). Run with
+ *  mvn -Ploadtest test-compile exec:java [-Dload.rate=1000 -Dload.board-size=100000 ...]
+ *
+ * The load is open: the i-th request of a thread is due at start + i * interval, no matter how long
+ *  the previous ones took. The latency is measured from that due time, not from the moment the
+ *  request was sent, so a stall of the service is charged to every request that should have been
+ *  sent meanwhile (coordinated omission correction). The uncorrected service time is reported next
+ *  to it: a large difference between both means the service (or the generator) did not keep up.
+ */
+
+public final class LoadGenerator {
+
+    private static final int COORDINATE_RANGE = 10_000;
+
+    private static final int MAX_SIZE = 500;
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final LoadSettings settings;
+
+    private final String widgetsUri;
+
+    private final String pagedWidgetsUri;
+
+    private final HttpClient client;
+
+    private final ObjectMapper objectMapper;
+
+    // ids of the Widgets in the board, as far as this generator knows
+    private final List<UUID> widgetIds;
+
+    private final LoadOperation[] operationByTicket;
+
+    private final Map<LoadOperation, Histogram> responseTimes;
+
+    private final Map<LoadOperation, Histogram> serviceTimes;
+
+    private final Map<LoadOperation, LongAdder> errors;
+
+    LoadGenerator(final LoadSettings settings, final String target) {
+        this.settings = settings;
+        this.widgetsUri = target + WidgetController.PATH;
+        this.pagedWidgetsUri = target + WidgetComplicationController.PATH;
+        this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        this.objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.widgetIds = new ArrayList<>();
+        this.operationByTicket = settings.getMix().entrySet().stream()
+                .flatMap(e -> Collections.nCopies(e.getValue(), e.getKey()).stream())
+                .toArray(LoadOperation[]::new);
+        this.responseTimes = new EnumMap<>(LoadOperation.class);
+        this.serviceTimes = new EnumMap<>(LoadOperation.class);
+        this.errors = new EnumMap<>(LoadOperation.class);
+        for (final LoadOperation operation : LoadOperation.values()) {
+            responseTimes.put(operation, new ConcurrentHistogram(SIGNIFICANT_DIGITS));
+            serviceTimes.put(operation, new ConcurrentHistogram(SIGNIFICANT_DIGITS));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final LoadSettings settings = LoadSettings.fromSystemProperties();
+        System.out.println("Load: " + settings);
+
+        final Optional<ConfigurableApplicationContext> context = settings.getTarget().isPresent()
+                ? Optional.empty()
+                : Optional.of(SpringApplication.run(Application.class, "--server.port=0", "--logging.level.root=WARN"));
+        try {
+            final String target = settings.getTarget()
+                    .orElseGet(() -> "http://localhost:" + context.orElseThrow().getEnvironment().getProperty("local.server.port"));
+
+            final LoadGenerator generator = new LoadGenerator(settings, target);
+            generator.seed();
+            generator.run();
+            generator.report();
+        } finally {
+            context.ifPresent(ConfigurableApplicationContext::close);
+        }
+    }
+
+    /**
+     * Replaces the default board by load.board-size Widgets through the import.
+     */
+    void seed() throws IOException, InterruptedException {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (SequenceWriter writer = objectMapper.writer()
+                .withRootValueSeparator("\n")
+                .writeValues(new GZIPOutputStream(body))) {
+            for (int zIndex = 0; zIndex < settings.getBoardSize(); zIndex++) {
+                final UUID id = UUID.randomUUID();
+                writer.write(new WidgetDTO(id, ZonedDateTime.now(), coordinate(), coordinate(), zIndex, size(), size(), 0));
+                widgetIds.add(id);
+            }
+        }
+
+        final HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(URI.create(widgetsUri + "/import"))
+                        .header("Content-Type", "application/gzip")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString()
+        );
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Could not seed the board: " + response.statusCode() + " " + response.body());
+        }
+        System.out.printf("Seeded %d widgets%n", settings.getBoardSize());
+    }
+
+    void run() throws InterruptedException {
+        final int threads = settings.getThreads();
+        final long interval = TimeUnit.SECONDS.toNanos(threads) / settings.getRate();
+        final long start = System.nanoTime();
+        final long measuredFrom = start + settings.getWarmup().toNanos();
+        final long end = measuredFrom + settings.getDuration().toNanos();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> senders = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                final long firstDue = start + thread * (interval / threads);
+                senders.add(executor.submit(() -> send(firstDue, interval, measuredFrom, end)));
+            }
+            for (final Future<?> sender : senders) {
+                sender.get();
+            }
+        } catch (final ExecutionException e) {
+            throw new IllegalStateException("A sender failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void send(final long firstDue, final long interval, final long measuredFrom, final long end) {
+        for (long due = firstDue; due < end && !Thread.currentThread().isInterrupted(); due += interval) {
+            final long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            final LoadOperation operation = operationByTicket[ThreadLocalRandom.current().nextInt(operationByTicket.length)];
+            final long sent = System.nanoTime();
+            final boolean succeeded = execute(operation);
+            final long done = System.nanoTime();
+
+            if (due >= measuredFrom) {
+                responseTimes.get(operation).recordValue(done - due);
+                serviceTimes.get(operation).recordValue(done - sent);
+                if (!succeeded) {
+                    errors.get(operation).increment();
+                }
+            }
+        }
+    }
+
+    private boolean execute(final LoadOperation operation) {
+        try {
+            switch (operation) {
+                case POLL:
+                    return succeeded(get(widgetsUri));
+                case PAGE:
+                    final int pages = Math.max(1, widgetCount() / settings.getPageSize());
+                    return succeeded(get(String.format(
+                            "%s?page=%d&size=%d", pagedWidgetsUri, ThreadLocalRandom.current().nextInt(pages), settings.getPageSize()
+                    )));
+                case CREATE:
+                    return create(ThreadLocalRandom.current().nextInt(widgetCount() + 1));
+                case CREATE_TOP:
+                    return create(null);
+                case MOVE:
+                    return move();
+                case DELETE:
+                    return delete();
+                default:
+                    throw new IllegalArgumentException("Unknown operation " + operation);
+            }
+        } catch (final IOException e) {
+            return false;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean create(final Integer zIndex) throws IOException, InterruptedException {
+        final Map<String, Integer> widget = new HashMap<>();
+        widget.put("coordinateX", coordinate());
+        widget.put("coordinateY", coordinate());
+        widget.put("zIndex", zIndex);
+        widget.put("width", size());
+        widget.put("height", size());
+
+        final HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(URI.create(widgetsUri))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(widget)))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString()
+        );
+        if (!succeeded(response)) {
+            return false;
+        }
+
+        final UUID id = UUID.fromString(objectMapper.readTree(response.body()).get("id").asText());
+        synchronized (widgetIds) {
+            widgetIds.add(id);
+        }
+        return true;
+    }
+
+    private boolean move() throws IOException, InterruptedException {
+        final Optional<UUID> widgetId = randomWidgetId(false);
+        final Optional<UUID> belowWidgetId = randomWidgetId(false);
+        if (widgetId.isEmpty() || widgetId.equals(belowWidgetId)) {
+            return create(null);
+        }
+
+        return succeeded(client.send(
+                HttpRequest.newBuilder(URI.create(widgetsUri + "/" + widgetId.get() + "/move?above=" + belowWidgetId.get()))
+                        .POST(HttpRequest.BodyPublishers.noBody())
+                        .build(),
+                HttpResponse.BodyHandlers.discarding()
+        ));
+    }
+
+    private boolean delete() throws IOException, InterruptedException {
+        final Optional<UUID> widgetId = randomWidgetId(true);
+        if (widgetId.isEmpty()) {
+            return create(null);
+        }
+
+        return succeeded(client.send(
+                HttpRequest.newBuilder(URI.create(widgetsUri + "/" + widgetId.get())).DELETE().build(),
+                HttpResponse.BodyHandlers.discarding()
+        ));
+    }
+
+    private HttpResponse<Void> get(final String uri) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create(uri)).GET().build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static boolean succeeded(final HttpResponse<?> response) {
+        return response.statusCode() / 100 == 2;
+    }
+
+    private Optional<UUID> randomWidgetId(final boolean remove) {
+        synchronized (widgetIds) {
+            if (widgetIds.isEmpty()) {
+                return Optional.empty();
+            }
+
+            final int index = ThreadLocalRandom.current().nextInt(widgetIds.size());
+            final UUID id = widgetIds.get(index);
+            if (remove) {
+                widgetIds.set(index, widgetIds.get(widgetIds.size() - 1));
+                widgetIds.remove(widgetIds.size() - 1);
+            }
+            return Optional.of(id);
+        }
+    }
+
+    private int widgetCount() {
+        synchronized (widgetIds) {
+            return widgetIds.size();
+        }
+    }
+
+    private static int coordinate() {
+        return ThreadLocalRandom.current().nextInt(COORDINATE_RANGE);
+    }
+
+    private static int size() {
+        return 1 + ThreadLocalRandom.current().nextInt(MAX_SIZE);
+    }
+
+    void report() {
+        final Histogram allResponseTimes = new Histogram(SIGNIFICANT_DIGITS);
+        final Histogram allServiceTimes = new Histogram(SIGNIFICANT_DIGITS);
+        long allErrors = 0;
+
+        System.out.printf(
+                "%-12s %9s %7s %9s %9s %9s %9s %13s%n",
+                "operation", "count", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "svc p99 ms"
+        );
+        for (final LoadOperation operation : LoadOperation.values()) {
+            final Histogram responseTime = responseTimes.get(operation);
+            if (responseTime.getTotalCount() > 0) {
+                print(operation.name(), responseTime, serviceTimes.get(operation), errors.get(operation).sum());
+                allResponseTimes.add(responseTime);
+                allServiceTimes.add(serviceTimes.get(operation));
+                allErrors += errors.get(operation).sum();
+            }
+        }
+        print("ALL", allResponseTimes, allServiceTimes, allErrors);
+
+        System.out.printf(
+                "Throughput: %.1f requests/s (target %d/s)%n",
+                allResponseTimes.getTotalCount() / (settings.getDuration().toNanos() / 1e9),
+                settings.getRate()
+        );
+    }
+
+    private static void print(final String name, final Histogram responseTime, final Histogram serviceTime, final long errors) {
+        System.out.printf(
+                "%-12s %9d %7d %9.2f %9.2f %9.2f %9.2f %13.2f%n",
+                name,
+                responseTime.getTotalCount(),
+                errors,
+                responseTime.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                responseTime.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                responseTime.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                responseTime.getMaxValue() / NANOS_PER_MILLI,
+                serviceTime.getValueAtPercentile(99) / NANOS_PER_MILLI
+        );
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.miro.widget.load;
+
+/**
+ * The requests of the load mix:
+ *
+ * - POLL: whole board listing (GET /api/widgets), as a client that polls the board;
+ * - PAGE: random page of the ordered listing (GET /api/v2/widgets?page=&size=);
+ * - CREATE: creation at a random z-index of the board, shifting the Widgets above it;
+ * - CREATE_TOP: creation in front of every Widget (no z-index);
+ * - MOVE: move of a random Widget above another one (POST /api/widgets/{id}/move);
+ * - DELETE: deletion of a random Widget.
+ */
+
+enum LoadOperation {
+    POLL,
+    PAGE,
+    CREATE,
+    CREATE_TOP,
+    MOVE,
+    DELETE
+}
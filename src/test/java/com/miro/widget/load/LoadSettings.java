@@ -0,0 +1,145 @@
+package com.miro.widget.load;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import com.google.common.base.Splitter;
+
+/**
+ * LoadSettings reads the load generator settings from the load.* system properties.
+ *
+ * - load.target: base URL of a running service, the service is started locally when empty;
+ * - load.rate: requests per second sent in total (200);
+ * - load.duration / load.warmup: measured time and time discarded before it (30s / 10s);
+ * - load.board-size: Widgets imported in the default board before the run (10000);
+ * - load.threads: threads sending requests, enough to keep up with the rate (16);
+ * - load.page-size: page size of the paged reads (20);
+ * - load.mix: weight of each operation, e.g. poll:5,page:35,create:20,create-top:10,move:20,delete:10.
+ */
+
+final class LoadSettings {
+
+    private static final String PREFIX = "load.";
+
+    private static final String DEFAULT_MIX = "poll:5,page:35,create:20,create-top:10,move:20,delete:10";
+
+    private final Optional<String> target;
+
+    private final int rate;
+
+    private final Duration duration;
+
+    private final Duration warmup;
+
+    private final int boardSize;
+
+    private final int threads;
+
+    private final int pageSize;
+
+    private final Map<LoadOperation, Integer> mix;
+
+    private LoadSettings(
+            final Optional<String> target,
+            final int rate,
+            final Duration duration,
+            final Duration warmup,
+            final int boardSize,
+            final int threads,
+            final int pageSize,
+            final Map<LoadOperation, Integer> mix
+    ) {
+        checkArgument(rate > 0, "load.rate must be positive");
+        checkArgument(!duration.isNegative() && !duration.isZero(), "load.duration must be positive");
+        checkArgument(!warmup.isNegative(), "load.warmup must not be negative");
+        checkArgument(threads > 0, "load.threads must be positive");
+        checkArgument(pageSize > 0, "load.page-size must be positive");
+        checkArgument(boardSize >= 0, "load.board-size must not be negative");
+        checkArgument(mix.values().stream().mapToInt(Integer::intValue).sum() > 0, "load.mix must have a positive weight");
+
+        this.target = target;
+        this.rate = rate;
+        this.duration = duration;
+        this.warmup = warmup;
+        this.boardSize = boardSize;
+        this.threads = threads;
+        this.pageSize = pageSize;
+        this.mix = mix;
+    }
+
+    Optional<String> getTarget() {
+        return target;
+    }
+
+    int getRate() {
+        return rate;
+    }
+
+    Duration getDuration() {
+        return duration;
+    }
+
+    Duration getWarmup() {
+        return warmup;
+    }
+
+    int getBoardSize() {
+        return boardSize;
+    }
+
+    int getThreads() {
+        return threads;
+    }
+
+    int getPageSize() {
+        return pageSize;
+    }
+
+    Map<LoadOperation, Integer> getMix() {
+        return mix;
+    }
+
+    static LoadSettings fromSystemProperties() {
+        return new LoadSettings(
+                Optional.ofNullable(System.getProperty(PREFIX + "target")).filter(target -> !target.isBlank()),
+                Integer.getInteger(PREFIX + "rate", 200),
+                Duration.ofSeconds(Integer.getInteger(PREFIX + "duration", 30)),
+                Duration.ofSeconds(Integer.getInteger(PREFIX + "warmup", 10)),
+                Integer.getInteger(PREFIX + "board-size", 10_000),
+                Integer.getInteger(PREFIX + "threads", 16),
+                Integer.getInteger(PREFIX + "page-size", 20),
+                parseMix(System.getProperty(PREFIX + "mix", DEFAULT_MIX))
+        );
+    }
+
+    private static Map<LoadOperation, Integer> parseMix(final String mix) {
+        final Map<LoadOperation, Integer> weights = new EnumMap<>(LoadOperation.class);
+        Splitter.on(',').trimResults().omitEmptyStrings().withKeyValueSeparator(':').split(mix)
+                .forEach((operation, weight) -> weights.put(
+                        LoadOperation.valueOf(operation.toUpperCase(Locale.ROOT).replace('-', '_')),
+                        Integer.parseInt(weight)
+                ));
+        return weights;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "target=%s rate=%d/s duration=%ds warmup=%ds board-size=%d threads=%d page-size=%d mix=%s",
+                target.orElse("local"),
+                rate,
+                duration.toSeconds(),
+                warmup.toSeconds(),
+                boardSize,
+                threads,
+                pageSize,
+                mix
+        );
+    }
+
+}
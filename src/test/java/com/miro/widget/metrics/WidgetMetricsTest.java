@@ -0,0 +1,60 @@
+package com.miro.widget.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.miro.widget.repository.InMemoryWidgetRepository;
+import com.miro.widget.service.WidgetService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DisplayName("Widget Metrics Test")
+class WidgetMetricsTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private final WidgetMetrics subject = new WidgetMetrics(registry);
+
+    @Test
+    @DisplayName("the write path records the lock times, the shift lengths and the saved batch sizes")
+    void widgetService_shouldRecordWritePath_whenWidgetsAreCreated() {
+        // given
+        final WidgetService widgetService = new WidgetService(new InMemoryWidgetRepository(subject), subject);
+
+        // when
+        widgetService.createWidget(1, 2, 1, 3, 4);
+        widgetService.createWidget(1, 2, 1, 3, 4);
+        widgetService.findAllOrderByZIndex();
+
+        // then
+        final SoftAssertions softly = new SoftAssertions();
+        softly.assertThat(registry.get("widget.transaction.wait").timer().count()).isEqualTo(2);
+        softly.assertThat(registry.get("widget.transaction.hold").timer().count()).isEqualTo(2);
+        softly.assertThat(registry.get("widget.shift.length").summary().count()).isEqualTo(2);
+        softly.assertThat(registry.get("widget.shift.length").summary().max()).isEqualTo(1);
+        softly.assertThat(registry.get("widget.repository.save.batch").summary().totalAmount()).isEqualTo(2);
+        softly.assertThat(registry.get("widget.repository.sort").timer().count()).isEqualTo(1);
+        softly.assertAll();
+    }
+
+    @Test
+    @DisplayName("the size gauges add up the sizes of every repository")
+    void monitorSizes_shouldSumRepositories_whenSeveralAreMonitored() {
+        // given
+        new WidgetService(new InMemoryWidgetRepository(subject), subject).createWidget(1, 2, 1, 3, 4);
+        final WidgetService widgetService = new WidgetService(new InMemoryWidgetRepository(subject), subject);
+
+        // when
+        widgetService.createWidget(1, 2, 1, 3, 4);
+        widgetService.createWidget(1, 2, 2, 3, 4);
+
+        // then
+        assertThat(registry.get("widget.repository.widgets").gauge().value()).isEqualTo(3);
+        assertThat(registry.get("widget.repository.z.indexes").gauge().value()).isEqualTo(3);
+    }
+
+}
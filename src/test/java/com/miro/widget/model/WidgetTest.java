@@ -3,6 +3,7 @@ package com.miro.widget.model;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.time.ZonedDateTime;
 import java.util.UUID;
 
 import org.junit.jupiter.api.DisplayName;
@@ -176,4 +177,19 @@ class WidgetTest {
         assertThat(actual.getLastModificationDate()).isAfter(widget.getLastModificationDate());
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("build keeps the last modification date when it is given")
+    void build_shouldKeepLastModificationDate_whenItIsSet() {
+        // given
+        final var lastModificationDate = ZonedDateTime.now().minusDays(1);
+
+        // when
+        final var actual = WidgetFixture.create().toBuilder()
+                .setLastModificationDate(lastModificationDate)
+                .build();
+
+        // then
+        assertThat(actual.getLastModificationDate()).isEqualTo(lastModificationDate);
+    }
+
+}
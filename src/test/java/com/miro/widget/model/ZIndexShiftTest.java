@@ -0,0 +1,44 @@
+package com.miro.widget.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+@DisplayName("ZIndexShift Test")
+class ZIndexShiftTest {
+
+    @Test
+    @DisplayName("should not be possible to create a shift that ends before it starts")
+    void of_shouldThrowException_whenEndIsBeforeStart() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> ZIndexShift.of(3, 2)
+        );
+    }
+
+    @Test
+    @DisplayName("size counts both ends of the range")
+    void size_shouldCountBothEnds() {
+        assertThat(ZIndexShift.of(2, 2).size()).isEqualTo(1);
+        assertThat(ZIndexShift.of(-1, 8).size()).isEqualTo(10);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1, 1", "2, 3", "5, 6", "6, 6"})
+    @DisplayName("apply increments only the zIndex inside the range")
+    void apply_shouldIncrementOnlyZIndexInsideRange(final int zIndex, final int expected) {
+        // given
+        final ZIndexShift shift = ZIndexShift.of(2, 5);
+
+        // when
+        final int actual = shift.apply(zIndex);
+
+        // then
+        assertThat(actual).isEqualTo(expected);
+    }
+
+}
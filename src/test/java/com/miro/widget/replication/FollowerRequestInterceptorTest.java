@@ -0,0 +1,116 @@
+package com.miro.widget.replication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+@DisplayName("Follower Request Interceptor Test")
+class FollowerRequestInterceptorTest {
+
+    private static final String LEADER = "http://localhost:8080";
+
+    private static final Duration READ_WAIT = Duration.ofSeconds(2);
+
+    private final ReplicationFollower followerMock = mock(ReplicationFollower.class);
+
+    private final FollowerRequestInterceptor subject = new FollowerRequestInterceptor(followerMock, LEADER, READ_WAIT);
+
+    @Test
+    @DisplayName("writes are redirected to the leader keeping path and query")
+    void preHandle_shouldRedirectToLeader_whenRequestIsWrite() throws InterruptedException {
+        // given
+        final MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/widgets/1");
+        request.setQueryString("a=b");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        final boolean actual = subject.preHandle(request, response, new Object());
+
+        // then
+        assertThat(actual).isFalse();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TEMPORARY_REDIRECT.value());
+        assertThat(response.getHeader(HttpHeaders.LOCATION)).isEqualTo(LEADER + "/api/widgets/1?a=b");
+    }
+
+    @Test
+    @DisplayName("reads are served with the applied version when the follower is up to date")
+    void preHandle_shouldServeRead_whenVersionIsApplied() throws InterruptedException {
+        // given
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/widgets");
+        request.addHeader(VersionTokens.MIN_VERSION_HEADER, "7");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        when(followerMock.awaitVersion(7, READ_WAIT)).thenReturn(true);
+        when(followerMock.getAppliedVersion()).thenReturn(9L);
+
+        // when
+        final boolean actual = subject.preHandle(request, response, new Object());
+
+        // then
+        assertThat(actual).isTrue();
+        assertThat(response.getHeader(VersionTokens.VERSION_HEADER)).isEqualTo("9");
+    }
+
+    @Test
+    @DisplayName("reads are refused when the version token is not applied in time")
+    void preHandle_shouldRefuseRead_whenVersionIsNotApplied() throws InterruptedException {
+        // given
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/widgets");
+        request.addHeader(VersionTokens.MIN_VERSION_HEADER, "7");
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        when(followerMock.awaitVersion(eq(7L), any())).thenReturn(false);
+
+        // when
+        final boolean actual = subject.preHandle(request, response, new Object());
+
+        // then
+        assertThat(actual).isFalse();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+    }
+
+    @Test
+    @DisplayName("reads are refused when the follower is stale")
+    void preHandle_shouldRefuseRead_whenFollowerIsStale() throws InterruptedException {
+        // given
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        when(followerMock.isStale()).thenReturn(true);
+        when(followerMock.awaitVersion(anyLong(), any())).thenReturn(true);
+
+        // when
+        final boolean actual = subject.preHandle(new MockHttpServletRequest("GET", "/api/widgets"), response, new Object());
+
+        // then
+        assertThat(actual).isFalse();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+    }
+
+    @Test
+    @DisplayName("reads are a bad request when the version token is not a number")
+    void preHandle_shouldThrow_whenVersionTokenIsNotANumber() throws InterruptedException {
+        // given
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/widgets");
+        request.addHeader(VersionTokens.MIN_VERSION_HEADER, "seven");
+
+        // when - then
+        assertThatThrownBy(() -> subject.preHandle(request, new MockHttpServletResponse(), new Object()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("seven");
+        verify(followerMock, never()).awaitVersion(anyLong(), any());
+    }
+
+}
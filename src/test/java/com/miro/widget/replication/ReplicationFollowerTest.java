@@ -0,0 +1,133 @@
+package com.miro.widget.replication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.miro.widget.controller.dto.MutationDTO;
+import com.miro.widget.controller.dto.SnapshotDTO;
+import com.miro.widget.controller.dto.WidgetDTO;
+import com.miro.widget.fixture.WidgetFixture;
+import com.miro.widget.model.Widget;
+import com.miro.widget.model.ZIndexShift;
+import com.miro.widget.service.BoardService;
+import com.miro.widget.service.WidgetService;
+
+@DisplayName("Replication Follower Test")
+class ReplicationFollowerTest {
+
+    private final BoardService boardService = new BoardService(mock(WidgetService.class));
+
+    private final LeaderClient leaderClientMock = mock(LeaderClient.class);
+
+    private final ReplicationFollower subject = new ReplicationFollower(boardService, leaderClientMock, properties());
+
+    private static ReplicationProperties properties() {
+        final ReplicationProperties properties = new ReplicationProperties();
+        properties.setBatchSize(10);
+        return properties;
+    }
+
+    @Test
+    @DisplayName("the follower starts from a snapshot and then applies the log entries in order")
+    void poll_shouldApplySnapshotAndEntries_whenFollowerStarts() {
+        // given
+        final Widget widget1 = WidgetFixture.create(1);
+        final Widget widget2 = WidgetFixture.create(1);
+        when(leaderClientMock.fetchSnapshot()).thenReturn(new SnapshotDTO(
+                3L,
+                Map.of("board-1", new SnapshotDTO.BoardSnapshotDTO(3L, List.of(WidgetDTO.from(widget1))))
+        ));
+        when(leaderClientMock.fetchMutations(3, 10)).thenReturn(Optional.of(List.of(
+                MutationDTO.shifted(4, "board-1", ZIndexShift.of(1, 1)),
+                MutationDTO.saved(5, "board-1", widget2)
+        )));
+
+        // when
+        subject.poll();
+        subject.poll();
+
+        // then
+        assertThat(subject.getAppliedVersion()).isEqualTo(5L);
+        assertThat(subject.isStale()).isFalse();
+        assertThat(boardService.forBoard("board-1").findAllOrderByZIndex())
+                .extracting(Widget::getId)
+                .containsExactly(widget2.getId(), widget1.getId());
+    }
+
+    @Test
+    @DisplayName("entries already included in the snapshot copy of a board are skipped")
+    void poll_shouldSkipEntries_whenTheyAreIncludedInBoardCopy() {
+        // given
+        final Widget widget = WidgetFixture.create(1);
+        when(leaderClientMock.fetchSnapshot()).thenReturn(new SnapshotDTO(
+                3L,
+                Map.of("board-1", new SnapshotDTO.BoardSnapshotDTO(5L, List.of(WidgetDTO.from(widget))))
+        ));
+        when(leaderClientMock.fetchMutations(3, 10)).thenReturn(Optional.of(List.of(
+                MutationDTO.deleted(4, "board-1", widget.getId()),
+                MutationDTO.saved(5, "board-1", WidgetFixture.create(2))
+        )));
+
+        // when
+        subject.poll();
+        subject.poll();
+
+        // then
+        assertThat(boardService.forBoard("board-1").findAllOrderByZIndex())
+                .extracting(Widget::getId)
+                .containsExactly(widget.getId());
+    }
+
+    @Test
+    @DisplayName("the follower restarts from a snapshot when the leader does not have the entries anymore")
+    void poll_shouldResync_whenEntriesAreGone() {
+        // given
+        when(leaderClientMock.fetchSnapshot())
+                .thenReturn(new SnapshotDTO(3L, Map.of()))
+                .thenReturn(new SnapshotDTO(8L, Map.of()));
+        when(leaderClientMock.fetchMutations(3, 10)).thenReturn(Optional.empty());
+
+        // when
+        subject.poll();
+        subject.poll();
+
+        // then
+        assertThat(subject.getAppliedVersion()).isEqualTo(8L);
+    }
+
+    @Test
+    @DisplayName("the follower is stale until it reaches the leader")
+    void poll_shouldStayStale_whenLeaderIsUnreachable() {
+        // given
+        when(leaderClientMock.fetchSnapshot()).thenThrow(new IllegalStateException("unreachable"));
+
+        // when
+        subject.poll();
+
+        // then
+        assertThat(subject.isStale()).isTrue();
+        verify(leaderClientMock, never()).fetchMutations(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("awaitVersion gives up when the version is not applied in time")
+    void awaitVersion_shouldReturnFalse_whenVersionIsNotApplied() throws InterruptedException {
+        // when - then
+        assertThat(subject.awaitVersion(0, Duration.ZERO)).isTrue();
+        assertThat(subject.awaitVersion(1, Duration.ofMillis(10))).isFalse();
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.miro.widget.replication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.miro.widget.controller.dto.MutationDTO;
+import com.miro.widget.controller.dto.SnapshotDTO;
+import com.miro.widget.controller.dto.WidgetDTO;
+import com.miro.widget.model.Widget;
+import com.miro.widget.repository.InMemoryWidgetRepository;
+import com.miro.widget.service.BoardService;
+import com.miro.widget.service.WidgetService;
+
+@DisplayName("Replication Log Test")
+class ReplicationLogTest {
+
+    private final BoardService boardService = new BoardService(new WidgetService(new InMemoryWidgetRepository()));
+
+    private final ReplicationLog subject = new ReplicationLog(boardService, properties());
+
+    private static ReplicationProperties properties() {
+        final ReplicationProperties properties = new ReplicationProperties();
+        properties.setLogCapacity(4);
+        return properties;
+    }
+
+    @BeforeEach
+    void setUp() {
+        subject.listenToBoards();
+    }
+
+    @Test
+    @DisplayName("every change of every board is appended in order with the next version")
+    void findAfter_shouldReturnChangesInOrder_whenBoardsChange() {
+        // given
+        final Widget widget = boardService.forBoard("board-1").createWidget(1, 2, 1, 3, 4);
+        boardService.forBoard("board-2").createWidget(1, 2, 1, 3, 4);
+        boardService.forBoard("board-1").createWidget(1, 2, 1, 3, 4);
+
+        // when
+        final List<MutationDTO> actual = subject.findAfter(1, 10).orElseThrow();
+
+        // then
+        assertThat(actual).extracting(MutationDTO::getVersion).containsExactly(2L, 3L, 4L);
+        assertThat(actual).extracting(MutationDTO::getBoardId).containsExactly("board-2", "board-1", "board-1");
+        assertThat(actual).extracting(MutationDTO::getType)
+                .containsExactly(MutationDTO.Type.SAVED, MutationDTO.Type.SHIFTED, MutationDTO.Type.SAVED);
+        assertThat(actual.get(1).getShiftFrom()).isEqualTo(1);
+        assertThat(subject.findAfter(0, 1).orElseThrow().get(0).getWidget().getId()).isEqualTo(widget.getId());
+    }
+
+    @Test
+    @DisplayName("findAfter returns empty when the entries were evicted or the version is unknown")
+    void findAfter_shouldReturnEmpty_whenEntriesAreNotInTheLog() {
+        // given
+        IntStream.range(0, 6).forEach(i -> boardService.forBoard("board-1").createWidget(1, 2, null, 3, 4));
+
+        // when - then
+        assertThat(subject.findAfter(0, 10)).isEmpty();
+        assertThat(subject.findAfter(1, 10)).isEmpty();
+        assertThat(subject.findAfter(2, 10)).hasValueSatisfying(found -> assertThat(found).hasSize(4));
+        assertThat(subject.findAfter(6, 10)).hasValueSatisfying(found -> assertThat(found).isEmpty());
+        assertThat(subject.findAfter(7, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("snapshot copies every board with the version that includes its last change")
+    void snapshot_shouldCopyBoardsWithTheirVersion() {
+        // given
+        final Widget widget = boardService.forBoard("board-1").createWidget(1, 2, 1, 3, 4);
+        boardService.forBoard("board-2").createWidget(1, 2, 1, 3, 4);
+
+        // when
+        final SnapshotDTO actual = subject.snapshot();
+
+        // then
+        assertThat(actual.getVersion()).isEqualTo(2L);
+        assertThat(actual.getBoards()).containsOnlyKeys(BoardService.DEFAULT_BOARD_ID, "board-1", "board-2");
+        assertThat(actual.getBoards().get("board-1").getVersion()).isEqualTo(2L);
+        assertThat(actual.getBoards().get("board-1").getWidgets())
+                .extracting(WidgetDTO::getId)
+                .containsExactly(widget.getId());
+    }
+
+    @Test
+    @DisplayName("a compaction is appended as a single renumbering with its spacing")
+    void findAfter_shouldReturnRenumbering_whenBoardIsCompacted() {
+        // given
+        boardService.forBoard("board-1").createWidget(1, 2, 5, 3, 4);
+
+        // when
+        boardService.forBoard("board-1").compactZIndexes(1024);
+
+        // then
+        final List<MutationDTO> actual = subject.findAfter(1, 10).orElseThrow();
+        assertThat(actual).extracting(MutationDTO::getType).containsExactly(MutationDTO.Type.RENUMBERED);
+        assertThat(actual.get(0).getSpacing()).isEqualTo(1024);
+    }
+
+}
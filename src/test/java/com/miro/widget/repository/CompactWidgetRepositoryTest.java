@@ -0,0 +1,17 @@
+package com.miro.widget.repository;
+
+import org.junit.jupiter.api.DisplayName;
+
+/**
+ * Runs the repository contract of {@link InMemoryWidgetRepositoryTest} against the compact mode.
+ */
+
+@DisplayName("Compact Widget Repository Test")
+class CompactWidgetRepositoryTest extends InMemoryWidgetRepositoryTest {
+
+    @Override
+    WidgetRepository createRepository() {
+        return new CompactWidgetRepository();
+    }
+
+}
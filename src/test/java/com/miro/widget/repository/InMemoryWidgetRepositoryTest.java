@@ -1,11 +1,17 @@
 package com.miro.widget.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.assertj.core.api.SoftAssertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,13 +19,18 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import com.miro.widget.model.Widget;
+import com.miro.widget.model.ZIndexShift;
 import com.miro.widget.fixture.WidgetFixture;
 import com.miro.widget.util.Page;
 
 @DisplayName("In Memory Widget Repository Test")
 class InMemoryWidgetRepositoryTest {
 
-    private final WidgetRepository subject = new InMemoryWidgetRepository();
+    private final WidgetRepository subject = createRepository();
+
+    WidgetRepository createRepository() {
+        return new InMemoryWidgetRepository();
+    }
 
     @BeforeEach
     void setUp() {
@@ -92,6 +103,24 @@ class InMemoryWidgetRepositoryTest {
         assertThat(actual).isNotEmpty().containsExactlyInAnyOrder(widget1, widget2);
     }
 
+    @Test
+    @DisplayName("findAllOrderedByZIndex orders large boards with the parallel sort")
+    void findAllOrderedByZIndex_shouldReturnsZIndexOrderedWidgets_whenBoardIsAboveParallelThreshold() {
+        // given
+        final List<Widget> widgets = IntStream.range(0, InMemoryWidgetRepository.PARALLEL_SORT_THRESHOLD + 1)
+                .mapToObj(WidgetFixture::create)
+                .collect(Collectors.toList());
+        Collections.shuffle(widgets, new Random(1));
+        subject.saveAll(widgets);
+
+        // when
+        final List<Widget> actual = subject.findAllOrderedByZIndex();
+
+        // then
+        assertThat(actual).hasSize(widgets.size());
+        assertThat(actual).extracting(Widget::getZIndex).isSorted();
+    }
+
     @Test
     @DisplayName("findByZIndex returns empty when there is no widget with the given zIndex stored")
     void findByZIndex_shouldReturnsEmpty_whenNoWidgetWithGivenZIndexIsStored() {
@@ -121,6 +150,73 @@ class InMemoryWidgetRepositoryTest {
         assertThat(actual).isNotEmpty().hasValue(widget);
     }
 
+    @Test
+    @DisplayName("findByZIndexRange returns the widgets in the range ordered by zIndex")
+    void findByZIndexRange_shouldReturnsZIndexOrderedWidgetsInRange() {
+        // given
+        final var widget1 = WidgetFixture.create(1);
+        final var widget2 = WidgetFixture.create(3);
+        final var widget3 = WidgetFixture.create(4);
+        subject.saveAll(Set.of(WidgetFixture.create(0), widget3, widget1, widget2, WidgetFixture.create(5)));
+
+        // when
+        final List<Widget> actual = subject.findByZIndexRange(1, 4);
+
+        // then
+        assertThat(actual).containsExactly(widget1, widget2, widget3);
+    }
+
+    @Test
+    @DisplayName("findByZIndexRange throws an exception when from is greater than to")
+    void findByZIndexRange_shouldThrowException_whenFromIsGreaterThanTo() {
+        // when - then
+        assertThrows(IllegalArgumentException.class, () -> subject.findByZIndexRange(4, 1));
+    }
+
+    @Test
+    @DisplayName("findFirstAbove returns the widget with the next greater zIndex")
+    void findFirstAbove_shouldReturnsUpperNeighbour() {
+        // given
+        final var widget = WidgetFixture.create(1024);
+        subject.saveAll(Set.of(WidgetFixture.create(0), widget));
+
+        // when - then
+        assertThat(subject.findFirstAbove(0)).hasValue(widget);
+        assertThat(subject.findFirstAbove(1024)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("findTopmostAt returns the widget with the highest zIndex among the ones containing the point")
+    void findTopmostAt_shouldReturnsTopmostWidgetContainingThePoint() {
+        // given
+        final var bottom = WidgetFixture.create(1).toBuilder().setCoordinateX(0).setCoordinateY(0).build();
+        final var top = WidgetFixture.create(2).toBuilder().setCoordinateX(300).setCoordinateY(300).build();
+        final var huge = WidgetFixture.create(0).toBuilder()
+                .setCoordinateX(-100_000).setCoordinateY(-100_000).setWidth(200_000).setHeight(200_000).build();
+        subject.saveAll(Set.of(bottom, top, huge));
+        subject.saveAll(Set.of(bottom.toBuilder().setWidth(500).setHeight(500).build()));
+
+        // when - then
+        assertThat(subject.findTopmostAt(302, 304)).hasValue(top);
+        assertThat(subject.findTopmostAt(500, 500)).hasValue(bottom);
+        assertThat(subject.findTopmostAt(600, 600)).hasValue(huge);
+        assertThat(subject.findTopmostAt(100_001, 0)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("findTopmostAt does not return a deleted widget")
+    void findTopmostAt_shouldReturnsEmpty_whenWidgetIsDeleted() {
+        // given
+        final var widget = WidgetFixture.create();
+        subject.saveAll(Set.of(widget));
+
+        // when
+        subject.delete(widget.getId());
+
+        // then
+        assertThat(subject.findTopmostAt(widget.getCoordinateX(), widget.getCoordinateY())).isEmpty();
+    }
+
     @Test
     @DisplayName("findNextZIndex returns the zero when there is not widget stored")
     void findNextZIndex_shouldReturnsZero_whenNoWidgetIsStored() {
@@ -194,6 +290,185 @@ class InMemoryWidgetRepositoryTest {
         assertSavedWidget(actual.get(1), widget);
     }
 
+    @Test
+    @DisplayName("saveAll releases the previous z-index of a saved widget unless another widget took it")
+    void saveAll_shouldReleasePreviousZIndex_whenItIsStillOwned() {
+        // given
+        final var widget1 = WidgetFixture.create(1);
+        final var widget2 = WidgetFixture.create(2);
+        final var widget3 = WidgetFixture.create(3);
+        subject.saveAll(Set.of(widget1, widget2, widget3));
+
+        final var swapped1 = widget1.toBuilder().setZIndex(3).build();
+        final var swapped3 = widget3.toBuilder().setZIndex(1).build();
+
+        // when
+        subject.saveAll(Set.of(swapped1, swapped3));
+        // widget2 is shifted into the z-index of widget1, which is then placed below it
+        subject.shift(ZIndexShift.of(2, 2));
+        subject.saveAll(Set.of(swapped1.toBuilder().setZIndex(2).build()));
+
+        // then
+        assertThat(subject.findByZIndex(1)).hasValue(widget3);
+        assertThat(subject.findByZIndex(2)).hasValue(widget1);
+        assertThat(subject.findByZIndex(3)).hasValue(widget2);
+        assertThat(subject.findByZIndexRange(0, 10)).containsExactly(widget3, widget1, widget2);
+    }
+
+    @Test
+    @DisplayName("compareAndSave replaces the widget and its z-index when the stored one is the expected version")
+    void compareAndSave_shouldReplaceWidget_whenStoredVersionIsExpected() {
+        // given
+        final var widget1 = WidgetFixture.create(1);
+        final var widget2 = WidgetFixture.create(2);
+        subject.saveAll(Set.of(widget1, widget2));
+
+        final var widget = widget2.toBuilder().setZIndex(4).build();
+
+        // when
+        final boolean actual = subject.compareAndSave(widget, widget2.getVersion());
+
+        // then
+        assertThat(actual).isTrue();
+        assertThat(subject.findById(widget2.getId())).hasValueSatisfying(w -> assertThat(w.getVersion()).isEqualTo(widget.getVersion()));
+        assertThat(subject.findByZIndex(2)).isEmpty();
+        assertThat(subject.findByZIndex(4)).hasValue(widget);
+        assertThat(subject.findNextZIndex()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("compareAndSave keeps the hit-test up to date when the widget moves within its cell or to another one")
+    void compareAndSave_shouldUpdateHitTest_whenWidgetIsMoved() {
+        // given
+        final var widget = WidgetFixture.create(1);
+        subject.saveAll(Set.of(widget));
+        final var dragged = widget.toBuilder().setCoordinateX(10).build();
+        final var moved = dragged.toBuilder().setCoordinateX(1000).build();
+
+        // when
+        final boolean draggedSaved = subject.compareAndSave(dragged, widget.getVersion());
+        final boolean movedSaved = subject.compareAndSave(moved, dragged.getVersion());
+
+        // then
+        assertThat(draggedSaved).isTrue();
+        assertThat(movedSaved).isTrue();
+        assertThat(subject.findTopmostAt(12, 4)).isEmpty();
+        assertThat(subject.findTopmostAt(1002, 4)).hasValueSatisfying(w -> assertThat(w.getVersion()).isEqualTo(moved.getVersion()));
+        assertThat(subject.findByZIndex(1)).hasValue(moved);
+    }
+
+    @Test
+    @DisplayName("compareAndSave stores nothing when the widget was replaced by another version or deleted")
+    void compareAndSave_shouldNotReplaceWidget_whenStoredVersionIsNotExpected() {
+        // given
+        final var widget = WidgetFixture.create(1);
+        final var stored = widget.toBuilder().setWidth(20).build();
+        subject.saveAll(Set.of(stored));
+
+        final var update = widget.toBuilder().setHeight(30).build();
+
+        // when
+        final boolean replaced = subject.compareAndSave(update, widget.getVersion());
+        subject.delete(widget.getId());
+        final boolean deleted = subject.compareAndSave(stored.toBuilder().build(), stored.getVersion());
+
+        // then
+        assertThat(replaced).isFalse();
+        assertThat(deleted).isFalse();
+        assertThat(subject.findById(widget.getId())).isEmpty();
+        assertThat(subject.findByZIndex(1)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("shift increments the zIndex of the widgets in the range keeping the others")
+    void shift_shouldIncrementZIndexOfWidgetsInRange() {
+        // given
+        final var widget1 = WidgetFixture.create(1);
+        final var widget2 = WidgetFixture.create(2);
+        final var widget3 = WidgetFixture.create(3);
+        final var widget5 = WidgetFixture.create(5);
+        subject.saveAll(Set.of(widget1, widget2, widget3, widget5));
+
+        // when
+        subject.shift(ZIndexShift.of(2, 3));
+
+        // then
+        assertThat(subject.findById(widget1.getId())).hasValueSatisfying(w -> assertThat(w.getZIndex()).isEqualTo(1));
+        assertThat(subject.findById(widget2.getId())).hasValueSatisfying(w -> assertThat(w.getZIndex()).isEqualTo(3));
+        assertThat(subject.findById(widget3.getId())).hasValueSatisfying(w -> assertThat(w.getZIndex()).isEqualTo(4));
+        assertThat(subject.findByZIndex(2)).isEmpty();
+        assertThat(subject.findByZIndex(4)).hasValue(widget3);
+        assertThat(subject.findByZIndex(5)).hasValue(widget5);
+        assertThat(subject.findNextZIndex()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("loadAll stores the widgets as they are and moves the next z-index after them")
+    void loadAll_shouldStoreWidgets_whenTheyAreNew() {
+        // given
+        final var widget1 = WidgetFixture.create(3);
+        final var widget2 = WidgetFixture.create(7);
+
+        // when
+        subject.loadAll(List.of(widget1, widget2));
+
+        // then
+        assertThat(subject.findAllOrderedByZIndex()).containsExactly(widget1, widget2);
+        assertThat(subject.findByZIndex(7)).hasValue(widget2);
+        assertThat(subject.findNextZIndex()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("loadAll stores nothing when a z-index is already taken")
+    void loadAll_shouldThrowException_whenZIndexIsTaken() {
+        // given
+        final var stored = WidgetFixture.create(3);
+        subject.saveAll(Set.of(stored));
+        final var widgets = List.of(WidgetFixture.create(2), WidgetFixture.create(3));
+
+        // when - then
+        assertThrows(IllegalArgumentException.class, () -> subject.loadAll(widgets));
+        assertThat(subject.findAllOrderedByZIndex()).containsExactly(stored);
+    }
+
+    @Test
+    @DisplayName("renumber spaces the widgets keeping their order and counts the moved ones")
+    void renumber_shouldSpaceZIndexesInOrder() {
+        // given
+        final var widget1 = WidgetFixture.create(-3);
+        final var widget2 = WidgetFixture.create(1024);
+        final var widget3 = WidgetFixture.create(5000);
+        subject.saveAll(Set.of(widget1, widget2, widget3));
+
+        // when
+        final int actual = subject.renumber(1024);
+
+        // then
+        assertThat(actual).isEqualTo(2);
+        assertThat(subject.findAllOrderedByZIndex())
+                .extracting(Widget::getId, Widget::getZIndex)
+                .containsExactly(
+                        tuple(widget1.getId(), 0),
+                        tuple(widget2.getId(), 1024),
+                        tuple(widget3.getId(), 2048)
+                );
+        assertThat(subject.findByZIndex(2048)).hasValue(widget3);
+        assertThat(subject.findByZIndex(5000)).isEmpty();
+        assertThat(subject.findNextZIndex()).isEqualTo(3072);
+    }
+
+    @Test
+    @DisplayName("renumber throws an exception when the spaced z-indexes do not fit")
+    void renumber_shouldThrowException_whenSpacingIsTooLarge() {
+        // given
+        subject.saveAll(Set.of(WidgetFixture.create(0), WidgetFixture.create(1), WidgetFixture.create(2)));
+
+        // when - then
+        assertThrows(IllegalArgumentException.class, () -> subject.renumber(Integer.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> subject.renumber(0));
+        assertThat(subject.findByZIndex(2)).isPresent();
+    }
+
     @Test
     @DisplayName("delete should remove match id from storage")
     void delete_shouldDeleteWidget_whenIdMatches() {
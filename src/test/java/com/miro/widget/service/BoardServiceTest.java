@@ -0,0 +1,108 @@
+package com.miro.widget.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.miro.widget.model.Widget;
+
+@DisplayName("Board Service Test")
+class BoardServiceTest {
+
+    private final WidgetService defaultBoardServiceMock = mock(WidgetService.class);
+
+    private final BoardService subject = new BoardService(defaultBoardServiceMock);
+
+    @Test
+    @DisplayName("forBoard returns the application widget service for the default board")
+    void forBoard_shouldReturnDefaultService_whenDefaultBoardIsRequested() {
+        // when
+        final WidgetService actual = subject.forBoard(BoardService.DEFAULT_BOARD_ID);
+
+        // then
+        assertThat(actual).isSameAs(defaultBoardServiceMock);
+    }
+
+    @Test
+    @DisplayName("forBoard creates the board on first use and returns the same service afterwards")
+    void forBoard_shouldCreateBoardOnce_whenBoardIsRequestedTwice() {
+        // when
+        final WidgetService first = subject.forBoard("board-1");
+        final WidgetService second = subject.forBoard("board-1");
+
+        // then
+        assertThat(first).isSameAs(second);
+        assertThat(subject.findAllBoardIds()).containsExactlyInAnyOrder(BoardService.DEFAULT_BOARD_ID, "board-1");
+    }
+
+    @Test
+    @DisplayName("boards have independent z-index spaces")
+    void forBoard_shouldKeepZIndexSpacesApart_whenWidgetsAreCreatedInDifferentBoards() {
+        // given
+        final Widget widget1 = subject.forBoard("board-1").createWidget(1, 2, 1, 3, 4);
+
+        // when
+        final Widget widget2 = subject.forBoard("board-2").createWidget(1, 2, 1, 3, 4);
+
+        // then
+        assertThat(subject.forBoard("board-1").findById(widget1.getId()))
+                .hasValueSatisfying(w -> assertThat(w.getZIndex()).isEqualTo(1));
+        assertThat(subject.forBoard("board-1").findById(widget2.getId())).isEmpty();
+        assertThat(subject.forBoard("board-2").findAllOrderByZIndex()).containsExactly(widget2);
+    }
+
+    @Test
+    @DisplayName("forBoard does not create a board owned by another node but returns the existing ones")
+    void forBoard_shouldThrow_whenBoardIsNotLocal() {
+        // given
+        final WidgetService existing = subject.forBoard("board-1");
+        subject.setLocalBoards(boardId -> false);
+
+        // when - then
+        assertThrows(WidgetService.BoardMovedException.class, () -> subject.forBoard("board-2"));
+        assertThat(subject.forBoard("board-1")).isSameAs(existing);
+        assertThat(subject.findBoard("board-2")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("board listeners are called with the existing boards and with the boards created later")
+    void addBoardListener_shouldCallListener_whenBoardsExistOrAreCreated() {
+        // given
+        final List<String> actual = new ArrayList<>();
+
+        // when
+        subject.addBoardListener((boardId, widgetService) -> actual.add(boardId));
+        subject.forBoard("board-1");
+        subject.forBoard("board-1");
+
+        // then
+        assertThat(actual).containsExactly(BoardService.DEFAULT_BOARD_ID, "board-1");
+    }
+
+    @Test
+    @DisplayName("findBoard returns empty and does not create the board when it is unknown")
+    void findBoard_shouldReturnEmpty_whenBoardIsUnknown() {
+        // when - then
+        assertThat(subject.findBoard("unknown")).isEmpty();
+        assertThat(subject.findAllBoardIds()).containsExactly(BoardService.DEFAULT_BOARD_ID);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "board/1", "board 1", "0123456789012345678901234567890123456789012345678901234567890123456789"})
+    @DisplayName("board ids outside the allowed format are rejected")
+    void forBoard_shouldThrowException_whenBoardIdIsInvalid(final String boardId) {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> subject.forBoard(boardId)
+        );
+    }
+
+}
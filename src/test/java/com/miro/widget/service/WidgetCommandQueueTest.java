@@ -0,0 +1,146 @@
+package com.miro.widget.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.miro.widget.model.Widget;
+import com.miro.widget.repository.InMemoryWidgetRepository;
+
+@DisplayName("Widget Command Queue Test")
+class WidgetCommandQueueTest {
+
+    private final BoardService boardService = new BoardService(new WidgetService(new InMemoryWidgetRepository()));
+
+    private final WidgetCommandQueue subject = new WidgetCommandQueue(boardService, 2, 10, Duration.ofMinutes(1));
+
+    @AfterEach
+    void tearDown() {
+        subject.stop();
+    }
+
+    @Test
+    @DisplayName("queued commands are executed in order by the background writer")
+    void submit_shouldExecuteCommandsInOrder_whenWriterIsStarted() throws Exception {
+        // given
+        subject.start();
+        final WidgetCommand create = subject.submit(WidgetCommand.create("board-1", 1, 2, 3, 4, 5));
+        final Widget created = create.getResult().toCompletableFuture().get(1, TimeUnit.MINUTES);
+
+        // when
+        final WidgetCommand update = subject.submit(
+                WidgetCommand.update("board-1", created.getId(), created.getVersion(), 10, null, 3, null, null)
+        );
+        final Widget updated = update.getResult().toCompletableFuture().get(1, TimeUnit.MINUTES);
+
+        // then
+        assertThat(create.getStatus()).isEqualTo(WidgetCommand.Status.COMPLETED);
+        assertThat(update.getStatus()).isEqualTo(WidgetCommand.Status.COMPLETED);
+        assertThat(updated.getCoordinateX()).isEqualTo(10);
+        assertThat(updated.getZIndex()).isEqualTo(3);
+        assertThat(subject.findById(update.getId())).hasValue(update);
+        assertThat(boardService.forBoard("board-1").findById(created.getId())).hasValue(updated);
+    }
+
+    @Test
+    @DisplayName("a batch executes the commands of a board in order and a failed command does not stop the others")
+    void execute_shouldCompleteEveryCommand_whenOneOfThemFails() {
+        // given
+        final WidgetCommand first = WidgetCommand.create("board-1", 1, 2, 1, 4, 5);
+        final WidgetCommand missing = WidgetCommand.update("board-1", UUID.randomUUID(), null, 1, 2, 3, 4, 5);
+        final WidgetCommand shifting = WidgetCommand.create("board-1", 1, 2, 1, 4, 5);
+
+        // when
+        subject.execute(List.of(first, missing, shifting));
+
+        // then
+        assertThat(missing.getStatus()).isEqualTo(WidgetCommand.Status.FAILED);
+        assertThat(missing.getFailure()).hasValueSatisfying(failure -> assertThat(failure).contains("not found"));
+        assertThat(boardService.forBoard("board-1").findAllOrderByZIndex())
+                .extracting(Widget::getId, Widget::getZIndex)
+                .containsExactly(
+                        tuple(shifting.getWidget().orElseThrow().getId(), 1),
+                        tuple(first.getWidget().orElseThrow().getId(), 2)
+                );
+    }
+
+    @Test
+    @DisplayName("updates of a board that does not exist fail without creating it")
+    void execute_shouldFailUpdates_whenBoardDoesNotExist() {
+        // given
+        final WidgetCommand update = WidgetCommand.update("board-2", UUID.randomUUID(), null, 1, 2, 3, 4, 5);
+
+        // when
+        subject.execute(List.of(update));
+
+        // then
+        assertThat(update.getStatus()).isEqualTo(WidgetCommand.Status.FAILED);
+        assertThat(boardService.findBoard("board-2")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("the writer fails the commands of a batch that throws an error and goes on with the next batches")
+    void submit_shouldExecuteNextBatches_whenBatchThrowsError() throws Exception {
+        // given
+        final BoardService boardServiceMock = mock(BoardService.class);
+        when(boardServiceMock.forBoard("board-1"))
+                .thenThrow(new StackOverflowError("batch"))
+                .thenReturn(boardService.forBoard("board-1"));
+        final WidgetCommandQueue queue = new WidgetCommandQueue(boardServiceMock, 2, 10, Duration.ofMinutes(1));
+        queue.start();
+
+        try {
+            // when
+            final WidgetCommand failed = queue.submit(WidgetCommand.create("board-1", 1, 2, 3, 4, 5));
+            final ExecutionException exception = assertThrows(
+                    ExecutionException.class,
+                    () -> failed.getResult().toCompletableFuture().get(1, TimeUnit.MINUTES)
+            );
+            final WidgetCommand next = queue.submit(WidgetCommand.create("board-1", 1, 2, 3, 4, 5));
+            final Widget created = next.getResult().toCompletableFuture().get(1, TimeUnit.MINUTES);
+
+            // then
+            assertThat(exception).hasRootCauseInstanceOf(StackOverflowError.class);
+            assertThat(failed.getStatus()).isEqualTo(WidgetCommand.Status.FAILED);
+            assertThat(boardService.forBoard("board-1").findById(created.getId())).hasValue(created);
+        } finally {
+            queue.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("submit throws an exception when the queue is full")
+    void submit_shouldThrowException_whenQueueIsFull() {
+        // given
+        subject.submit(WidgetCommand.create("board-1", 1, 2, 3, 4, 5));
+        subject.submit(WidgetCommand.create("board-1", 1, 2, 3, 4, 5));
+        final WidgetCommand rejected = WidgetCommand.create("board-1", 1, 2, 3, 4, 5);
+
+        // when - then
+        assertThrows(WidgetCommandQueue.QueueFullException.class, () -> subject.submit(rejected));
+        assertThat(subject.findById(rejected.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("submit throws an exception when the board id is not valid")
+    void submit_shouldThrowException_whenBoardIdIsNotValid() {
+        // given
+        final WidgetCommand command = WidgetCommand.create("board/1", 1, 2, 3, 4, 5);
+
+        // when - then
+        assertThrows(IllegalArgumentException.class, () -> subject.submit(command));
+    }
+
+}
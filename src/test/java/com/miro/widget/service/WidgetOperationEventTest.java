@@ -0,0 +1,110 @@
+package com.miro.widget.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.miro.widget.model.Widget;
+import com.miro.widget.repository.InMemoryWidgetRepository;
+import com.miro.widget.util.Page;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+@DisplayName("Widget Flight Recorder Events Test")
+class WidgetOperationEventTest {
+
+    private final WidgetService subject = new WidgetService(new InMemoryWidgetRepository());
+
+    private Recording recording;
+
+    @BeforeEach
+    void setUp() {
+        recording = new Recording();
+        recording.enable("com.miro.widget.Operation").withoutThreshold();
+        recording.enable("com.miro.widget.Shift").withoutThreshold();
+        recording.enable("com.miro.widget.Listing").withoutThreshold();
+        recording.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        recording.close();
+    }
+
+    @Test
+    @DisplayName("writes emit an operation event with the z-index, the shift length and the board size")
+    void createWidget_shouldEmitOperationEvents_whenRecordingIsEnabled() throws IOException {
+        // given
+        subject.createWidget(1, 2, 1, 3, 4);
+
+        // when
+        final Widget widget = subject.createWidget(1, 2, 1, 3, 4);
+        subject.deleteWidget(widget.getId());
+
+        // then
+        final List<RecordedEvent> recorded = stopRecording();
+        final List<RecordedEvent> operations = named(recorded, "com.miro.widget.Operation");
+        final SoftAssertions softly = new SoftAssertions();
+        softly.assertThat(operations).extracting(e -> e.getString("operation"))
+                .containsExactly("create", "create", "delete");
+        softly.assertThat(operations.get(1).getString("widgetId")).isEqualTo(widget.getId().toString());
+        softly.assertThat(operations.get(1).getInt("zIndex")).isEqualTo(1);
+        softly.assertThat(operations.get(1).getInt("shiftLength")).isEqualTo(1);
+        softly.assertThat(operations.get(1).getInt("widgets")).isEqualTo(2);
+        softly.assertThat(operations.get(2).getInt("zIndex")).isEqualTo(1);
+        softly.assertThat(operations.get(2).getInt("widgets")).isEqualTo(1);
+        softly.assertThat(named(recorded, "com.miro.widget.Shift")).extracting(e -> e.getInt("length"))
+                .containsExactly(0, 1);
+        softly.assertAll();
+    }
+
+    @Test
+    @DisplayName("ordered listings emit a listing event with the board size and the returned widgets")
+    void findAllOrderByZIndex_shouldEmitListingEvents_whenRecordingIsEnabled() throws IOException {
+        // given
+        subject.createWidget(1, 2, 1, 3, 4);
+        subject.createWidget(1, 2, 2, 3, 4);
+
+        // when
+        subject.findAllOrderByZIndex();
+        subject.findAllOrderByZIndex(Page.from(0, 1));
+
+        // then
+        final List<RecordedEvent> listings = named(stopRecording(), "com.miro.widget.Listing");
+        assertThat(listings).extracting(e -> e.getInt("page")).containsExactly(-1, 0);
+        assertThat(listings).extracting(e -> e.getInt("widgets")).containsExactly(2, 2);
+        assertThat(listings).extracting(e -> e.getInt("returned")).containsExactly(2, 1);
+    }
+
+    private List<RecordedEvent> stopRecording() throws IOException {
+        recording.stop();
+        final Path file = Files.createTempFile("widget", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static List<RecordedEvent> named(final List<RecordedEvent> events, final String name) {
+        return events.stream()
+                .filter(e -> e.getEventType().getName().equals(name))
+                .sorted(Comparator.comparing(RecordedEvent::getStartTime))
+                .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,226 @@
+package com.miro.widget.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.miro.widget.concurrency.BoardModel;
+import com.miro.widget.concurrency.LinearizabilityChecker;
+import com.miro.widget.fixture.WidgetFixture;
+import com.miro.widget.model.Widget;
+import com.miro.widget.repository.InMemoryWidgetRepository;
+
+/**
+ * Runs concurrent writes (geometry updates without the board write lock among them) and reads
+ *  against a WidgetService over an InMemoryWidgetRepository. The stress test checks that the
+ *  z-index stays unique between writes and that both repository collections agree after them,
+ *  the linearizability test checks short histories against {@link BoardModel}.
+ *
+ * The writes and {@link WidgetService#snapshot} are the linearizable operations. Point reads and
+ *  listings do not wait for the board write lock, so they may observe a write in progress (e.g.
+ *  Widgets shifted and the placed one not saved yet) and are not checked here.
+ */
+
+@DisplayName("Widget Service Concurrency Test")
+class WidgetServiceConcurrencyTest {
+
+    private static final int THREADS = 4;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("concurrent writes keep the z-index unique and both repository collections in agreement")
+    void concurrentWrites_shouldKeepZIndexUnique() throws Exception {
+        // given
+        final WidgetService subject = new WidgetService(new InMemoryWidgetRepository());
+        final List<UUID> ids = Collections.synchronizedList(new ArrayList<>());
+        IntStream.range(0, 50).forEach(z -> ids.add(subject.createWidget(1, 2, z * 2, 3, 4).getId()));
+
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final Future<List<String>> reader = executor.submit(() -> {
+            final List<String> violations = new ArrayList<>();
+            while (writing.get()) {
+                final List<Map.Entry<UUID, Integer>> widgets = snapshot(subject);
+                final long zIndexes = widgets.stream().map(Map.Entry::getValue).distinct().count();
+                if (zIndexes != widgets.size()) {
+                    violations.add(widgets.size() - zIndexes + " repeated z-indexes in " + widgets);
+                }
+            }
+            return violations;
+        });
+
+        // when
+        final List<Future<?>> writers = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            writers.add(executor.submit(() -> IntStream.range(0, 2_000).forEach(i -> write(subject, ids))));
+        }
+        for (final Future<?> writer : writers) {
+            writer.get(1, TimeUnit.MINUTES);
+        }
+        writing.set(false);
+
+        // then
+        assertThat(reader.get(1, TimeUnit.MINUTES)).isEmpty();
+
+        final List<Widget> widgets = subject.findAllOrderByZIndex();
+        assertThat(widgets).extracting(Widget::getZIndex).doesNotHaveDuplicates().isSorted();
+        assertThat(subject.findByZIndexRange(Integer.MIN_VALUE, Integer.MAX_VALUE)).containsExactlyElementsOf(widgets);
+        assertThat(subject.findTopmostAt(1, 2)).hasValue(widgets.get(widgets.size() - 1));
+        widgets.forEach(widget -> assertThat(subject.findById(widget.getId())).hasValue(widget));
+    }
+
+    private static void write(final WidgetService subject, final List<UUID> ids) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final UUID id = ids.get(random.nextInt(ids.size()));
+        final Integer zIndex = random.nextInt(10) == 0 ? null : random.nextInt(120);
+        try {
+            switch (random.nextInt(11)) {
+                case 0:
+                case 1:
+                case 2:
+                    ids.add(subject.createWidget(1, 2, zIndex, 3, 4).getId());
+                    break;
+                case 3:
+                case 4:
+                case 5:
+                    subject.updateWidget(id, null, null, zIndex, null, null);
+                    break;
+                case 6:
+                case 7:
+                    subject.moveWidgetAbove(id, ids.get(random.nextInt(ids.size())));
+                    break;
+                case 8:
+                    subject.deleteWidget(id);
+                    break;
+                case 9:
+                    subject.updateGeometry(id, null, random.nextInt(1024), random.nextInt(1024), 1 + random.nextInt(512), null);
+                    break;
+                default:
+                    if (random.nextInt(20) == 0) {
+                        subject.compactZIndexes(1 + random.nextInt(3));
+                    }
+            }
+        } catch (final WidgetService.WidgetNotFoundException | IllegalArgumentException e) {
+            // the Widget was deleted by another writer, or it was moved above itself
+        }
+    }
+
+    @Test
+    @DisplayName("concurrent creations, updates, deletions and snapshots are linearizable")
+    void concurrentHistories_shouldBeLinearizable() throws Exception {
+        for (int round = 0; round < 300; round++) {
+            // given
+            final List<Widget> seed = IntStream.range(0, 3).mapToObj(WidgetFixture::create).collect(Collectors.toList());
+            final WidgetService subject = new WidgetService(new InMemoryWidgetRepository());
+            subject.importWidgets(seed);
+            final LinearizabilityChecker<BoardModel> checker = new LinearizabilityChecker<>(BoardModel::copy);
+            final List<UUID> ids = seed.stream().map(Widget::getId).collect(Collectors.toList());
+
+            // when
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<?>> threads = new ArrayList<>();
+            for (int thread = 0; thread < 3; thread++) {
+                threads.add(executor.submit(() -> {
+                    start.await();
+                    for (int call = 0; call < 3; call++) {
+                        call(subject, checker, ids);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (final Future<?> thread : threads) {
+                thread.get(1, TimeUnit.MINUTES);
+            }
+            record(checker, "final snapshot", () -> snapshot(subject), BoardModel::snapshot);
+
+            // then
+            assertThat(checker.isLinearizable(BoardModel.of(seed)))
+                    .as("history is not linearizable:%n%s", checker)
+                    .isTrue();
+        }
+    }
+
+    private static void call(
+            final WidgetService subject,
+            final LinearizabilityChecker<BoardModel> checker,
+            final List<UUID> ids
+    ) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final UUID id = ids.get(random.nextInt(ids.size()));
+        final Integer zIndex = random.nextInt(5) == 0 ? null : random.nextInt(4);
+        switch (random.nextInt(4)) {
+            case 0: {
+                final long invoked = System.nanoTime();
+                final Widget widget = subject.createWidget(1, 2, zIndex, 3, 4);
+                final long returned = System.nanoTime();
+                checker.record(
+                        "create z=" + zIndex, invoked, returned, widget.getZIndex(),
+                        model -> model.create(widget.getId(), zIndex)
+                );
+                break;
+            }
+            case 1:
+                record(checker, "update " + id + " z=" + zIndex, () -> {
+                    try {
+                        return subject.updateWidget(id, null, null, zIndex, null, null).getZIndex();
+                    } catch (final WidgetService.WidgetNotFoundException e) {
+                        return BoardModel.NOT_FOUND;
+                    }
+                }, model -> model.update(id, zIndex));
+                break;
+            case 2:
+                record(checker, "delete " + id, () -> {
+                    subject.deleteWidget(id);
+                    return null;
+                }, model -> model.delete(id));
+                break;
+            default:
+                record(checker, "snapshot", () -> snapshot(subject), BoardModel::snapshot);
+        }
+    }
+
+    private static void record(
+            final LinearizabilityChecker<BoardModel> checker,
+            final String description,
+            final Supplier<Object> call,
+            final Function<BoardModel, Object> model
+    ) {
+        final long invoked = System.nanoTime();
+        final Object result = call.get();
+        final long returned = System.nanoTime();
+        checker.record(description, invoked, returned, result, model);
+    }
+
+    private static List<Map.Entry<UUID, Integer>> snapshot(final WidgetService subject) {
+        return subject.snapshot(widgets -> widgets.stream()
+                .map(widget -> new AbstractMap.SimpleImmutableEntry<>(widget.getId(), widget.getZIndex()))
+                .collect(Collectors.toList()));
+    }
+
+}
@@ -2,24 +2,37 @@ package com.miro.widget.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 
 import com.miro.widget.fixture.WidgetFixture;
 import com.miro.widget.model.Widget;
+import com.miro.widget.model.ZIndexShift;
 import com.miro.widget.repository.WidgetRepository;
 import com.miro.widget.util.Page;
 
@@ -30,6 +43,11 @@ class WidgetServiceTest {
 
     private final WidgetService subject = new WidgetService(widgetRepositoryMock);
 
+    @BeforeEach
+    void setup() {
+        when(widgetRepositoryMock.compareAndSave(any(), anyLong())).thenReturn(true);
+    }
+
     @Test
     @DisplayName("createWidget saves a new widget in the empty repository there is not need to shift widgets")
     void createWidget_shouldSaveOnlyNewWidget_whenRepositoryIsEmpty() {
@@ -103,13 +121,13 @@ class WidgetServiceTest {
         final Widget actual = subject.createWidget(coordinateX, coordinateY, zIndex, width, height);
 
         // then
+        verify(widgetRepositoryMock).shift(ZIndexShift.of(zIndex, widget3.getZIndex()));
+
         final ArgumentCaptor<Set<Widget>> widgetArgumentCaptor = ArgumentCaptor.forClass(Set.class);
         verify(widgetRepositoryMock).saveAll(widgetArgumentCaptor.capture());
         final Set<Widget> savedWidgets = widgetArgumentCaptor.getValue();
         assertSaved(savedWidgets, actual, zIndex);
-        assertSaved(savedWidgets, widget2, 3);
-        assertSaved(savedWidgets, widget3, 4);
-        assertThat(savedWidgets).doesNotContain(widget5);
+        assertThat(savedWidgets).hasSize(1);
     }
 
     private void assertSaved(final Set<Widget> savedWidgets, final Widget actual, final int zIndex) {
@@ -153,7 +171,7 @@ class WidgetServiceTest {
         final Widget actual = subject.updateWidget(widgetId, null, null, null, null, null);
 
         // then
-        verify(widgetRepositoryMock).saveAll(anySet());
+        verify(widgetRepositoryMock).compareAndSave(any(), eq(widget.getVersion()));
 
         final SoftAssertions softAssertions = new SoftAssertions();
         softAssertions.assertThat(actual.getId()).isEqualTo(widgetId);
@@ -186,7 +204,7 @@ class WidgetServiceTest {
 
         // then
 
-        verify(widgetRepositoryMock).saveAll(anySet());
+        verify(widgetRepositoryMock).compareAndSave(any(), eq(widget.getVersion()));
         
         final SoftAssertions softAssertions = new SoftAssertions();
         softAssertions.assertThat(actual.getId()).isEqualTo(widgetId);
@@ -201,7 +219,6 @@ class WidgetServiceTest {
 
     @Test
     @DisplayName("createWidget saves a new widget with duplicated zIndex in repository shift widget until find a gap")
-    @SuppressWarnings("unchecked")
     void updateWidget_shouldShiftWidget_whenZIndexIsUpdateToDuplicatedOne() {
         // given
         final var widget1 = WidgetFixture.create(1);
@@ -229,13 +246,297 @@ class WidgetServiceTest {
         );
 
         // then
-        final ArgumentCaptor<Set<Widget>> widgetArgumentCaptor = ArgumentCaptor.forClass(Set.class);
-        verify(widgetRepositoryMock).saveAll(widgetArgumentCaptor.capture());
-        final Set<Widget> savedWidgets = widgetArgumentCaptor.getValue();
-        assertSaved(savedWidgets, widget1, zIndex);
-        assertSaved(savedWidgets, widget2, 3);
-        assertSaved(savedWidgets, widget3, 4);
-        assertThat(savedWidgets).doesNotContain(widget5);
+        verify(widgetRepositoryMock).shift(ZIndexShift.of(zIndex, widget3.getZIndex()));
+
+        final ArgumentCaptor<Widget> widgetArgumentCaptor = ArgumentCaptor.forClass(Widget.class);
+        verify(widgetRepositoryMock).compareAndSave(widgetArgumentCaptor.capture(), eq(widget1.getVersion()));
+        assertSaved(Set.of(widgetArgumentCaptor.getValue()), widget1, zIndex);
+    }
+
+    @Test
+    @DisplayName("updateWidget throws WidgetVersionMismatchException and stores nothing when the widget is another version")
+    void updateWidget_shouldThrowException_whenVersionDoesNotMatch() {
+        // given
+        final var widget = WidgetFixture.create().toBuilder().build();
+        when(widgetRepositoryMock.findById(widget.getId())).thenReturn(Optional.of(widget));
+
+        // when - then
+        assertThrows(
+                WidgetService.WidgetVersionMismatchException.class,
+                () -> subject.updateWidget(widget.getId(), 0L, 10, null, widget.getZIndex(), null, null)
+        );
+        verify(widgetRepositoryMock, never()).compareAndSave(any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("updateWidget applies the changes again over the new version when the widget is replaced meanwhile")
+    void updateWidget_shouldRetryOverNewVersion_whenWidgetIsReplacedBeforeSave() {
+        // given
+        final var widget = WidgetFixture.create();
+        final var resized = widget.toBuilder().setWidth(20).build();
+        when(widgetRepositoryMock.findById(widget.getId()))
+                .thenReturn(Optional.of(widget))
+                .thenReturn(Optional.of(resized));
+        when(widgetRepositoryMock.compareAndSave(any(), eq(widget.getVersion()))).thenReturn(false);
+
+        // when
+        final Widget actual = subject.updateWidget(widget.getId(), 10, null, widget.getZIndex(), null, null);
+
+        // then
+        verify(widgetRepositoryMock).compareAndSave(actual, resized.getVersion());
+        assertThat(actual.getCoordinateX()).isEqualTo(10);
+        assertThat(actual.getWidth()).isEqualTo(20);
+        assertThat(actual.getVersion()).isEqualTo(resized.getVersion() + 1);
+        verify(widgetRepositoryMock, never()).shift(any());
+    }
+
+    @Test
+    @DisplayName("updateGeometry changes position and size keeping the zIndex without shifting")
+    void updateGeometry_shouldKeepZIndex_whenGeometryIsUpdated() {
+        // given
+        final var widget = WidgetFixture.create(7);
+        when(widgetRepositoryMock.findById(widget.getId())).thenReturn(Optional.of(widget));
+
+        // when
+        final Widget actual = subject.updateGeometry(widget.getId(), widget.getVersion(), 10, 20, null, 30);
+
+        // then
+        verify(widgetRepositoryMock).compareAndSave(actual, widget.getVersion());
+        verify(widgetRepositoryMock, never()).shift(any());
+        verify(widgetRepositoryMock, never()).findNextZIndex();
+
+        final SoftAssertions softAssertions = new SoftAssertions();
+        softAssertions.assertThat(actual.getCoordinateX()).isEqualTo(10);
+        softAssertions.assertThat(actual.getCoordinateY()).isEqualTo(20);
+        softAssertions.assertThat(actual.getZIndex()).isEqualTo(7);
+        softAssertions.assertThat(actual.getWidth()).isEqualTo(widget.getWidth());
+        softAssertions.assertThat(actual.getHeight()).isEqualTo(30);
+        softAssertions.assertAll();
+    }
+
+    @Test
+    @DisplayName("updateWidget does not shift the updated widget itself when the run reaches its current zIndex")
+    void updateWidget_shouldStopShiftAtOwnZIndex_whenWidgetMovesBelowItsCurrentPosition() {
+        // given
+        final var widget1 = WidgetFixture.create(1);
+        final var widget2 = WidgetFixture.create(2);
+
+        when(widgetRepositoryMock.findById(widget2.getId())).thenReturn(Optional.of(widget2));
+        when(widgetRepositoryMock.findByZIndex(widget1.getZIndex())).thenReturn(Optional.of(widget1));
+        when(widgetRepositoryMock.findByZIndex(widget2.getZIndex())).thenReturn(Optional.of(widget2));
+
+        // when
+        final Widget actual = subject.updateWidget(widget2.getId(), null, null, widget1.getZIndex(), null, null);
+
+        // then
+        verify(widgetRepositoryMock).shift(ZIndexShift.of(widget1.getZIndex(), widget1.getZIndex()));
+        assertThat(actual.getZIndex()).isEqualTo(widget1.getZIndex());
+    }
+
+    @Test
+    @DisplayName("change listeners receive the shift as a single range followed by the saved widget")
+    void createWidget_shouldNotifyShiftAndSave_whenWidgetsAreShifted() {
+        // given
+        final var zIndex = 2;
+        final var widget2 = WidgetFixture.create(zIndex);
+        when(widgetRepositoryMock.findByZIndex(zIndex)).thenReturn(Optional.of(widget2));
+        when(widgetRepositoryMock.findByZIndex(zIndex + 1)).thenReturn(Optional.empty());
+
+        final WidgetChangeListener listener = mock(WidgetChangeListener.class);
+        subject.addChangeListener(listener);
+
+        // when
+        final Widget actual = subject.createWidget(1, 2, zIndex, 3, 4);
+
+        // then
+        final InOrder inOrder = inOrder(listener);
+        inOrder.verify(listener).onShifted(ZIndexShift.of(zIndex, zIndex));
+        inOrder.verify(listener).onSaved(actual);
+    }
+
+    @Test
+    @DisplayName("change listeners receive the deleted widget id")
+    void deleteWidget_shouldNotifyDeletion() {
+        // given
+        final var widgetId = UUID.randomUUID();
+        final WidgetChangeListener listener = mock(WidgetChangeListener.class);
+        subject.addChangeListener(listener);
+
+        // when
+        subject.deleteWidget(widgetId);
+
+        // then
+        verify(listener).onDeleted(widgetId);
+    }
+
+    @Test
+    @DisplayName("restoreWidgets keeps the widget as it is and shifts the widgets in its way")
+    void restoreWidgets_shouldSaveWidgetAsItIs_whenItIsRestored() {
+        // given
+        final var restored = WidgetFixture.create(1);
+        final var widget1 = WidgetFixture.create(1);
+        when(widgetRepositoryMock.findByZIndex(1)).thenReturn(Optional.of(widget1));
+        when(widgetRepositoryMock.findByZIndex(2)).thenReturn(Optional.empty());
+
+        // when
+        subject.restoreWidgets(List.of(restored));
+
+        // then
+        verify(widgetRepositoryMock).shift(ZIndexShift.of(1, 1));
+        verify(widgetRepositoryMock).saveAll(Set.of(restored));
+    }
+
+    @Test
+    @DisplayName("restoreWidgets skips the widgets the board already holds at the same or a newer version")
+    void restoreWidgets_shouldSkipWidget_whenBoardHoldsANewerVersion() {
+        // given
+        final var held = WidgetFixture.create(1).toBuilder().setVersion(3).build();
+        final var stale = held.toBuilder().setCoordinateX(100).setVersion(2).build();
+        when(widgetRepositoryMock.findById(held.getId())).thenReturn(Optional.of(held));
+
+        // when
+        subject.restoreWidgets(List.of(stale));
+
+        // then
+        verify(widgetRepositoryMock, never()).shift(any());
+        verify(widgetRepositoryMock, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("moveOut closes the board: later writes throw and the sender got the widgets")
+    void moveOut_shouldRejectWrites_whenBoardWasMoved() {
+        // given
+        final var widget = WidgetFixture.create(1);
+        when(widgetRepositoryMock.findAllOrderedByZIndex()).thenReturn(List.of(widget));
+        final List<Widget> sent = new ArrayList<>();
+
+        // when
+        subject.moveOut(sent::addAll);
+
+        // then
+        assertThat(sent).containsExactly(widget);
+        assertThrows(WidgetService.BoardMovedException.class, () -> subject.createWidget(1, 2, 3, 4, 5));
+    }
+
+    @Test
+    @DisplayName("moveOut sends the widgets after releasing the board lock, writes meanwhile throw instead of waiting")
+    void moveOut_shouldNotHoldBoardLock_whenWidgetsAreSent() {
+        // given
+        when(widgetRepositoryMock.findAllOrderedByZIndex()).thenReturn(List.of(WidgetFixture.create(1)));
+
+        // when
+        subject.moveOut(widgets -> {
+            final CompletableFuture<Widget> write = CompletableFuture.supplyAsync(() -> subject.createWidget(1, 2, 3, 4, 5));
+
+            // then
+            final ExecutionException exception = assertThrows(ExecutionException.class, () -> write.get(1, TimeUnit.MINUTES));
+            assertThat(exception).hasCauseInstanceOf(WidgetService.BoardMovedException.class);
+        });
+    }
+
+    @Test
+    @DisplayName("moveOut closes the board to the updates made without the lock before they are stored")
+    void moveOut_shouldRejectLockFreeUpdates_beforeTheyAreStored() {
+        // given
+        final var widget = WidgetFixture.create(1);
+        when(widgetRepositoryMock.findById(widget.getId())).thenReturn(Optional.of(widget));
+        subject.moveOut(widgets -> { });
+
+        // when - then
+        assertThrows(
+                WidgetService.BoardMovedException.class,
+                () -> subject.updateGeometry(widget.getId(), null, 10, null, null, null)
+        );
+        verify(widgetRepositoryMock, never()).compareAndSave(any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("moveOut opens the board again when the sender fails")
+    void moveOut_shouldKeepBoardOpen_whenSenderFails() {
+        // given
+        final var widget = WidgetFixture.create(1);
+        when(widgetRepositoryMock.findAllOrderedByZIndex()).thenReturn(List.of(widget));
+
+        // when
+        assertThrows(IllegalStateException.class, () -> subject.moveOut(widgets -> {
+            throw new IllegalStateException("node down");
+        }));
+
+        // then
+        assertThat(subject.createWidget(1, 2, null, 4, 5)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("replaceAllWidgets deletes the current widgets and saves the given ones as they are")
+    void replaceAllWidgets_shouldReplaceWidgets_whenWidgetsAreGiven() {
+        // given
+        final var current = WidgetFixture.create(1);
+        final var replacement = WidgetFixture.create(1);
+        when(widgetRepositoryMock.findAllOrderedByZIndex()).thenReturn(List.of(current));
+
+        // when
+        subject.replaceAllWidgets(List.of(replacement));
+
+        // then
+        verify(widgetRepositoryMock).delete(current.getId());
+        verify(widgetRepositoryMock).saveAll(Set.of(replacement));
+        verify(widgetRepositoryMock, never()).shift(any());
+    }
+
+    @Test
+    @DisplayName("importWidgets deletes the current widgets and loads the imported ones without shifting")
+    void importWidgets_shouldLoadWidgets_whenWidgetsAreImported() {
+        // given
+        final var current = WidgetFixture.create(1);
+        final var imported = List.of(WidgetFixture.create(1), WidgetFixture.create(2));
+        when(widgetRepositoryMock.findAllOrderedByZIndex()).thenReturn(List.of(current));
+        final var listenerMock = mock(WidgetChangeListener.class);
+        subject.addChangeListener(listenerMock);
+
+        // when
+        final int actual = subject.importWidgets(imported);
+
+        // then
+        assertThat(actual).isEqualTo(2);
+        verify(widgetRepositoryMock).deleteAll();
+        verify(widgetRepositoryMock).loadAll(imported);
+        verify(widgetRepositoryMock, never()).shift(any());
+        verify(widgetRepositoryMock, never()).findByZIndex(anyInt());
+        verify(listenerMock).onDeleted(current.getId());
+        imported.forEach(widget -> verify(listenerMock).onSaved(widget));
+    }
+
+    @Test
+    @DisplayName("importWidgets loads the current widgets back when the imported ones are rejected")
+    void importWidgets_shouldRestoreWidgets_whenLoadIsRejected() {
+        // given
+        final var current = List.of(WidgetFixture.create(1));
+        final var imported = List.of(WidgetFixture.create(1), WidgetFixture.create(1));
+        when(widgetRepositoryMock.findAllOrderedByZIndex()).thenReturn(current);
+        doThrow(new IllegalArgumentException("collides")).when(widgetRepositoryMock).loadAll(imported);
+        final var listenerMock = mock(WidgetChangeListener.class);
+        subject.addChangeListener(listenerMock);
+
+        // when - then
+        assertThrows(IllegalArgumentException.class, () -> subject.importWidgets(imported));
+        verify(widgetRepositoryMock).loadAll(current);
+        verifyNoInteractions(listenerMock);
+    }
+
+    @Test
+    @DisplayName("changeApplier applies shifts as they are and notifies the listeners")
+    void changeApplier_shouldShiftWithoutProbing_whenShiftIsApplied() {
+        // given
+        final var listenerMock = mock(WidgetChangeListener.class);
+        subject.addChangeListener(listenerMock);
+
+        // when
+        subject.changeApplier().onShifted(ZIndexShift.of(2, 5));
+
+        // then
+        verify(widgetRepositoryMock).shift(ZIndexShift.of(2, 5));
+        verify(widgetRepositoryMock, never()).findByZIndex(anyInt());
+        verify(listenerMock).onShifted(ZIndexShift.of(2, 5));
     }
 
     @Test
@@ -297,4 +598,107 @@ class WidgetServiceTest {
         assertThat(actual).hasSize(2).containsExactly(widget1, widget2);
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("findByZIndexRange returns the Widgets in the range based on repository result")
+    void findByZIndexRange_shouldReturnsWidgets_whenWidgetsAreFoundInRepository() {
+        // given
+        final var widget1 = WidgetFixture.create(1);
+        final var widget2 = WidgetFixture.create(2);
+
+        when(widgetRepositoryMock.findByZIndexRange(1, 2)).thenReturn(List.of(widget1, widget2));
+
+        // when
+        final List<Widget> actual = subject.findByZIndexRange(1, 2);
+
+        // then
+        assertThat(actual).containsExactly(widget1, widget2);
+    }
+
+    @Test
+    @DisplayName("compactZIndexes renumbers the repository, notifies the listeners and reports the moved Widgets")
+    void compactZIndexes_shouldRenumberAndReport_whenCalled() {
+        // given
+        final var listenerMock = mock(WidgetChangeListener.class);
+        subject.addChangeListener(listenerMock);
+        when(widgetRepositoryMock.renumber(1024)).thenReturn(3);
+        when(widgetRepositoryMock.count()).thenReturn(5);
+
+        // when
+        final ZIndexCompaction actual = subject.compactZIndexes(1024);
+
+        // then
+        verify(listenerMock).onRenumbered(1024);
+        assertThat(actual.getSpacing()).isEqualTo(1024);
+        assertThat(actual.getWidgets()).isEqualTo(5);
+        assertThat(actual.getMoved()).isEqualTo(3);
+        assertThat(actual.getDuration().isNegative()).isFalse();
+    }
+
+    @Test
+    @DisplayName("moveWidgetAbove places the widget in the middle of the gap above the other one without shifting")
+    void moveWidgetAbove_shouldTakeMiddleOfGap_whenNeighboursAreSpaced() {
+        // given
+        final var widget = WidgetFixture.create(4096);
+        final var below = WidgetFixture.create(1024);
+        final var above = WidgetFixture.create(2048);
+        when(widgetRepositoryMock.findById(widget.getId())).thenReturn(Optional.of(widget));
+        when(widgetRepositoryMock.findById(below.getId())).thenReturn(Optional.of(below));
+        when(widgetRepositoryMock.findFirstAbove(1024)).thenReturn(Optional.of(above));
+        when(widgetRepositoryMock.findByZIndex(1536)).thenReturn(Optional.empty());
+
+        // when
+        final Widget actual = subject.moveWidgetAbove(widget.getId(), below.getId());
+
+        // then
+        assertThat(actual.getZIndex()).isEqualTo(1536);
+        verify(widgetRepositoryMock).compareAndSave(actual, widget.getVersion());
+        verify(widgetRepositoryMock, never()).shift(any());
+    }
+
+    @Test
+    @DisplayName("moveWidgetAbove shifts the upper neighbour when there is no gap above the other widget")
+    void moveWidgetAbove_shouldShift_whenNeighboursAreConsecutive() {
+        // given
+        final var widget = WidgetFixture.create(10);
+        final var below = WidgetFixture.create(1);
+        final var above = WidgetFixture.create(2);
+        when(widgetRepositoryMock.findById(widget.getId())).thenReturn(Optional.of(widget));
+        when(widgetRepositoryMock.findById(below.getId())).thenReturn(Optional.of(below));
+        when(widgetRepositoryMock.findFirstAbove(1)).thenReturn(Optional.of(above));
+        when(widgetRepositoryMock.findByZIndex(2)).thenReturn(Optional.of(above));
+        when(widgetRepositoryMock.findByZIndex(3)).thenReturn(Optional.empty());
+
+        // when
+        final Widget actual = subject.moveWidgetAbove(widget.getId(), below.getId());
+
+        // then
+        assertThat(actual.getZIndex()).isEqualTo(2);
+        verify(widgetRepositoryMock).shift(ZIndexShift.of(2, 2));
+    }
+
+    @Test
+    @DisplayName("moveWidgetAbove throws an exception when the widget is moved above itself")
+    void moveWidgetAbove_shouldThrowException_whenWidgetIsItsOwnNeighbour() {
+        // given
+        final var widgetId = UUID.randomUUID();
+
+        // when - then
+        assertThrows(IllegalArgumentException.class, () -> subject.moveWidgetAbove(widgetId, widgetId));
+        verify(widgetRepositoryMock, never()).compareAndSave(any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("findTopmostAt returns the Widget found by the repository")
+    void findTopmostAt_shouldReturnsWidget_whenWidgetIsFoundInRepository() {
+        // given
+        final var widget = WidgetFixture.create();
+        when(widgetRepositoryMock.findTopmostAt(2, 3)).thenReturn(Optional.of(widget));
+
+        // when
+        final Optional<Widget> actual = subject.findTopmostAt(2, 3);
+
+        // then
+        assertThat(actual).hasValue(widget);
+    }
+
+}
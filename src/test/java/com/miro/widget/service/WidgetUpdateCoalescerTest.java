@@ -0,0 +1,192 @@
+package com.miro.widget.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.miro.widget.metrics.WidgetMetrics;
+import com.miro.widget.model.Widget;
+import com.miro.widget.repository.InMemoryWidgetRepository;
+
+@DisplayName("Widget Update Coalescer Test")
+class WidgetUpdateCoalescerTest {
+
+    private static final Duration WINDOW = Duration.ofMillis(500);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    private final WidgetService subject = new WidgetService(new InMemoryWidgetRepository(), WidgetMetrics.NOOP, WINDOW);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("updates of a widget sent within the window are written once and every caller gets the result")
+    void updateWidget_shouldWriteMergedUpdateOnce_whenUpdatesArriveWithinTheWindow() throws Exception {
+        // given
+        final Widget widget = subject.createWidget(1, 2, 3, 4, 5);
+
+        // when
+        final List<Widget> actual = concurrently(
+                () -> subject.updateWidget(widget.getId(), 10, null, 3, null, null),
+                () -> subject.updateGeometry(widget.getId(), null, null, 20, null, null),
+                () -> subject.updateGeometry(widget.getId(), null, null, null, 30, null)
+        );
+
+        // then
+        assertThat(actual).allSatisfy(result -> {
+            assertThat(result.getCoordinateX()).isEqualTo(10);
+            assertThat(result.getCoordinateY()).isEqualTo(20);
+            assertThat(result.getZIndex()).isEqualTo(3);
+            assertThat(result.getWidth()).isEqualTo(30);
+            assertThat(result.getVersion()).isEqualTo(widget.getVersion() + 1);
+        });
+        assertThat(subject.findById(widget.getId())).hasValue(actual.get(0));
+    }
+
+    @Test
+    @DisplayName("every caller gets the exception of the merged update")
+    void updateWidget_shouldThrowToEveryCaller_whenMergedUpdateFails() throws Exception {
+        // given
+        final UUID widgetId = UUID.randomUUID();
+
+        // when
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Widget>> results = new ArrayList<>();
+        for (int caller = 0; caller < 2; caller++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return subject.updateGeometry(widgetId, null, 1, 2, null, null);
+            }));
+        }
+        start.countDown();
+
+        // then
+        for (final Future<Widget> result : results) {
+            final ExecutionException exception = assertThrows(
+                    ExecutionException.class,
+                    () -> result.get(1, TimeUnit.MINUTES)
+            );
+            assertThat(exception).hasCauseInstanceOf(WidgetService.WidgetNotFoundException.class);
+        }
+    }
+
+    @Test
+    @DisplayName("every caller gets the error thrown by the writer of the merged update")
+    void update_shouldThrowErrorToEveryCaller_whenWriterThrowsError() throws Exception {
+        // given
+        final UUID widgetId = UUID.randomUUID();
+        final WidgetUpdateCoalescer coalescer = new WidgetUpdateCoalescer(
+                WINDOW,
+                (id, changes) -> {
+                    throw new OutOfMemoryError("writer");
+                },
+                WidgetMetrics.NOOP
+        );
+
+        // when
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Widget>> results = new ArrayList<>();
+        for (int caller = 0; caller < 2; caller++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return coalescer.update(widgetId, WidgetUpdateCoalescer.Changes.geometry(1, 2, null, null));
+            }));
+        }
+        start.countDown();
+
+        // then
+        for (final Future<Widget> result : results) {
+            final ExecutionException exception = assertThrows(
+                    ExecutionException.class,
+                    () -> result.get(1, TimeUnit.MINUTES)
+            );
+            assertThat(exception).hasCauseInstanceOf(OutOfMemoryError.class);
+        }
+    }
+
+    @Test
+    @DisplayName("updates with an expected version are written on their own")
+    void updateWidget_shouldNotCoalesce_whenVersionIsExpected() {
+        // given
+        final Widget widget = subject.createWidget(1, 2, 3, 4, 5);
+
+        // when
+        final Widget actual = subject.updateWidget(widget.getId(), widget.getVersion(), 10, null, 3, null, null);
+
+        // then
+        assertThat(actual.getCoordinateX()).isEqualTo(10);
+        assertThat(actual.getVersion()).isEqualTo(widget.getVersion() + 1);
+    }
+
+    @Test
+    @DisplayName("merged changes keep the latest value of every field")
+    void then_shouldKeepLatestValues() {
+        // given
+        final WidgetUpdateCoalescer.Changes earlier = WidgetUpdateCoalescer.Changes.of(1, 2, 3, 4, 5);
+        final WidgetUpdateCoalescer.Changes later = WidgetUpdateCoalescer.Changes.geometry(10, null, null, 50);
+
+        // when
+        final WidgetUpdateCoalescer.Changes actual = earlier.then(later);
+
+        // then
+        assertThat(actual.getCoordinateX()).isEqualTo(10);
+        assertThat(actual.getCoordinateY()).isEqualTo(2);
+        assertThat(actual.keepsZIndex()).isFalse();
+        assertThat(actual.getZIndex()).isEqualTo(3);
+        assertThat(actual.getWidth()).isEqualTo(4);
+        assertThat(actual.getHeight()).isEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("a later update without z-index moves the widget to the top")
+    void then_shouldTakeLatestZIndex_whenLaterUpdateSetsIt() {
+        // given
+        final WidgetUpdateCoalescer.Changes earlier = WidgetUpdateCoalescer.Changes.of(1, 2, 3, 4, 5);
+        final WidgetUpdateCoalescer.Changes later = WidgetUpdateCoalescer.Changes.of(null, null, null, null, null);
+
+        // when
+        final WidgetUpdateCoalescer.Changes actual = earlier.then(later);
+
+        // then
+        assertThat(actual.keepsZIndex()).isFalse();
+        assertThat(actual.getZIndex()).isNull();
+    }
+
+    @SafeVarargs
+    private List<Widget> concurrently(final Callable<Widget>... updates) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Widget>> results = new ArrayList<>();
+        for (final Callable<Widget> update : updates) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return update.call();
+            }));
+        }
+        start.countDown();
+
+        final List<Widget> widgets = new ArrayList<>();
+        for (final Future<Widget> result : results) {
+            widgets.add(result.get(1, TimeUnit.MINUTES));
+        }
+        return widgets;
+    }
+
+}